@@ -69,6 +69,7 @@ import cgeo.geocaching.sorting.SortActionProvider;
 import cgeo.geocaching.storage.ContentStorage;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.storage.PersistableFolder;
+import cgeo.geocaching.storage.StoredCachesPager;
 import cgeo.geocaching.ui.CacheListAdapter;
 import cgeo.geocaching.ui.FastScrollListener;
 import cgeo.geocaching.ui.WeakReferenceHandler;
@@ -102,6 +103,7 @@ import android.view.KeyEvent;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.AbsListView;
 import android.widget.AdapterView.AdapterContextMenuInfo;
 import android.widget.ListView;
 import android.widget.TextView;
@@ -110,6 +112,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 import androidx.appcompat.app.ActionBar;
+import androidx.core.util.Consumer;
 import androidx.core.view.MenuItemCompat;
 import androidx.loader.app.LoaderManager;
 import androidx.loader.content.Loader;
@@ -126,8 +129,10 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.ObservableOnSubscribe;
+import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.functions.Function;
 import io.reactivex.rxjava3.schedulers.Schedulers;
@@ -155,6 +160,10 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
     /** The list of shown caches shared with Adapter. Don't manipulate outside of main thread only with Handler */
     private final List<Geocache> cacheList = new ArrayList<>();
     private CacheListAdapter adapter = null;
+    /** Loads the further pages of a huge offline list, null if all caches of the list are loaded */
+    @Nullable private StoredCachesPager offlinePager = null;
+    /** The page being loaded in the background, null if none. Only accessed on the UI thread */
+    @Nullable private Single<Set<Geocache>> loadingPage = null;
     private View listFooter = null;
     private TextView listFooterText = null;
     private final Progress progress = new Progress();
@@ -687,7 +696,8 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
             sortProvider.setSelection(selectedComparator);
         });
 
-        ListNavigationSelectionActionProvider.initialize(menu.findItem(R.id.menu_cache_list_app_provider), app -> app.invoke(CacheListAppUtils.filterCoords(cacheList), CacheListActivity.this, getFilteredSearch()));
+        ListNavigationSelectionActionProvider.initialize(menu.findItem(R.id.menu_cache_list_app_provider), app ->
+                loadRemainingPages(() -> app.invoke(CacheListAppUtils.filterCoords(cacheList), CacheListActivity.this, getFilteredSearch())));
 
         return true;
     }
@@ -780,6 +790,7 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
         return true;
     }
 
+    // the menu is prepared for the loaded pages of a list only, to not load all pages every time
     private boolean containsStoredCaches() {
         for (final Geocache cache : adapter.getCheckedOrAllCaches()) {
             if (cache.isOffline()) {
@@ -836,13 +847,13 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
     }
 
     private void setCacheIconsHelper(final int newCacheIcon) {
-        new SetCacheIconCommand(this, adapter.getCheckedOrAllCaches(), newCacheIcon) {
+        withCheckedOrAllCaches(caches -> new SetCacheIconCommand(this, caches, newCacheIcon) {
             @Override
             protected void onFinished() {
                 adapter.setSelectMode(false);
                 refreshCurrentList(AfterLoadAction.CHECK_IF_EMPTY);
             }
-        }.execute();
+        }.execute());
     }
 
     @Override
@@ -854,10 +865,10 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
             adapter.switchSelectMode();
             invalidateOptionsMenuCompatible();
         } else if (menuItem == R.id.menu_refresh_stored) {
-            refreshStored(adapter.getCheckedOrAllCaches());
+            withCheckedOrAllCaches(this::refreshStored);
             invalidateOptionsMenuCompatible();
         } else if (menuItem == R.id.menu_drop_caches) {
-            deleteCaches(adapter.getCheckedOrAllCaches());
+            withCheckedOrAllCaches(this::deleteCaches);
             invalidateOptionsMenuCompatible();
         } else if (menuItem == R.id.menu_import_pq) {
             importPq();
@@ -882,25 +893,25 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
         } else if (menuItem == R.id.menu_import_web) {
             importWeb();
         } else if (menuItem == R.id.menu_export_gpx) {
-            new GpxExport().export(adapter.getCheckedOrAllCaches(), this);
+            withCheckedOrAllCaches(caches -> new GpxExport().export(caches, this));
         } else if (menuItem == R.id.menu_export_fieldnotes) {
-                new FieldNoteExport().export(adapter.getCheckedOrAllCaches(), this);
+                withCheckedOrAllCaches(caches -> new FieldNoteExport().export(caches, this));
         } else if (menuItem == R.id.menu_export_persnotes) {
-            new PersonalNoteExport().export(adapter.getCheckedOrAllCaches(), this);
+            withCheckedOrAllCaches(caches -> new PersonalNoteExport().export(caches, this));
         } else if (menuItem == R.id.menu_upload_modifiedcoords) {
             final Activity that = this;
-            Dialogs.confirm(this, R.string.caches_upload_modifiedcoords, R.string.caches_upload_modifiedcoords_warning, (dialog, which) -> new BatchUploadModifiedCoordinates(true).export(adapter.getCheckedOrAllCaches(), that));
+            Dialogs.confirm(this, R.string.caches_upload_modifiedcoords, R.string.caches_upload_modifiedcoords_warning, (dialog, which) -> withCheckedOrAllCaches(caches -> new BatchUploadModifiedCoordinates(true).export(caches, that)));
         } else if (menuItem == R.id.menu_upload_allcoords) {
             final Activity that2 = this;
-            Dialogs.confirm(this, R.string.caches_upload_allcoords_dialogtitle, R.string.caches_upload_allcoords_warning, (dialog, which) -> new BatchUploadModifiedCoordinates(false).export(adapter.getCheckedOrAllCaches(), that2));
+            Dialogs.confirm(this, R.string.caches_upload_allcoords_dialogtitle, R.string.caches_upload_allcoords_warning, (dialog, which) -> withCheckedOrAllCaches(caches -> new BatchUploadModifiedCoordinates(false).export(caches, that2)));
         } else if (menuItem == R.id.menu_remove_from_history) {
             removeFromHistoryCheck();
             invalidateOptionsMenuCompatible();
         } else if (menuItem == R.id.menu_move_to_list) {
-            moveCachesToOtherList(adapter.getCheckedOrAllCaches());
+            withCheckedOrAllCaches(this::moveCachesToOtherList);
             invalidateOptionsMenuCompatible();
         } else if (menuItem == R.id.menu_copy_to_list) {
-            copyCachesToOtherList(adapter.getCheckedOrAllCaches());
+            withCheckedOrAllCaches(this::copyCachesToOtherList);
             invalidateOptionsMenuCompatible();
         } else if (menuItem == R.id.menu_delete_events) {
             deletePastEvents();
@@ -912,7 +923,7 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
             invalidateOptionsMenuCompatible();
         } else if (menuItem == R.id.menu_cache_list_app) {
             if (cacheToShow()) {
-                CacheListApps.getActiveApps().get(0).invoke(CacheListAppUtils.filterCoords(cacheList), this, getFilteredSearch());
+                loadRemainingPages(() -> CacheListApps.getActiveApps().get(0).invoke(CacheListAppUtils.filterCoords(cacheList), this, getFilteredSearch()));
             }
         } else if (menuItem == R.id.menu_make_list_unique) {
             new MakeListUniqueCommand(this, listId) {
@@ -957,25 +968,42 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
         return true;
     }
 
+    /**
+     * Only call this after {@link #loadRemainingPages}, so that no caches of the pages not loaded yet are missed.
+     */
     private SearchResult getFilteredSearch() {
         return new SearchResult(Geocache.getGeocodes(adapter.getFilteredList()));
     }
 
+    /**
+     * Actions on all caches of a list must not miss the caches of the pages not loaded yet, so these are loaded
+     * before the action is run.
+     */
+    private void withCheckedOrAllCaches(@NonNull final Consumer<List<Geocache>> action) {
+        if (adapter.getCheckedCount() > 0) {
+            action.accept(adapter.getCheckedOrAllCaches());
+        } else {
+            loadRemainingPages(() -> action.accept(adapter.getCheckedOrAllCaches()));
+        }
+    }
+
     private void deletePastEvents() {
-        final List<Geocache> deletion = new ArrayList<>();
-        for (final Geocache cache : adapter.getCheckedOrAllCaches()) {
-            if (CalendarUtils.isPastEvent(cache)) {
-                deletion.add(cache);
+        withCheckedOrAllCaches(caches -> {
+            final List<Geocache> deletion = new ArrayList<>();
+            for (final Geocache cache : caches) {
+                if (CalendarUtils.isPastEvent(cache)) {
+                    deletion.add(cache);
+                }
             }
-        }
-        deleteCaches(deletion);
+            deleteCaches(deletion);
+        });
     }
 
     private void clearOfflineLogs() {
-        Dialogs.confirmYesNo(this, R.string.caches_clear_offlinelogs, R.string.caches_clear_offlinelogs_message, (dialog, which) -> {
+        Dialogs.confirmYesNo(this, R.string.caches_clear_offlinelogs, R.string.caches_clear_offlinelogs_message, (dialog, which) -> withCheckedOrAllCaches(caches -> {
             progress.show(CacheListActivity.this, null, res.getString(R.string.caches_clear_offlinelogs_progress), true, clearOfflineLogsHandler.disposeMessage());
-            clearOfflineLogs(clearOfflineLogsHandler, adapter.getCheckedOrAllCaches());
-        });
+            clearOfflineLogs(clearOfflineLogsHandler, caches);
+        }));
     }
 
     /**
@@ -996,6 +1024,10 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
     private void setComparator(final CacheComparator comparator) {
         adapter.setComparator(comparator);
         currentInverseSort = adapter.getInverseSort();
+        // the pages of the list have been loaded in the old sort order
+        if (offlinePager != null) {
+            refreshCurrentList();
+        }
     }
 
     @Override
@@ -1158,11 +1190,15 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
     }
 
     private void setFilter(final IFilter filter) {
+        final boolean reload = CacheListAdapter.isFilteredByDatabase(type, currentFilter) || CacheListAdapter.isFilteredByDatabase(type, filter) || hasMorePages();
         currentFilter = filter;
         adapter.setFilter(filter);
         prepareFilterBar();
         updateTitle();
         invalidateOptionsMenuCompatible();
+        if (reload) {
+            refreshCurrentList();
+        }
     }
 
     @Override
@@ -1194,7 +1230,96 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
         adapter.setInverseSort(currentInverseSort);
         adapter.forceSort();
 
-        listView.setOnScrollListener(new FastScrollListener(listView));
+        listView.setOnScrollListener(new FastScrollListener(listView) {
+            @Override
+            public void onScroll(final AbsListView view, final int firstVisibleItem, final int visibleItemCount, final int totalItemCount) {
+                super.onScroll(view, firstVisibleItem, visibleItemCount, totalItemCount);
+                // fetch the next page while there is still a screen full of caches to scroll through
+                if (firstVisibleItem + 2 * visibleItemCount >= totalItemCount) {
+                    loadNextPage();
+                }
+            }
+        });
+    }
+
+    private boolean hasMorePages() {
+        return offlinePager != null && !offlinePager.isComplete();
+    }
+
+    private void loadNextPage() {
+        final StoredCachesPager pager = offlinePager;
+        if (loadingPage != null || pager == null || pager.isComplete()) {
+            return;
+        }
+        final Single<Set<Geocache>> page = Single.fromCallable(() -> DataStore.loadCaches(pager.nextPage(), LoadFlags.LOAD_CACHE_OR_DB))
+                .subscribeOn(Schedulers.io()).cache();
+        loadingPage = page;
+        page.observeOn(AndroidSchedulers.mainThread()).subscribe(caches -> {
+            // ignore the page if it is added by loadRemainingPages() or the list has been reloaded meanwhile
+            if (loadingPage == page) {
+                loadingPage = null;
+                if (pager == offlinePager) {
+                    addPage(caches);
+                }
+            }
+        }, throwable -> {
+            Log.e("CacheListActivity.loadNextPage", throwable);
+            if (loadingPage == page) {
+                loadingPage = null;
+            }
+        });
+    }
+
+    /**
+     * Load the caches of all pages not loaded yet in the background, then run the action on the UI thread. The action
+     * is not run if loading fails or the list is reloaded meanwhile.
+     */
+    private void loadRemainingPages(@NonNull final Runnable action) {
+        final StoredCachesPager pager = offlinePager;
+        final Single<Set<Geocache>> page = loadingPage;
+        if (pager == null || (page == null && pager.isComplete())) {
+            action.run();
+            return;
+        }
+        // the page being loaded in the background has already advanced the pager, so it is part of the remaining caches
+        final Single<Set<Geocache>> currentPage = page == null ? Single.just(Collections.<Geocache>emptySet()) : page;
+        final Single<Set<Geocache>> remainingPages = currentPage.observeOn(Schedulers.io()).map(currentCaches -> {
+            final Set<String> geocodes = new HashSet<>();
+            while (!pager.isComplete()) {
+                geocodes.addAll(pager.nextPage());
+            }
+            final Set<Geocache> caches = new HashSet<>(currentCaches);
+            caches.addAll(DataStore.loadCaches(geocodes, LoadFlags.LOAD_CACHE_OR_DB));
+            return caches;
+        }).cache();
+        // no page is loaded by scrolling meanwhile, and the current page is only added as part of the remaining caches
+        loadingPage = remainingPages;
+        progress.show(this, null, res.getString(R.string.caches_more_caches_loading), true, null);
+        remainingPages.observeOn(AndroidSchedulers.mainThread()).subscribe(caches -> {
+            progress.dismiss();
+            if (loadingPage == remainingPages) {
+                loadingPage = null;
+                if (pager == offlinePager) {
+                    addPage(caches);
+                    action.run();
+                }
+            }
+        }, throwable -> {
+            progress.dismiss();
+            Log.e("CacheListActivity.loadRemainingPages", throwable);
+            if (loadingPage == remainingPages) {
+                loadingPage = null;
+            }
+        });
+    }
+
+    private void addPage(final Collection<Geocache> caches) {
+        for (final Geocache cache : caches) {
+            search.addGeocode(cache.getGeocode());
+        }
+        cacheList.addAll(caches);
+        updateAdapter();
+        updateTitle();
     }
 
     private void updateAdapter() {
@@ -1344,14 +1469,15 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
     }
 
     private void removeFromHistory() {
-        final List<Geocache> caches = adapter.getCheckedOrAllCaches();
-        final Collection<String> geocodes = new ArrayList<>(caches.size());
-        for (final Geocache cache : caches) {
-            geocodes.add(cache.getGeocode());
-        }
-        DataStore.clearVisitDate(geocodes);
-        DataStore.clearLogsOffline(caches);
-        refreshCurrentList();
+        withCheckedOrAllCaches(caches -> {
+            final Collection<String> geocodes = new ArrayList<>(caches.size());
+            for (final Geocache cache : caches) {
+                geocodes.add(cache.getGeocode());
+            }
+            DataStore.clearVisitDate(geocodes);
+            DataStore.clearLogsOffline(caches);
+            refreshCurrentList();
+        });
     }
 
     private void importWeb() {
@@ -1595,8 +1721,7 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
         }
 
         // apply filter settings (if there's a filter)
-        final SearchResult searchToUse = getFilteredSearch();
-        DefaultMap.startActivitySearch(this, searchToUse, title);
+        loadRemainingPages(() -> DefaultMap.startActivitySearch(this, getFilteredSearch(), title));
     }
 
     private void refreshCurrentList() {
@@ -1807,7 +1932,7 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
                     markerId = list.markerId;
                 }
 
-                loader = new OfflineGeocacheListLoader(this, coords, listId);
+                loader = new OfflineGeocacheListLoader(this, coords, listId, currentFilter, adapter.getCacheComparator(), currentInverseSort);
 
                 break;
             case HISTORY:
@@ -1902,6 +2027,9 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
             final Set<Geocache> cachesFromSearchResult = searchIn.getCachesFromSearchResult(LoadFlags.LOAD_CACHE_OR_DB);
             cacheList.addAll(cachesFromSearchResult);
             search = searchIn;
+            offlinePager = arg0 instanceof OfflineGeocacheListLoader ? ((OfflineGeocacheListLoader) arg0).getPager() : null;
+            loadingPage = null;
+            adapter.setDatabaseOrder(offlinePager == null ? null : offlinePager.getPageOrder());
             updateAdapter();
             updateTitle();
             showFooterMoreCaches();
@@ -1951,10 +2079,12 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
             return getCacheNumberString(getResources(), 0);
         }
         final StringBuilder result = new StringBuilder();
+        // a list loaded page by page contains the filtered caches only, the search result knows the number of all caches
+        final boolean paged = offlinePager != null;
         if (adapter.isFiltered()) {
-            result.append(adapter.getCount()).append('/');
+            result.append(paged ? offlinePager.getTotalCount() : adapter.getCount()).append('/');
         }
-        result.append(getCacheNumberString(getResources(), search.getCount()));
+        result.append(getCacheNumberString(getResources(), paged ? search.getTotalCountGC() : search.getCount()));
         return result.toString();
     }
 
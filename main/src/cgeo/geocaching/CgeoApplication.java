@@ -102,6 +102,10 @@ public class CgeoApplication extends Application {
     @Override
     public void onTrimMemory(final int level) {
         super.onTrimMemory(level);
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // the app is not in interactive use anymore
+            DataStore.scheduleCheckpoint();
+        }
         if (level >= TRIM_MEMORY_MODERATE) {
             Log.i("Cleaning applications cache to trim memory");
             DataStore.removeAllFromCache();
@@ -360,6 +360,23 @@ public final class ConnectorFactory {
         return SearchResult.parallelCombineActive(searchByViewPortConns, connector -> connector.searchByViewport(viewport));
     }
 
+    /**
+     * Search by viewport like {@link #searchByViewport(Viewport)}, but only request the areas not covered by the
+     * recent searches remembered in the given cache.
+     */
+    @NonNull
+    public static SearchResult searchByViewport(@NonNull final Viewport viewport, @NonNull final ViewportSearchCache searchCache) {
+        //shortcut: no need to search any server for "user-defined" caches
+        if (Settings.getCacheType() != null && Settings.getCacheType().equals(CacheType.USER_DEFINED)) {
+            return new SearchResult();
+        }
+
+        // the search settings used by the connectors are part of the key, so changing them invalidates the cached areas
+        final String settingsKey = Settings.getCacheType().id + "|" + Settings.isExcludeMyCaches();
+        return SearchResult.parallelCombineActive(searchByViewPortConns, connector ->
+                searchCache.search(connector.getName() + "|" + settingsKey, viewport, connector::searchByViewport));
+    }
+
     @Nullable
     public static String getGeocodeFromURL(@Nullable final String url) {
         if (url == null) {
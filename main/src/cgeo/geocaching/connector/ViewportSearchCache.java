@@ -0,0 +1,277 @@
+package cgeo.geocaching.connector;
+
+import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.enumerations.StatusCode;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.functions.Func1;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the areas recently searched by viewport together with their results, so that a new viewport search only
+ * requests the parts of the viewport not yet covered.
+ *
+ * The searched areas are stored per search key (connector and search settings) in a linear quadtree: a cell of level
+ * {@code l} spans {@code 180/2^l} degrees of latitude and {@code 360/2^l} degrees of longitude, and a cell is covered
+ * if it, one of its ancestors or all of its children have been searched within the time to live.
+ */
+public class ViewportSearchCache {
+
+    private static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * a search returning at least that many caches without reporting the total number of caches might have been
+     * truncated by the server, so its area is not considered as covered
+     */
+    static final int TRUNCATION_THRESHOLD = 400;
+
+    private static final int MAX_LEVEL = 20;
+    /**
+     * number of cells a viewport is split into per dimension, so that panning only requests a strip of it
+     */
+    private static final int CELLS_PER_VIEWPORT = 4;
+    /**
+     * levels of smaller cells checked for covering a cell
+     */
+    private static final int CHILD_LEVELS = 2;
+    private static final int MAX_CELLS = 10000;
+
+    private final long ttlMillis;
+    private final Map<String, Map<Long, Area>> coverages = new HashMap<>();
+
+    /**
+     * searched area with its result, shared by all cells of the area
+     */
+    private static final class Area {
+        @NonNull private final Set<String> geocodes;
+        @NonNull private final Set<String> filteredGeocodes;
+        private final long searched;
+
+        Area(@NonNull final SearchResult result, final long searched) {
+            this.geocodes = result.getGeocodes();
+            this.filteredGeocodes = result.getFilteredGeocodes();
+            this.searched = searched;
+        }
+    }
+
+    public ViewportSearchCache() {
+        this(DEFAULT_TTL_MILLIS);
+    }
+
+    ViewportSearchCache(final long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Search the given viewport, using the cached results for all covered parts and the searcher for the others.
+     *
+     * @param key
+     *          key of connector and search settings, results are only shared between searches with the same key
+     * @param viewport
+     *          area to search
+     * @param searcher
+     *          the actual viewport search
+     * @return the combined result, which might contain caches outside the viewport
+     */
+    @NonNull
+    public SearchResult search(@NonNull final String key, @NonNull final Viewport viewport, @NonNull final Func1<Viewport, SearchResult> searcher) {
+        final int level = getLevel(viewport);
+        final Map<Area, Boolean> covering = new IdentityHashMap<>();
+        final List<int[]> missing;
+        synchronized (this) {
+            missing = getMissingAreas(getCoverage(key), viewport, level, covering);
+        }
+
+        final SearchResult result = new SearchResult();
+        for (final Area area : covering.keySet()) {
+            result.addGeocodes(area.geocodes);
+            result.addFilteredGeocodes(area.filteredGeocodes);
+        }
+        for (final int[] cells : missing) {
+            final SearchResult cellsResult = searcher.call(getViewport(level, cells));
+            result.addSearchResult(cellsResult);
+            if (cellsResult.getError() == StatusCode.NO_ERROR && isComplete(cellsResult)) {
+                synchronized (this) {
+                    putArea(getCoverage(key), level, cells, new Area(cellsResult, System.currentTimeMillis()));
+                }
+            }
+        }
+        Log.d("ViewportSearchCache: " + key + " reused " + covering.size() + " areas, searched " + missing.size() + " areas");
+        return result;
+    }
+
+    private static boolean isComplete(@NonNull final SearchResult result) {
+        final int total = result.getTotalCountGC();
+        return total > 0 ? result.getCount() >= total : result.getCount() < TRUNCATION_THRESHOLD;
+    }
+
+    public synchronized void clear() {
+        coverages.clear();
+    }
+
+    @NonNull
+    private Map<Long, Area> getCoverage(@NonNull final String key) {
+        Map<Long, Area> coverage = coverages.get(key);
+        if (coverage == null) {
+            coverage = new HashMap<>();
+            coverages.put(key, coverage);
+        }
+        return coverage;
+    }
+
+    /**
+     * Collect the areas covering the viewport and return the uncovered cells merged into rectangles.
+     *
+     * @return rectangles of cells as {@code {minRow, minColumn, maxRow, maxColumn}}
+     */
+    @NonNull
+    private List<int[]> getMissingAreas(@NonNull final Map<Long, Area> coverage, @NonNull final Viewport viewport, final int level, @NonNull final Map<Area, Boolean> covering) {
+        final int minRow = getRow(level, viewport.getLatitudeMin());
+        final int maxRow = getRow(level, viewport.getLatitudeMax());
+        final int minColumn = getColumn(level, viewport.getLongitudeMin());
+        final int maxColumn = getColumn(level, viewport.getLongitudeMax());
+        final long now = System.currentTimeMillis();
+
+        final List<int[]> missing = new ArrayList<>();
+        List<int[]> previousRuns = Collections.emptyList();
+        for (int row = minRow; row <= maxRow; row++) {
+            final List<int[]> runs = new ArrayList<>();
+            int runStart = -1;
+            for (int column = minColumn; column <= maxColumn + 1; column++) {
+                final boolean covered = column > maxColumn || isCovered(coverage, level, row, column, now, covering, 0);
+                if (!covered && runStart < 0) {
+                    runStart = column;
+                } else if (covered && runStart >= 0) {
+                    runs.add(extendOrCreate(previousRuns, missing, row, runStart, column - 1));
+                    runStart = -1;
+                }
+            }
+            previousRuns = runs;
+        }
+        return missing;
+    }
+
+    /**
+     * Extend a rectangle of the previous row with the same columns, or start a new one.
+     */
+    @NonNull
+    private static int[] extendOrCreate(@NonNull final List<int[]> previousRuns, @NonNull final List<int[]> missing, final int row, final int minColumn, final int maxColumn) {
+        for (final int[] rectangle : previousRuns) {
+            if (rectangle[1] == minColumn && rectangle[3] == maxColumn) {
+                rectangle[2] = row;
+                return rectangle;
+            }
+        }
+        final int[] rectangle = { row, minColumn, row, maxColumn };
+        missing.add(rectangle);
+        return rectangle;
+    }
+
+    /**
+     * @param depth
+     *          number of levels below the viewport cells, ancestors are only checked for the viewport cells themselves
+     */
+    private boolean isCovered(@NonNull final Map<Long, Area> coverage, final int level, final int row, final int column, final long now, @NonNull final Map<Area, Boolean> covering, final int depth) {
+        for (int ancestor = depth == 0 ? 0 : level; ancestor <= level; ancestor++) {
+            final int shift = level - ancestor;
+            final Area area = getFreshArea(coverage, getCell(ancestor, row >> shift, column >> shift), now);
+            if (area != null) {
+                covering.put(area, Boolean.TRUE);
+                return true;
+            }
+        }
+        if (depth >= CHILD_LEVELS || level >= MAX_LEVEL) {
+            return false;
+        }
+        // covered by smaller cells only if all children are covered, collect their areas only in that case
+        final Map<Area, Boolean> childCovering = new IdentityHashMap<>();
+        for (int child = 0; child < 4; child++) {
+            if (!isCovered(coverage, level + 1, row * 2 + child / 2, column * 2 + child % 2, now, childCovering, depth + 1)) {
+                return false;
+            }
+        }
+        covering.putAll(childCovering);
+        return true;
+    }
+
+    private Area getFreshArea(@NonNull final Map<Long, Area> coverage, final long cell, final long now) {
+        final Area area = coverage.get(cell);
+        if (area != null && now - area.searched > ttlMillis) {
+            coverage.remove(cell);
+            return null;
+        }
+        return area;
+    }
+
+    private void putArea(@NonNull final Map<Long, Area> coverage, final int level, @NonNull final int[] cells, @NonNull final Area area) {
+        if (coverage.size() > MAX_CELLS) {
+            removeExpired(coverage);
+            if (coverage.size() > MAX_CELLS) {
+                coverage.clear();
+            }
+        }
+        for (int row = cells[0]; row <= cells[2]; row++) {
+            for (int column = cells[1]; column <= cells[3]; column++) {
+                coverage.put(getCell(level, row, column), area);
+            }
+        }
+    }
+
+    private void removeExpired(@NonNull final Map<Long, Area> coverage) {
+        final long now = System.currentTimeMillis();
+        final Iterator<Area> iterator = coverage.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().searched > ttlMillis) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Level of the cells for a viewport, chosen to split the viewport into a few cells per dimension.
+     */
+    static int getLevel(@NonNull final Viewport viewport) {
+        final double cellSpan = Math.max(viewport.getLatitudeSpan(), viewport.getLongitudeSpan() / 2) / CELLS_PER_VIEWPORT;
+        if (cellSpan <= 0) {
+            return MAX_LEVEL;
+        }
+        final int level = (int) Math.ceil(Math.log(180 / cellSpan) / Math.log(2));
+        return Math.max(0, Math.min(MAX_LEVEL, level));
+    }
+
+    private static int getRow(final int level, final double latitude) {
+        return clampIndex(level, (int) Math.floor((latitude + 90) / 180 * (1 << level)));
+    }
+
+    private static int getColumn(final int level, final double longitude) {
+        return clampIndex(level, (int) Math.floor((longitude + 180) / 360 * (1 << level)));
+    }
+
+    private static int clampIndex(final int level, final int index) {
+        return Math.max(0, Math.min((1 << level) - 1, index));
+    }
+
+    private static long getCell(final int level, final int row, final int column) {
+        return ((long) level << 56) | ((long) row << 28) | column;
+    }
+
+    @NonNull
+    private static Viewport getViewport(final int level, @NonNull final int[] cells) {
+        final double cellLatitude = 180.0 / (1 << level);
+        final double cellLongitude = 360.0 / (1 << level);
+        return new Viewport(new Geopoint(-90 + cells[0] * cellLatitude, -180 + cells[1] * cellLongitude),
+                new Geopoint(-90 + (cells[2] + 1) * cellLatitude, -180 + (cells[3] + 1) * cellLongitude));
+    }
+}
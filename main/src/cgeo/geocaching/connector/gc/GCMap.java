@@ -175,6 +175,8 @@ public class GCMap {
         }
 
         searchResult.addAndPutInCache(foundCaches);
+        // let callers detect a truncated search
+        searchResult.setTotalCountGC(mapSearchResultSet.total);
 
         return searchResult;
     }
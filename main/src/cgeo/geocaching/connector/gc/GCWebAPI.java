@@ -22,8 +22,10 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -51,6 +53,11 @@ class GCWebAPI {
     /** maximum number of elements to retrieve with one call */
     private static final int MAX_TAKE = 50;
 
+    /** maximum number of caches to retrieve with one map search call */
+    private static final int MAP_SEARCH_TAKE = 500;
+    /** maximum number of calls for one map search, to keep the latency of the live map bounded */
+    private static final int MAX_MAP_SEARCH_PAGES = 4;
+
     private static Authorization cachedAuthorization;
     private static long cachedAuthorizationExpires;
 
@@ -385,9 +392,14 @@ class GCWebAPI {
         return getAPI("/web/v1/geocache/" + StringUtils.lowerCase(geocode), CacheDetails.class);
     }
 
+    /**
+     * Search the caches in the viewport. If the server has more caches than one page, the remaining pages (up to
+     * {@link #MAX_MAP_SEARCH_PAGES} in total) are requested concurrently and merged into the result.
+     *
+     * The {@code total} of the result is the number of caches reported by the server, which is larger than the number
+     * of results if the search has been truncated.
+     */
     static MapSearchResultSet searchMap(@NonNull final Viewport viewport) {
-        final Parameters params = new Parameters();
-
         // on empty viewport silently log stacktrace + return empty searchresult without calling search provider
         if (viewport.isJustADot()) {
             try {
@@ -398,6 +410,47 @@ class GCWebAPI {
             return new MapSearchResultSet();
         }
 
+        final MapSearchResultSet resultSet = searchMapPage(viewport, 0).blockingGet();
+        if (resultSet.results == null || resultSet.results.size() < MAP_SEARCH_TAKE || resultSet.total <= resultSet.results.size()) {
+            return resultSet;
+        }
+
+        // the first page is sorted by distance, the remaining pages only fill the outer parts of the viewport
+        final int pages = Math.min(MAX_MAP_SEARCH_PAGES, (resultSet.total + MAP_SEARCH_TAKE - 1) / MAP_SEARCH_TAKE);
+        final List<Single<MapSearchResultSet>> requests = new ArrayList<>();
+        for (int page = 1; page < pages; page++) {
+            final int skip = page * MAP_SEARCH_TAKE;
+            requests.add(searchMapPage(viewport, skip).onErrorReturn(throwable -> {
+                Log.w("GCWebAPI.searchMap: failed to get results from " + skip, throwable);
+                return new MapSearchResultSet();
+            }));
+        }
+
+        // pages may overlap if the server data changed in between
+        final Set<String> geocodes = new HashSet<>();
+        final List<MapSearchResult> results = new ArrayList<>(resultSet.results.size() * pages);
+        for (final MapSearchResult result : resultSet.results) {
+            if (geocodes.add(result.code)) {
+                results.add(result);
+            }
+        }
+        for (final MapSearchResultSet page : Single.merge(requests).blockingIterable()) {
+            if (page.results != null) {
+                for (final MapSearchResult result : page.results) {
+                    if (geocodes.add(result.code)) {
+                        results.add(result);
+                    }
+                }
+            }
+        }
+        Log.d("GCWebAPI.searchMap: got " + results.size() + " of " + resultSet.total + " caches in " + pages + " pages");
+        resultSet.results = results;
+        return resultSet;
+    }
+
+    private static Single<MapSearchResultSet> searchMapPage(@NonNull final Viewport viewport, final int skip) {
+        final Parameters params = new Parameters();
+
         final StringBuilder box = new StringBuilder();
         box.append(viewport.getLatitudeMax()).append(',').append(viewport.getLongitudeMin());
         box.append(',').append(viewport.getLatitudeMin()).append(',').append(viewport.getLongitudeMax());
@@ -405,9 +458,9 @@ class GCWebAPI {
 
         final StringBuilder origin = new StringBuilder();
         origin.append(viewport.getCenter().getLatitude()).append(',').append(viewport.getCenter().getLongitude());
-        params.put("take", "500");
+        params.put("take", String.valueOf(MAP_SEARCH_TAKE));
         params.put("asc", "true");
-        params.put("skip", "0");
+        params.put("skip", String.valueOf(skip));
         params.put("sort", "distance");
         params.put("origin", origin.toString());
 
@@ -422,7 +475,7 @@ class GCWebAPI {
         }
 
         params.put("app", "cgeo");
-        return getAPI("/web/search", params, MapSearchResultSet.class).blockingGet();
+        return getAPI("/web/search", params, MapSearchResultSet.class);
     }
 
     @NonNull
@@ -5,25 +5,48 @@ import cgeo.geocaching.utils.DisposableHandler;
 
 import android.os.Handler;
 
+import androidx.annotation.NonNull;
+
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 
 abstract class AbstractImportGpxThread extends AbstractImportThread {
 
+    private static final String GPX11_NAMESPACE = "http://www.topografix.com/GPX/1/1";
+
+    // parsers are kept for the whole import, as the result of a parser contains the caches of all documents it parsed
+    private GPXParser gpx10Parser = null;
+    private GPXParser gpx11Parser = null;
+
     protected AbstractImportGpxThread(final int listId, final Handler importStepHandler, final DisposableHandler progressHandler) {
         super(listId, importStepHandler, progressHandler);
     }
 
-    @Override
-    protected Collection<Geocache> doImport() throws IOException, ParserException {
-        try {
-            // try to parse cache file as GPX 10
-            return doImport(new GPX10Parser(listId));
-        } catch (final ParserException ignored) {
-            // didn't work -> lets try GPX11
-            return doImport(new GPX11Parser(listId));
-        }
+    /**
+     * Parse a GPX document with the parser for its version, which is detected from the start of the document.
+     *
+     * @return all caches parsed so far from documents of the same version
+     */
+    @NonNull
+    protected Collection<Geocache> parse(@NonNull final InputStream stream) throws IOException, ParserException {
+        final BufferedInputStream bufferedStream = new BufferedInputStream(stream);
+        return getParser(FileTypeDetector.getGpxNamespace(bufferedStream)).parse(bufferedStream, progressHandler);
     }
 
-    protected abstract Collection<Geocache> doImport(GPXParser parser) throws IOException, ParserException;
+    @NonNull
+    private GPXParser getParser(final String namespace) {
+        if (GPX11_NAMESPACE.equals(namespace)) {
+            if (gpx11Parser == null) {
+                gpx11Parser = new GPX11Parser(listId);
+            }
+            return gpx11Parser;
+        }
+        // GPX 1.0 also for unknown documents, like before the detection of the version
+        if (gpx10Parser == null) {
+            gpx10Parser = new GPX10Parser(listId);
+        }
+        return gpx10Parser;
+    }
 }
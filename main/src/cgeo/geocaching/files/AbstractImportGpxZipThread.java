@@ -29,7 +29,7 @@ abstract class AbstractImportGpxZipThread extends AbstractImportGpxThread {
     }
 
     @Override
-    protected Collection<Geocache> doImport(final GPXParser parser) throws IOException, ParserException {
+    protected Collection<Geocache> doImport() throws IOException, ParserException {
         Collection<Geocache> caches = Collections.emptySet();
         // can't assume that GPX file comes before waypoint file in zip -> so we need two passes
         // 1. parse GPX files
@@ -42,7 +42,7 @@ abstract class AbstractImportGpxZipThread extends AbstractImportGpxThread {
                 if (StringUtils.endsWithIgnoreCase(gpxFileName, FileUtils.GPX_FILE_EXTENSION)) {
                     if (!StringUtils.endsWithIgnoreCase(gpxFileName, GPXImporter.WAYPOINTS_FILE_SUFFIX_AND_EXTENSION)) {
                         importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_READ_FILE, R.string.gpx_import_loading_caches_with_filename, (int) zipEntry.getSize(), getSourceDisplayName()));
-                        caches = parser.parse(new NoCloseInputStream(zisPass1), progressHandler);
+                        caches = parse(new NoCloseInputStream(zisPass1));
                         acceptedFiles++;
                     }
                 } else {
@@ -64,7 +64,7 @@ abstract class AbstractImportGpxZipThread extends AbstractImportGpxThread {
                 gpxFileName = zipEntry.getName();
                 if (StringUtils.endsWithIgnoreCase(gpxFileName, GPXImporter.WAYPOINTS_FILE_SUFFIX_AND_EXTENSION)) {
                     importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_READ_WPT_FILE, R.string.gpx_import_loading_waypoints_with_filename, (int) zipEntry.getSize(), gpxFileName));
-                    caches = parser.parse(new NoCloseInputStream(zisPass2), progressHandler);
+                    caches = parse(new NoCloseInputStream(zisPass2));
                 }
             }
         } finally {
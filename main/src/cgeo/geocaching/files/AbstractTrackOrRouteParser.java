@@ -1,7 +1,7 @@
 package cgeo.geocaching.files;
 
-import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Route;
+import cgeo.geocaching.models.TrackPoints;
 
 import android.sax.Element;
 import android.sax.RootElement;
@@ -14,7 +14,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 
 import org.apache.commons.lang3.StringUtils;
 import org.xml.sax.SAXException;
@@ -26,7 +25,7 @@ abstract class AbstractTrackOrRouteParser {
     protected final Route result;
 
     // temporary variables
-    protected ArrayList<Geopoint> temp;
+    protected TrackPoints temp;
     protected Element points;
     protected Element point;
 
@@ -42,7 +41,7 @@ abstract class AbstractTrackOrRouteParser {
 
     @NonNull
     public Route parse(@NonNull final InputStream stream, final RootElement root) throws IOException, ParserException {
-        points.setStartElementListener(attrs -> temp = new ArrayList<>());
+        points.setStartElementListener(attrs -> temp = new TrackPoints());
         points.getChild(namespace, "name").setEndTextElementListener(result::setName);
 
         point.setStartElementListener(attrs -> {
@@ -50,7 +49,7 @@ abstract class AbstractTrackOrRouteParser {
                 final String latitude = attrs.getValue("lat");
                 final String longitude = attrs.getValue("lon");
                 if (StringUtils.isNotBlank(latitude) && StringUtils.isNotBlank(longitude)) {
-                    temp.add(new Geopoint(Double.parseDouble(latitude), Double.parseDouble(longitude)));
+                    temp.add(Double.parseDouble(latitude), Double.parseDouble(longitude));
                 }
             }
         });
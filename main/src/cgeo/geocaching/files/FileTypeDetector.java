@@ -1,23 +1,32 @@
 package cgeo.geocaching.files;
 
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.MatcherWrapper;
 
 import android.content.ContentResolver;
 import android.net.Uri;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
 public class FileTypeDetector {
 
+    /**
+     * number of bytes at the start of a GPX document to search for the namespace of the root element
+     */
+    private static final int GPX_HEADER_LENGTH = 8192;
+    private static final Pattern PATTERN_GPX_NAMESPACE = Pattern.compile("<gpx\\s[^>]*?\\bxmlns\\s*=\\s*[\"']([^\"']*)[\"']");
+
     private final ContentResolver contentResolver;
     private final Uri uri;
 
@@ -71,6 +80,30 @@ public class FileTypeDetector {
         return FileType.UNKNOWN;
     }
 
+    /**
+     * Get the namespace of the root element of a GPX document, which tells the version of the document, without
+     * consuming the stream.
+     *
+     * @param stream
+     *          stream supporting mark and reset, which is reset to its current position afterwards
+     * @return the namespace, or null if it is not found in the start of the document
+     */
+    @Nullable
+    public static String getGpxNamespace(@NonNull final InputStream stream) throws IOException {
+        final byte[] header = new byte[GPX_HEADER_LENGTH];
+        int length = 0;
+        stream.mark(GPX_HEADER_LENGTH);
+        try {
+            for (int read = 0; read >= 0 && length < header.length; read = stream.read(header, length, header.length - length)) {
+                length += read;
+            }
+        } finally {
+            stream.reset();
+        }
+        final MatcherWrapper matcher = new MatcherWrapper(PATTERN_GPX_NAMESPACE, new String(header, 0, length, StandardCharsets.UTF_8));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
     private static boolean isZip(final String line) {
         return StringUtils.length(line) >= 4
                 && StringUtils.startsWith(line, "PK") && line.charAt(2) == 3
@@ -3,6 +3,7 @@ package cgeo.geocaching.files;
 import cgeo.geocaching.models.Route;
 import cgeo.geocaching.models.RouteItem;
 import cgeo.geocaching.models.RouteSegment;
+import cgeo.geocaching.models.TrackPoints;
 
 import android.sax.RootElement;
 
@@ -10,7 +11,6 @@ import androidx.annotation.NonNull;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
 
 public class GPXIndividualRouteParser extends AbstractTrackOrRouteParser implements AbstractTrackOrRouteParser.RouteParse {
     private String tempName = "";
@@ -28,8 +28,8 @@ public class GPXIndividualRouteParser extends AbstractTrackOrRouteParser impleme
         point.getChild(namespace, "name").setEndTextElementListener(body -> tempName = body);
         point.setEndElementListener(() -> {
             if (temp.size() > 0) {
-                result.add(new RouteSegment(new RouteItem(tempName, temp.get(temp.size() - 1)), temp));
-                temp = new ArrayList<>();
+                result.add(new RouteSegment(new RouteItem(tempName, temp.getLast()), temp));
+                temp = new TrackPoints();
             }
         });
 
@@ -50,13 +50,19 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.xml.sax.SAXException;
 
 abstract class GPXParser extends FileParser {
@@ -109,6 +115,15 @@ abstract class GPXParser extends FileParser {
 
     private static final Pattern PATTERN_MILLISECONDS = Pattern.compile("\\.\\d{3,7}");
 
+    /**
+     * number of parsed caches stored in the database together
+     */
+    private static final int IMPORT_BATCH_SIZE = 200;
+    /**
+     * number of waypoints of stored parent caches collected before adding them to their parents
+     */
+    private static final int WAYPOINT_BATCH_SIZE = 1000;
+
     private int listId = StoredList.STANDARD_LIST_ID;
     protected final String namespace;
     private final String version;
@@ -134,6 +149,21 @@ abstract class GPXParser extends FileParser {
      * Parser result. Maps geocode to cache.
      */
     private final Set<String> result = new HashSet<>(100);
+    /**
+     * Parsed caches (and their logs) not yet handed over for storing, by geocode.
+     */
+    private final Map<String, Geocache> pendingCaches = new LinkedHashMap<>();
+    private final Map<String, List<LogEntry>> pendingLogs = new HashMap<>();
+    /**
+     * Storing of the previous batch, running in the background while the next batch is parsed.
+     */
+    private Completable storingBatch = Completable.complete();
+    /**
+     * Parsed waypoints (with their name in the file) of parent caches not parsed from this file, by parent code.
+     * They are added to their parents together, to read and write every parent only once.
+     */
+    private final Map<String, List<ImmutablePair<String, Waypoint>>> deferredWaypoints = new LinkedHashMap<>();
+    private int deferredWaypointsCount = 0;
     private ProgressInputStream progressStream;
     /**
      * URL contained in the header of the GPX file. Used to guess where the file is coming from.
@@ -196,6 +226,10 @@ abstract class GPXParser extends FileParser {
     public Collection<Geocache> parse(@NonNull final InputStream stream, @Nullable final DisposableHandler progressHandler) throws IOException, ParserException {
         // when importing a ZIP, reset the child waypoint state
         terraChildWaypoint = false;
+        pendingCaches.clear();
+        pendingLogs.clear();
+        deferredWaypoints.clear();
+        deferredWaypointsCount = 0;
 
         resetCache();
         final RootElement root = new RootElement(namespace, "gpx");
@@ -263,14 +297,17 @@ abstract class GPXParser extends FileParser {
                     // modify cache depending on the use case/connector
                     afterParsing(cache);
 
-                    // finally store the cache in the database
+                    // finally store the cache in the database, together with the following ones
                     result.add(geocode);
-                    DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
-                    DataStore.saveLogs(cache.getGeocode(), logs, false);
-
-                    // avoid the cachecache using lots of memory for caches which the user did not actually look at
-                    DataStore.removeCache(geocode, EnumSet.of(RemoveFlag.CACHE));
-                    showProgressMessage(progressHandler, progressStream.getProgress());
+                    if (pendingCaches.containsKey(geocode)) {
+                        // the duplicate has to be merged with the previous occurrence
+                        storeBatch(progressHandler);
+                    }
+                    pendingCaches.put(geocode, cache);
+                    pendingLogs.put(geocode, logs);
+                    if (pendingCaches.size() >= IMPORT_BATCH_SIZE) {
+                        storeBatch(progressHandler);
+                    }
                 } else if (StringUtils.isNotBlank(cache.getName())
                     && (StringUtils.containsIgnoreCase(type, "waypoint") || terraChildWaypoint)) {
                     addWaypointToCache();
@@ -297,36 +334,41 @@ abstract class GPXParser extends FileParser {
                         cache.setShortDescription("");
                     }
 
-                    final Geocache cacheForWaypoint = findParentCache();
-                    if (cacheForWaypoint != null) {
-                        final Waypoint waypoint = new Waypoint(cache.getShortDescription(), WaypointType.fromGPXString(sym, subtype), false);
-                        if (wptUserDefined) {
-                            waypoint.setUserDefined();
-                        }
-                        waypoint.setId(-1);
-                        waypoint.setGeocode(parentCacheCode);
-                        waypoint.setPrefix(cacheForWaypoint.getWaypointPrefix(cache.getName()));
-                        waypoint.setLookup("---");
-                        // there is no lookup code in gpx file
-
-                        if (wptEmptyCoordinates) {
-                            waypoint.setCoords(null);
-                            waypoint.setOriginalCoordsEmpty(true);
-                        } else {
-                            waypoint.setCoords(cache.getCoords());
-                        }
+                    final Waypoint waypoint = new Waypoint(cache.getShortDescription(), WaypointType.fromGPXString(sym, subtype), false);
+                    if (wptUserDefined) {
+                        waypoint.setUserDefined();
+                    }
+                    waypoint.setId(-1);
+                    waypoint.setGeocode(parentCacheCode);
+                    waypoint.setLookup("---");
+                    // there is no lookup code in gpx file
+
+                    if (wptEmptyCoordinates) {
+                        waypoint.setCoords(null);
+                        waypoint.setOriginalCoordsEmpty(true);
+                    } else {
+                        waypoint.setCoords(cache.getCoords());
+                    }
 
-                        waypoint.updateNoteAndUserNote(cache.getDescription());
+                    waypoint.updateNoteAndUserNote(cache.getDescription());
 
-                        waypoint.setVisited(wptVisited);
-                        final List<Waypoint> mergedWayPoints = new ArrayList<>(cacheForWaypoint.getWaypoints());
+                    waypoint.setVisited(wptVisited);
 
-                        final List<Waypoint> newPoints = new ArrayList<>();
-                        newPoints.add(waypoint);
-                        Waypoint.mergeWayPoints(newPoints, mergedWayPoints, true);
-                        cacheForWaypoint.setWaypoints(newPoints, false);
-                        DataStore.saveCache(cacheForWaypoint, EnumSet.of(SaveFlag.DB));
-                        showProgressMessage(progressHandler, progressStream.getProgress());
+                    final Geocache pendingParent = pendingCaches.get(parentCacheCode);
+                    if (pendingParent != null) {
+                        // the parent is stored with its batch
+                        addWaypoints(pendingParent, Collections.singletonList(new ImmutablePair<>(cache.getName(), waypoint)));
+                        return;
+                    }
+                    List<ImmutablePair<String, Waypoint>> waypoints = deferredWaypoints.get(parentCacheCode);
+                    if (waypoints == null) {
+                        waypoints = new ArrayList<>();
+                        deferredWaypoints.put(parentCacheCode, waypoints);
+                    }
+                    waypoints.add(new ImmutablePair<>(cache.getName(), waypoint));
+                    deferredWaypointsCount++;
+                    if (deferredWaypointsCount >= WAYPOINT_BATCH_SIZE) {
+                        storeDeferredWaypoints(progressHandler);
                     }
                 }
             }
@@ -624,10 +666,127 @@ abstract class GPXParser extends FileParser {
             progressStream = new ProgressInputStream(stream);
             final BufferedReader reader = new BufferedReader(new InputStreamReader(progressStream, StandardCharsets.UTF_8));
             Xml.parse(new InvalidXMLCharacterFilterReader(reader), root.getContentHandler());
-            return DataStore.loadCaches(result, EnumSet.of(LoadFlag.DB_MINIMAL));
         } catch (final SAXException e) {
+            storeAfterParseFailure(progressHandler);
             throw new ParserException("Cannot parse .gpx file as GPX " + version + ": could not parse XML", e);
+        } catch (final IOException | RuntimeException e) {
+            storeAfterParseFailure(progressHandler);
+            throw e;
+        }
+        storeRemaining(progressHandler);
+        return DataStore.loadCaches(result, EnumSet.of(LoadFlag.DB_MINIMAL));
+    }
+
+    /**
+     * Store all caches and waypoints not yet in the database and wait until they are stored.
+     */
+    private void storeRemaining(@Nullable final DisposableHandler progressHandler) {
+        storeBatch(progressHandler);
+        storeDeferredWaypoints(progressHandler);
+        waitForStoredBatch();
+    }
+
+    /**
+     * Keep the caches parsed before an error, like they were kept before importing in batches. A failure while storing
+     * them is only logged, so that it does not hide the parse error.
+     */
+    private void storeAfterParseFailure(@Nullable final DisposableHandler progressHandler) {
+        try {
+            storeRemaining(progressHandler);
+        } catch (final RuntimeException e) {
+            Log.e("GPXParser: failed to store the caches parsed before an error", e);
+        }
+    }
+
+    /**
+     * Add the deferred waypoints to their parent caches, loading and storing all parents together.
+     */
+    private void storeDeferredWaypoints(@Nullable final DisposableHandler progressHandler) {
+        if (deferredWaypoints.isEmpty()) {
+            return;
         }
+        // parents might be in the pending caches, if their waypoints came first
+        storeBatch(progressHandler);
+        waitForStoredBatch();
+
+        final Map<String, Geocache> parents = new HashMap<>();
+        for (final Geocache parent : DataStore.loadCaches(deferredWaypoints.keySet(), LoadFlags.LOAD_CACHE_OR_DB)) {
+            parents.put(parent.getGeocode(), parent);
+        }
+        final Map<String, Geocache> modifiedParents = new LinkedHashMap<>();
+        for (final Map.Entry<String, List<ImmutablePair<String, Waypoint>>> entry : deferredWaypoints.entrySet()) {
+            Geocache parent = parents.get(entry.getKey());
+            if (parent == null) {
+                parent = findParentCacheByTitle(entry.getKey());
+            }
+            if (parent != null) {
+                if (modifiedParents.containsKey(parent.getGeocode())) {
+                    // several parent codes match the same title
+                    parent = modifiedParents.get(parent.getGeocode());
+                }
+                addWaypoints(parent, entry.getValue());
+                modifiedParents.put(parent.getGeocode(), parent);
+            }
+        }
+        deferredWaypoints.clear();
+        deferredWaypointsCount = 0;
+
+        DataStore.saveCaches(modifiedParents.values(), EnumSet.of(SaveFlag.DB));
+        showProgressMessage(progressHandler, progressStream.getProgress());
+    }
+
+    /**
+     * Merge parsed waypoints into the waypoints of their parent cache, replacing older versions of the same waypoints.
+     *
+     * @param waypoints
+     *          the waypoints in file order, together with their names in the file
+     */
+    private static void addWaypoints(@NonNull final Geocache parent, @NonNull final List<ImmutablePair<String, Waypoint>> waypoints) {
+        List<Waypoint> mergedWayPoints = new ArrayList<>(parent.getWaypoints());
+        for (final ImmutablePair<String, Waypoint> waypoint : waypoints) {
+            waypoint.right.setPrefix(parent.getWaypointPrefix(waypoint.left));
+            final List<Waypoint> newPoints = new ArrayList<>();
+            newPoints.add(waypoint.right);
+            Waypoint.mergeWayPoints(newPoints, mergedWayPoints, true);
+            mergedWayPoints = newPoints;
+        }
+        parent.setWaypoints(mergedWayPoints, false);
+    }
+
+    /**
+     * Hand the pending caches over for storing in the background. Only one batch is stored at a time, so that parsing
+     * runs at most one batch ahead of the database.
+     */
+    private void storeBatch(@Nullable final DisposableHandler progressHandler) {
+        if (pendingCaches.isEmpty()) {
+            return;
+        }
+        final List<Geocache> caches = new ArrayList<>(pendingCaches.values());
+        final Map<String, List<LogEntry>> logs = new HashMap<>(pendingLogs);
+        pendingCaches.clear();
+        pendingLogs.clear();
+
+        waitForStoredBatch();
+        storingBatch = Completable.fromAction(() -> {
+            final Set<String> geocodes = new HashSet<>();
+            for (final Geocache cache : caches) {
+                geocodes.add(cache.getGeocode());
+            }
+            DataStore.saveCaches(caches, logs, false, EnumSet.of(SaveFlag.DB));
+            // avoid the cachecache using lots of memory for caches which the user did not actually look at
+            DataStore.removeCaches(geocodes, EnumSet.of(RemoveFlag.CACHE));
+        }).subscribeOn(Schedulers.io()).cache();
+        storingBatch.onErrorComplete().subscribe();
+        showProgressMessage(progressHandler, progressStream.getProgress());
+    }
+
+    /**
+     * Wait until the batch being stored in the background is in the database.
+     */
+    private void waitForStoredBatch() {
+        final Completable batch = storingBatch;
+        storingBatch = Completable.complete();
+        batch.blockingAwait();
     }
 
     /**
@@ -948,20 +1107,15 @@ abstract class GPXParser extends FileParser {
         return valid;
     }
 
+    /**
+     * Find the parent of a waypoint whose parent code does not match a geocode.
+     */
     @Nullable
-    private Geocache findParentCache() {
-        if (StringUtils.isBlank(parentCacheCode)) {
-            return null;
-        }
-        // first match by geocode only
-        Geocache cacheForWaypoint = DataStore.loadCache(parentCacheCode, LoadFlags.LOAD_CACHE_OR_DB);
-        if (cacheForWaypoint == null) {
-            // then match by title
-            final String geocode = DataStore.getGeocodeForTitle(parentCacheCode);
-            if (StringUtils.isNotBlank(geocode)) {
-                cacheForWaypoint = DataStore.loadCache(geocode, LoadFlags.LOAD_CACHE_OR_DB);
-            }
+    private static Geocache findParentCacheByTitle(@NonNull final String parentCode) {
+        final String geocode = DataStore.getGeocodeForTitle(parentCode);
+        if (StringUtils.isNotBlank(geocode)) {
+            return DataStore.loadCache(geocode, LoadFlags.LOAD_CACHE_OR_DB);
         }
-        return cacheForWaypoint;
+        return null;
     }
 }
@@ -3,6 +3,7 @@ package cgeo.geocaching.files;
 import cgeo.geocaching.models.Route;
 import cgeo.geocaching.models.RouteItem;
 import cgeo.geocaching.models.RouteSegment;
+import cgeo.geocaching.models.TrackPoints;
 
 import android.sax.RootElement;
 
@@ -10,7 +11,6 @@ import androidx.annotation.NonNull;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
 
 public class GPXRouteParser extends AbstractTrackOrRouteParser implements AbstractTrackOrRouteParser.RouteParse {
 
@@ -26,8 +26,8 @@ public class GPXRouteParser extends AbstractTrackOrRouteParser implements Abstra
 
         point.setEndElementListener(() -> {
             if (temp.size() > 0) {
-                result.add(new RouteSegment(new RouteItem(temp.get(temp.size() - 1)), temp));
-                temp = new ArrayList<>();
+                result.add(new RouteSegment(new RouteItem(temp.getLast()), temp));
+                temp = new TrackPoints();
             }
         });
 
@@ -31,7 +31,7 @@ public class ImportGpxAttachmentThread extends AbstractImportGpxThread {
     }
 
     @Override
-    protected Collection<Geocache> doImport(final GPXParser parser) throws IOException, ParserException {
+    protected Collection<Geocache> doImport() throws IOException, ParserException {
         Log.i("Import GPX from uri: " + uri);
         final InputStream inputStream = getStream();
         if (inputStream == null) {
@@ -43,7 +43,7 @@ public class ImportGpxAttachmentThread extends AbstractImportGpxThread {
         }
         importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_READ_FILE, R.string.gpx_import_loading_caches_with_filename, streamSize, getSourceDisplayName()));
         try {
-            return parser.parse(inputStream, progressHandler);
+            return parse(inputStream);
         } finally {
             IOUtils.closeQuietly(inputStream);
         }
@@ -8,9 +8,13 @@ import cgeo.geocaching.utils.Log;
 import android.os.Handler;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 
+import org.apache.commons.io.IOUtils;
+
 class ImportGpxFileThread extends AbstractImportGpxThread {
     private final File cacheFile;
 
@@ -20,10 +24,10 @@ class ImportGpxFileThread extends AbstractImportGpxThread {
     }
 
     @Override
-    protected Collection<Geocache> doImport(final GPXParser parser) throws IOException, ParserException {
+    protected Collection<Geocache> doImport() throws IOException, ParserException {
         Log.i("Import GPX file: " + cacheFile.getAbsolutePath());
         importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_READ_FILE, R.string.gpx_import_loading_caches_with_filename, (int) cacheFile.length(), getSourceDisplayName()));
-        Collection<Geocache> caches = parser.parse(cacheFile, progressHandler);
+        Collection<Geocache> caches = parse(cacheFile);
 
         final String wptsFilename = GPXImporter.getWaypointsFileNameForGpxFile(cacheFile);
         if (wptsFilename != null) {
@@ -31,12 +35,21 @@ class ImportGpxFileThread extends AbstractImportGpxThread {
             if (wptsFile.canRead()) {
                 Log.i("Import GPX waypoint file: " + wptsFile.getAbsolutePath());
                 importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_READ_WPT_FILE, R.string.gpx_import_loading_waypoints_with_filename, (int) wptsFile.length(), wptsFilename));
-                caches = parser.parse(wptsFile, progressHandler);
+                caches = parse(wptsFile);
             }
         }
         return caches;
     }
 
+    private Collection<Geocache> parse(final File file) throws IOException, ParserException {
+        final InputStream stream = new FileInputStream(file);
+        try {
+            return parse(stream);
+        } finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
     @Override
     protected String getSourceDisplayName() {
         return cacheFile.getName();
@@ -5,6 +5,7 @@ import cgeo.geocaching.CgeoApplication;
 import android.annotation.SuppressLint;
 import android.os.Parcel;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.StringRes;
 
 import java.util.Locale;
@@ -28,6 +29,14 @@ abstract class AbstractDTFilter extends AbstractFilter {
         rangeMax = in.readFloat();
     }
 
+    /**
+     * @return SQL condition selecting the same range of values of the given column as this filter
+     */
+    @NonNull
+    protected String toSqlWhere(@NonNull final String column) {
+        return String.format((Locale) null, "%1$s >= %2$f AND %1$s < %3$f", column, rangeMin, rangeMax);
+    }
+
     @Override
     public void writeToParcel(final Parcel dest, final int flags) {
         super.writeToParcel(dest, flags);
@@ -6,6 +6,7 @@ import cgeo.geocaching.models.Geocache;
 import android.os.Parcel;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 
 import java.util.ArrayList;
@@ -46,6 +47,12 @@ abstract class AbstractFilter implements IFilter {
         list.addAll(itemsToKeep);
     }
 
+    @Override
+    @Nullable
+    public String toSqlWhere() {
+        return null;
+    }
+
     @Override
     @NonNull
     public String getName() {
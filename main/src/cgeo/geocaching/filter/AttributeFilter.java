@@ -3,10 +3,12 @@ package cgeo.geocaching.filter;
 import cgeo.geocaching.enumerations.CacheAttribute;
 import cgeo.geocaching.models.Geocache;
 
+import android.database.DatabaseUtils;
 import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -43,6 +45,12 @@ class AttributeFilter extends AbstractFilter {
         return cache.getAttributes().contains(attribute);
     }
 
+    @Override
+    @Nullable
+    public String toSqlWhere() {
+        return "EXISTS (SELECT 1 FROM cg_attributes WHERE cg_attributes.geocode = cg_caches.geocode AND attribute = " + DatabaseUtils.sqlEscapeString(attribute) + ")";
+    }
+
     public static class Factory implements IFilterFactory {
 
         @Override
@@ -7,6 +7,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 
 import java.util.ArrayList;
@@ -43,6 +44,12 @@ class DifficultyFilter extends AbstractDTFilter {
         return rangeMin <= difficulty && difficulty < rangeMax;
     }
 
+    @Override
+    @Nullable
+    public String toSqlWhere() {
+        return toSqlWhere("difficulty");
+    }
+
     public static class Factory implements IFilterFactory {
 
         private static final int DIFFICULTY_MIN = 1;
@@ -5,6 +5,7 @@ import cgeo.geocaching.models.Geocache;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.List;
 
@@ -20,4 +21,14 @@ public interface IFilter extends Parcelable {
 
     void filter(@NonNull List<Geocache> list);
 
+    /**
+     * Optional translation of the filter into SQL, so that stored caches can be filtered by the database without
+     * loading them.
+     *
+     * @return a condition on the columns of the {@code cg_caches} table accepting the same caches as
+     *         {@link #accepts(Geocache)}, or {@code null} if the filter cannot be expressed in SQL
+     */
+    @Nullable
+    String toSqlWhere();
+
 }
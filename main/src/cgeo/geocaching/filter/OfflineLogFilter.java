@@ -7,6 +7,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 public class OfflineLogFilter extends AbstractFilter {
 
@@ -35,4 +36,10 @@ public class OfflineLogFilter extends AbstractFilter {
     public boolean accepts(@NonNull final Geocache cache) {
         return cache.isLogOffline();
     }
+
+    @Override
+    @Nullable
+    public String toSqlWhere() {
+        return "EXISTS (SELECT 1 FROM cg_logs_offline WHERE cg_logs_offline.geocode = cg_caches.geocode)";
+    }
 }
@@ -8,6 +8,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.Collections;
 import java.util.List;
@@ -49,6 +50,13 @@ public class OwnWaypointFilter extends AbstractFilter implements IFilterFactory
         return false;
     }
 
+    @Override
+    @Nullable
+    public String toSqlWhere() {
+        // the "own" column is stored as Waypoint.isUserDefined()
+        return "EXISTS (SELECT 1 FROM cg_waypoints WHERE cg_waypoints.geocode = cg_caches.geocode AND own = 1)";
+    }
+
     @Override
     @NonNull
     public List<IFilter> getFilters() {
@@ -7,6 +7,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.Collections;
 import java.util.List;
@@ -44,6 +45,13 @@ public class PersonalNoteFilter extends AbstractFilter implements IFilterFactory
         return StringUtils.isNotBlank(cache.getPersonalNote());
     }
 
+    @Override
+    @Nullable
+    public String toSqlWhere() {
+        // trim whitespace like StringUtils.isNotBlank()
+        return "TRIM(personal_note, ' ' || char(9) || char(10) || char(13)) != ''";
+    }
+
     @Override
     @NonNull
     public List<IFilter> getFilters() {
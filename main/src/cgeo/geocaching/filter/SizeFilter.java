@@ -3,10 +3,12 @@ package cgeo.geocaching.filter;
 import cgeo.geocaching.enumerations.CacheSize;
 import cgeo.geocaching.models.Geocache;
 
+import android.database.DatabaseUtils;
 import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -42,6 +44,12 @@ class SizeFilter extends AbstractFilter {
         return cacheSize == cache.getSize();
     }
 
+    @Override
+    @Nullable
+    public String toSqlWhere() {
+        return "size = " + DatabaseUtils.sqlEscapeString(cacheSize.id);
+    }
+
     @Override
     @NonNull
     public String getName() {
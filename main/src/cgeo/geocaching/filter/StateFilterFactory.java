@@ -1,7 +1,7 @@
 package cgeo.geocaching.filter;
 
 import cgeo.geocaching.R;
-import cgeo.geocaching.log.LogEntry;
+import cgeo.geocaching.log.LogType;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.utils.CalendarUtils;
 import cgeo.geocaching.utils.TextUtils;
@@ -10,14 +10,22 @@ import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.commons.lang3.StringUtils;
+
 class StateFilterFactory implements IFilterFactory {
 
+    /**
+     * ids of the found log types, for use in SQL conditions
+     */
+    private static final String FOUND_LOG_TYPES = StringUtils.join(LogType.foundLogTypes(), ',');
+
     static class StateArchivedFilter extends AbstractFilter {
 
         public static final Creator<StateArchivedFilter> CREATOR
@@ -46,6 +54,12 @@ class StateFilterFactory implements IFilterFactory {
         public boolean accepts(@NonNull final Geocache cache) {
             return cache.isArchived();
         }
+
+        @Override
+        @Nullable
+        public String toSqlWhere() {
+            return "archived = 1";
+        }
     }
 
     static class StateDisabledFilter extends AbstractFilter {
@@ -76,6 +90,12 @@ class StateFilterFactory implements IFilterFactory {
         public boolean accepts(@NonNull final Geocache cache) {
             return cache.isDisabled() && !cache.isArchived();
         }
+
+        @Override
+        @Nullable
+        public String toSqlWhere() {
+            return "disabled = 1 AND archived = 0";
+        }
     }
 
     static class StateFoundFilter extends AbstractFilter {
@@ -105,6 +125,12 @@ class StateFilterFactory implements IFilterFactory {
         public boolean accepts(@NonNull final Geocache cache) {
             return cache.isFound();
         }
+
+        @Override
+        @Nullable
+        public String toSqlWhere() {
+            return "found = 1";
+        }
     }
 
     static class StateFoundLastMonthFilter extends AbstractFilter {
@@ -137,12 +163,14 @@ class StateFilterFactory implements IFilterFactory {
 
         @Override
         public boolean accepts(@NonNull final Geocache cache) {
-            for (final LogEntry log : cache.getLogs()) {
-                if (log.getType().isFoundLog() && foundLastMonth(log)) {
-                    return true;
-                }
-            }
-            return false;
+            final long lastFoundDate = cache.getLogSummary().getLastFoundDate();
+            return lastFoundDate > 0 && foundLastMonth(lastFoundDate);
+        }
+
+        @Override
+        @Nullable
+        public String toSqlWhere() {
+            return "last_found_date >= " + (today - (long) THIRTY_DAYS_MSECS);
         }
 
         /**
@@ -150,8 +178,8 @@ class StateFilterFactory implements IFilterFactory {
          * instance creation. We totally neglect the time of day correction, since it is acceptable to have an error of
          * +/- 1 day with this 30 days filter.
          */
-        private boolean foundLastMonth(final LogEntry log) {
-            return today - log.date <= THIRTY_DAYS_MSECS;
+        private boolean foundLastMonth(final long date) {
+            return today - date <= THIRTY_DAYS_MSECS;
         }
     }
 
@@ -184,12 +212,14 @@ class StateFilterFactory implements IFilterFactory {
                 return false;
             }
             // find counts don't exist for every connector, so we also check the logs
-            for (final LogEntry log : cache.getLogs()) {
-                if (log.getType().isFoundLog()) {
-                    return false;
-                }
-            }
-            return true;
+            return cache.getLogSummary().getLastFoundDate() == 0;
+        }
+
+        @Override
+        @Nullable
+        public String toSqlWhere() {
+            return "NOT EXISTS (SELECT 1 FROM cg_logCount WHERE cg_logCount.geocode = cg_caches.geocode AND type IN (" + FOUND_LOG_TYPES + ") AND count > 0)"
+                    + " AND last_found_date = 0";
         }
     }
 
@@ -221,6 +251,12 @@ class StateFilterFactory implements IFilterFactory {
         public boolean accepts(@NonNull final Geocache cache) {
             return !cache.isPremiumMembersOnly();
         }
+
+        @Override
+        @Nullable
+        public String toSqlWhere() {
+            return "members = 0";
+        }
     }
 
     static class StateNotFoundFilter extends AbstractFilter {
@@ -250,6 +286,12 @@ class StateFilterFactory implements IFilterFactory {
         public boolean accepts(@NonNull final Geocache cache) {
             return !cache.isFound();
         }
+
+        @Override
+        @Nullable
+        public String toSqlWhere() {
+            return "found <> 1";
+        }
     }
 
     static class StatePremiumFilter extends AbstractFilter {
@@ -280,6 +322,12 @@ class StateFilterFactory implements IFilterFactory {
         public boolean accepts(@NonNull final Geocache cache) {
             return cache.isPremiumMembersOnly();
         }
+
+        @Override
+        @Nullable
+        public String toSqlWhere() {
+            return "members = 1";
+        }
     }
 
     @Override
@@ -7,6 +7,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 
 import java.util.ArrayList;
@@ -30,6 +31,12 @@ class TerrainFilter extends AbstractDTFilter {
         return rangeMin <= terrain && terrain < rangeMax;
     }
 
+    @Override
+    @Nullable
+    public String toSqlWhere() {
+        return toSqlWhere("terrain");
+    }
+
     public static class Factory implements IFilterFactory {
         private static final int TERRAIN_MIN = 1;
         private static final int TERRAIN_MAX = 7;
@@ -3,10 +3,12 @@ package cgeo.geocaching.filter;
 import cgeo.geocaching.enumerations.CacheType;
 import cgeo.geocaching.models.Geocache;
 
+import android.database.DatabaseUtils;
 import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -29,6 +31,12 @@ class TypeFilter extends AbstractFilter {
         return cacheType == cache.getType();
     }
 
+    @Override
+    @Nullable
+    public String toSqlWhere() {
+        return "type = " + DatabaseUtils.sqlEscapeString(cacheType.id);
+    }
+
     @Override
     @NonNull
     public String getName() {
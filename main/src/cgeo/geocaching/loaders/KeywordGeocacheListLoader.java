@@ -2,6 +2,8 @@ package cgeo.geocaching.loaders;
 
 import cgeo.geocaching.SearchResult;
 import cgeo.geocaching.connector.ConnectorFactory;
+import cgeo.geocaching.network.Network;
+import cgeo.geocaching.storage.DataStore;
 
 import android.app.Activity;
 
@@ -18,6 +20,10 @@ public class KeywordGeocacheListLoader extends AbstractSearchLoader {
 
     @Override
     public SearchResult runSearch() {
+        // without network search the stored caches instead
+        if (!Network.isConnected()) {
+            return DataStore.searchStoredByKeyword(keyword);
+        }
         return nonEmptyCombineActive(ConnectorFactory.getSearchByKeywordConnectors(),
                 connector -> connector.searchByKeyword(keyword));
     }
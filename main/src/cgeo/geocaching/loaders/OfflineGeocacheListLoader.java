@@ -2,27 +2,77 @@ package cgeo.geocaching.loaders;
 
 import cgeo.geocaching.Intents;
 import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.filter.IFilter;
+import cgeo.geocaching.enumerations.CacheType;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.settings.Settings;
+import cgeo.geocaching.sorting.CacheComparator;
 import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.storage.StoredCachesPager;
 
 import android.app.Activity;
 import android.os.Bundle;
 
+import androidx.annotation.Nullable;
+
 public class OfflineGeocacheListLoader extends AbstractSearchLoader {
 
     private final int listId;
     private final Geopoint searchCenter;
+    @Nullable private final IFilter filter;
+    @Nullable private final CacheComparator comparator;
+    private final boolean inverseSort;
+    @Nullable private StoredCachesPager pager = null;
 
     public OfflineGeocacheListLoader(final Activity activity, final Geopoint searchCenter, final int listId) {
+        this(activity, searchCenter, listId, null);
+    }
+
+    /**
+     * @param filter
+     *          filter to apply in the database already, if it supports that
+     */
+    public OfflineGeocacheListLoader(final Activity activity, final Geopoint searchCenter, final int listId, @Nullable final IFilter filter) {
+        this(activity, searchCenter, listId, filter, null, false);
+    }
+
+    /**
+     * @param filter
+     *          filter to apply in the database already, if it supports that
+     * @param comparator
+     *          sort order of the list. If the database can sort by it, only the first page of the list is loaded, and
+     *          the following pages can be loaded with {@link #getPager()}.
+     */
+    public OfflineGeocacheListLoader(final Activity activity, final Geopoint searchCenter, final int listId, @Nullable final IFilter filter,
+                                     @Nullable final CacheComparator comparator, final boolean inverseSort) {
         super(activity);
         this.searchCenter = searchCenter;
         this.listId = listId;
+        this.filter = filter;
+        this.comparator = comparator;
+        this.inverseSort = inverseSort;
     }
 
     @Override
     public SearchResult runSearch() {
-        return DataStore.getBatchOfStoredCaches(searchCenter, Settings.getCacheType(), listId);
+        final CacheType cacheType = Settings.getCacheType();
+        final String filterWhere = filter == null ? null : filter.toSqlWhere();
+        // a filter working in memory only needs all caches of the list
+        if (comparator != null && (filter == null || filterWhere != null)) {
+            pager = StoredCachesPager.create(cacheType, listId, filterWhere, comparator, inverseSort, searchCenter);
+            if (pager != null) {
+                return new SearchResult(pager.nextPage(), DataStore.getAllStoredCachesCount(cacheType, listId));
+            }
+        }
+        return DataStore.getBatchOfStoredCaches(searchCenter, cacheType, listId, filterWhere);
+    }
+
+    /**
+     * @return the pager for the further pages of the list, or {@code null} if the search result contains the whole list
+     */
+    @Nullable
+    public StoredCachesPager getPager() {
+        return pager;
     }
 
     /**
@@ -10,6 +10,7 @@ import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 public final class Viewport {
 
@@ -138,6 +139,40 @@ public final class Viewport {
         return contains(vp.bottomLeft) && contains(vp.topRight);
     }
 
+    /**
+     * Return the parts of this viewport not covered by another one.
+     *
+     * @param vp
+     *            the viewport to remove from this one
+     * @return up to four non overlapping viewports covering the remainder: full width strips above and below the other
+     *         viewport and strips left and right of it, or this viewport if both do not overlap
+     */
+    @NonNull
+    public List<Viewport> subtract(@NonNull final Viewport vp) {
+        final List<Viewport> result = new ArrayList<>();
+        final double latMin = Math.max(getLatitudeMin(), vp.getLatitudeMin());
+        final double latMax = Math.min(getLatitudeMax(), vp.getLatitudeMax());
+        final double lonMin = Math.max(getLongitudeMin(), vp.getLongitudeMin());
+        final double lonMax = Math.min(getLongitudeMax(), vp.getLongitudeMax());
+        if (latMin > latMax || lonMin > lonMax) {
+            result.add(this);
+            return result;
+        }
+        if (latMax < getLatitudeMax()) {
+            result.add(new Viewport(new Geopoint(latMax, getLongitudeMin()), topRight));
+        }
+        if (latMin > getLatitudeMin()) {
+            result.add(new Viewport(bottomLeft, new Geopoint(latMin, getLongitudeMax())));
+        }
+        if (lonMin > getLongitudeMin()) {
+            result.add(new Viewport(new Geopoint(latMin, getLongitudeMin()), new Geopoint(latMax, lonMin)));
+        }
+        if (lonMax < getLongitudeMax()) {
+            result.add(new Viewport(new Geopoint(latMin, lonMax), new Geopoint(latMax, getLongitudeMax())));
+        }
+        return result;
+    }
+
     /**
      * Return the "where" part of the string appropriate for a SQL query.
      *
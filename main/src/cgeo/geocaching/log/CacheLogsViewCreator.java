@@ -10,9 +10,12 @@ import cgeo.geocaching.ui.dialog.ContextMenuDialog;
 
 import android.annotation.SuppressLint;
 import android.content.res.Resources;
+import android.util.SparseArray;
 import android.view.View;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -26,6 +29,10 @@ public class CacheLogsViewCreator extends LogsViewCreator {
     private final boolean allLogs;
     private final Resources res = CgeoApplication.getInstance().getResources();
     private final CacheDetailActivity cacheDetailActivity;
+    /**
+     * texts of the logs shown already, by log id, so that scrolling back does not load them again
+     */
+    private final SparseArray<String> logTexts = new SparseArray<>();
 
     public CacheLogsViewCreator(final CacheDetailActivity cacheDetailActivity, final boolean allLogs) {
         super(cacheDetailActivity);
@@ -37,10 +44,14 @@ public class CacheLogsViewCreator extends LogsViewCreator {
         return cacheDetailActivity.getCache();
     }
 
+    /**
+     * The logs are loaded without their text, which is loaded only when a log is shown.
+     */
     @Override
     protected List<LogEntry> getLogs() {
+        logTexts.clear();
         final Geocache cache = getCache();
-        final List<LogEntry> logs = allLogs ? cache.getLogs() : cache.getFriendsLogs();
+        final List<LogEntry> logs = DataStore.loadLogHeaders(cache.getGeocode(), !allLogs, true, 0, DataStore.MAX_LOADED_LOGS);
         return addOwnOfflineLog(cache, logs);
     }
 
@@ -135,7 +146,8 @@ public class CacheLogsViewCreator extends LogsViewCreator {
     }
 
     @Override
-    protected void fillViewHolder(final View convertView, final LogViewHolder holder, final LogEntry log) {
+    protected void fillViewHolder(final View convertView, final LogViewHolder holder, final LogEntry logHeader) {
+        final LogEntry log = isOfflineLog(logHeader) ? logHeader : logHeader.buildUpon().setLog(getLogText(logHeader.id)).build();
         super.fillViewHolder(convertView, holder, log);
         if (isOfflineLog(log)) {
             holder.author.setOnClickListener(new EditOfflineLogListener(getCache(), cacheDetailActivity));
@@ -144,6 +156,16 @@ public class CacheLogsViewCreator extends LogsViewCreator {
         }
     }
 
+    @NonNull
+    private String getLogText(final int logId) {
+        String text = logTexts.get(logId);
+        if (text == null) {
+            text = DataStore.loadLogText(logId);
+            logTexts.put(logId, text);
+        }
+        return text;
+    }
+
     private boolean isOfflineLog(final LogEntry log) {
         return log.author.equals(activity.getString(R.string.log_your_saved_log));
     }
@@ -0,0 +1,84 @@
+package cgeo.geocaching.log;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Summary of the stored logs of a cache. It is stored with the cache whenever its logs are saved, so that markers,
+ * list rows and filters don't need to read the logs.
+ *
+ * Own logs are the logs of the user configured at the time the logs were saved.
+ */
+public final class LogSummary {
+
+    /** summary of a cache without logs */
+    public static final LogSummary EMPTY = new LogSummary(LogType.UNKNOWN, 0, 0, false, 0, 0, 0);
+
+    @NonNull private final LogType ownLogType;
+    private final long ownLogDate;
+    private final int friendLogsCount;
+    private final boolean willAttend;
+    private final long lastLogDate;
+    private final long ownFoundDate;
+    private final long lastFoundDate;
+
+    public LogSummary(@NonNull final LogType ownLogType, final long ownLogDate, final int friendLogsCount, final boolean willAttend, final long lastLogDate,
+                      final long ownFoundDate, final long lastFoundDate) {
+        this.ownLogType = ownLogType;
+        this.ownLogDate = ownLogDate;
+        this.friendLogsCount = friendLogsCount;
+        this.willAttend = willAttend;
+        this.lastLogDate = lastLogDate;
+        this.ownFoundDate = ownFoundDate;
+        this.lastFoundDate = lastFoundDate;
+    }
+
+    /**
+     * @return the type of the newest own log, {@link LogType#UNKNOWN} if there is none
+     */
+    @NonNull
+    public LogType getOwnLogType() {
+        return ownLogType;
+    }
+
+    /**
+     * @return the date of the newest own log, 0 if there is none
+     */
+    public long getOwnLogDate() {
+        return ownLogDate;
+    }
+
+    /**
+     * @return the number of logs of friends (including the own logs)
+     */
+    public int getFriendLogsCount() {
+        return friendLogsCount;
+    }
+
+    /**
+     * @return {@code true} if there is an own "will attend" log
+     */
+    public boolean isWillAttend() {
+        return willAttend;
+    }
+
+    /**
+     * @return the date of the newest log, 0 if there is none
+     */
+    public long getLastLogDate() {
+        return lastLogDate;
+    }
+
+    /**
+     * @return the date of the newest own found log (see {@link LogType#isFoundLog()}), 0 if there is none
+     */
+    public long getOwnFoundDate() {
+        return ownFoundDate;
+    }
+
+    /**
+     * @return the date of the newest found log of any user, 0 if there is none
+     */
+    public long getLastFoundDate() {
+        return lastFoundDate;
+    }
+}
@@ -78,7 +78,6 @@ import android.app.ProgressDialog;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
-import android.graphics.drawable.Drawable;
 import android.location.Location;
 import android.os.Bundle;
 import android.os.Handler;
@@ -117,6 +116,8 @@ import com.google.android.gms.maps.model.LatLng;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+import io.reactivex.rxjava3.subjects.Subject;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
@@ -176,9 +177,13 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
     private Disposable loadTimer;
     private LoadDetails loadDetailsThread = null;
     /**
-     * Time of last {@link LoadRunnable} run
+     * time the map has to stand still before caches are loaded for a new viewport
      */
-    private volatile long loadThreadRun = 0L;
+    private static final long LOAD_DEBOUNCE_MILLIS = 200;
+    /**
+     * emits whenever the markers have been invalidated and need to be loaded again
+     */
+    private final Subject<Boolean> markerInvalidations = PublishSubject.<Boolean>create().toSerialized();
     //Interthread communication flag
     private volatile boolean downloaded = false;
 
@@ -200,7 +205,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
     // views
     private CheckBox myLocSwitch = null;
     // other things
-    private boolean markersInvalidated = false; // previous state for loadTimer
+    private volatile boolean markersInvalidated = false; // previous state for loadTimer
     private boolean centered = false; // if map is already centered
     private boolean alreadyCentered = false; // -""- for setting my location
     private static final Set<String> dirtyCaches = new HashSet<>();
@@ -720,9 +725,10 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
 
         mapView.destroyDrawingCache();
 
-        // do not clear cached items - BitmapDescriptoCache needs same Drawables, not new ones created
-        // after cache is cleared, or TODO implement ComparableDrawable?
+        // the BitmapDescriptorCache notices this by the changed marker generation
         MapMarkerUtils.clearCachedItems();
+        // write the recorded trail into the database file while the map is not used
+        DataStore.scheduleCheckpoint();
 
         super.onPause();
         mapView.onPause();
@@ -812,7 +818,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
             if (mapOptions.mapMode == MapMode.LIVE) {
                 Settings.setLiveMap(mapOptions.isLiveEnabled);
             }
-            markersInvalidated = true;
+            invalidateMarkers();
             lastSearchResult = null;
             mapOptions.searchResult = null;
             ActivityMixin.invalidateOptionsMenu(activity);
@@ -848,7 +854,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
     }
 
     private void onMapSettingsPopupFinished(final boolean circlesSwitched) {
-        markersInvalidated = true;
+        invalidateMarkers();
         Tile.cache.clear();
         overlayPositionAndScale.repaintRequired();
         if (circlesSwitched) {
@@ -878,7 +884,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
 
     private void compactIconModeChanged(final int newValue) {
         Settings.setCompactIconMode(newValue);
-        markersInvalidated = true;
+        invalidateMarkers();
         mapView.repaintRequired(overlayPositionAndScale instanceof GeneralOverlay ? ((GeneralOverlay) overlayPositionAndScale) : null);
     }
 
@@ -1218,8 +1224,14 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
         }
     }
 
+    private void invalidateMarkers() {
+        markersInvalidated = true;
+        markerInvalidations.onNext(Boolean.TRUE);
+    }
+
     /**
-     * Starts the load timer.
+     * Starts the load timer. It does not poll, but checks for loading after each viewport change once the map
+     * has stood still for a moment, and right after the markers have been invalidated.
      */
 
     private Disposable startTimer() {
@@ -1228,7 +1240,14 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
             displayPoint(mapOptions.coords);
             loadTimer = new CompositeDisposable();
         } else {
-            loadTimer = Schedulers.newThread().schedulePeriodicallyDirect(new LoadTimerAction(this), 0, 250, TimeUnit.MILLISECONDS);
+            final LoadTimerAction loadTimerAction = new LoadTimerAction(this);
+            loadTimer = mapView.getViewportChanges()
+                    .debounce(LOAD_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)
+                    .map(viewport -> Boolean.TRUE)
+                    .mergeWith(markerInvalidations)
+                    .startWithItem(Boolean.TRUE)
+                    .observeOn(Schedulers.computation())
+                    .subscribe(ignored -> loadTimerAction.run());
         }
         return loadTimer;
     }
@@ -1274,13 +1293,10 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
                 if (moved) {
                     map.markersInvalidated = false;
 
-                    final long currentTime = System.currentTimeMillis();
-
-                    if ((currentTime - map.loadThreadRun) > 1000) {
-                        previousViewport = viewportNow;
-                        previousZoom = zoomNow;
-                        loadExecutor.execute(new LoadRunnable(map));
-                    }
+                    // a stale load still waiting in the queue gets discarded by the executor
+                    previousViewport = viewportNow;
+                    previousZoom = zoomNow;
+                    loadExecutor.execute(new LoadRunnable(map));
                 }
             } catch (final Exception e) {
                 Log.w("CGeoMap.startLoadtimer.start", e);
@@ -1318,7 +1334,6 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
     private void doLoadRun() {
         try {
             showProgressHandler.sendEmptyMessage(SHOW_PROGRESS);
-            loadThreadRun = System.currentTimeMillis();
 
             final SearchResult searchResult;
             final MapMode mapMode = mapOptions.mapMode;
@@ -1364,6 +1379,10 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
                 } else {
                     //All visible waypoints from the viewed caches
                     for (final Geocache c : caches.getAsList()) {
+                        final Waypoint.ParentCacheState parentCacheState = new Waypoint.ParentCacheState(c);
+                        for (final Waypoint waypoint : c.getWaypoints()) {
+                            waypoint.setParentCacheState(parentCacheState);
+                        }
                         final Set<Waypoint> filteredWaypoints = new HashSet<>(c.getWaypoints());
                         MapUtils.filter(filteredWaypoints, false);
                         waypoints.addAll(filteredWaypoints);
@@ -1777,7 +1796,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
     private CachesOverlayItemImpl getCacheItem(final Geocache cache, final boolean isDotMode) {
         final CachesOverlayItemImpl item = mapItemFactory.getCachesOverlayItem(cache, cache.applyDistanceRule());
         if (isDotMode) {
-            item.setMarker(new CacheMarker(0, (Drawable) MapMarkerUtils.createCacheDotMarker(getResources(), cache)));
+            item.setMarker(MapMarkerUtils.getCacheDotMarker(getResources(), cache));
         } else {
             item.setMarker(MapMarkerUtils.getCacheMarker(getResources(), cache));
         }
@@ -1787,7 +1806,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
     private CachesOverlayItemImpl getWaypointItem(final Waypoint waypoint, final boolean isDotMode) {
         final CachesOverlayItemImpl item = mapItemFactory.getCachesOverlayItem(waypoint, waypoint.getWaypointType().applyDistanceRule());
         if (isDotMode) {
-            item.setMarker(new CacheMarker(0, (Drawable) MapMarkerUtils.createWaypointDotMarker(getResources(), waypoint)));
+            item.setMarker(MapMarkerUtils.getWaypointDotMarker(getResources(), waypoint));
         } else {
             item.setMarker(MapMarkerUtils.getWaypointMarker(getResources(), waypoint));
         }
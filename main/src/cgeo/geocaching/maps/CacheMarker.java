@@ -6,11 +6,14 @@ import android.graphics.drawable.Drawable;
 
 public class CacheMarker {
 
-    private final int hashCode;
+    /**
+     * key describing the look of the marker, see {@link cgeo.geocaching.utils.MapMarkerUtils}, 0 if unknown
+     */
+    private final long key;
     protected final Drawable drawable;
 
-    public CacheMarker(final int hashCode, final Drawable drawable) {
-        this.hashCode = hashCode;
+    public CacheMarker(final long key, final Drawable drawable) {
+        this.key = key;
         this.drawable = drawable;
     }
 
@@ -26,6 +29,10 @@ public class CacheMarker {
         return drawable;
     }
 
+    public long getKey() {
+        return key;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -37,16 +44,15 @@ public class CacheMarker {
 
         final CacheMarker that = (CacheMarker) o;
 
-        if (hashCode == 0) {
+        if (key == 0) {
             return this.drawable.equals(that.drawable);
         } else {
-            return hashCode == that.hashCode;
+            return key == that.key;
         }
     }
 
     @Override
     public int hashCode() {
-        return hashCode == 0 ? drawable.hashCode() : hashCode;
+        return key == 0 ? drawable.hashCode() : (int) (key ^ (key >>> 32));
     }
 }
-
@@ -14,6 +14,8 @@ import android.app.Activity;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -34,17 +36,42 @@ public class MapUtils {
         if (!excludeMine && !excludeWpOriginal && !excludeWpParking && !excludeWpVisited) {
             return;
         }
+        final Set<String> ownedGeocodes = excludeMine ? getOwnedGeocodes(waypoints) : Collections.emptySet();
         final List<Waypoint> removeList = new ArrayList<>();
         for (final Waypoint wp : waypoints) {
-            final Geocache cache = DataStore.loadCache(wp.getGeocode(), LoadFlags.LOAD_CACHE_OR_DB);
             final WaypointType wpt = wp.getWaypointType();
-            if ((excludeMine && cache.isOwner()) || (excludeWpOriginal && wpt == WaypointType.ORIGINAL) || (excludeWpParking && wpt == WaypointType.PARKING) || (excludeWpVisited && wp.isVisited())) {
+            if ((excludeMine && ownedGeocodes.contains(wp.getGeocode())) || (excludeWpOriginal && wpt == WaypointType.ORIGINAL) || (excludeWpParking && wpt == WaypointType.PARKING) || (excludeWpVisited && wp.isVisited())) {
                 removeList.add(wp);
             }
         }
         waypoints.removeAll(removeList);
     }
 
+    /**
+     * Geocodes of the owned parent caches of the waypoints. Only the caches of waypoints without known parent cache
+     * state are loaded, all of them at once.
+     */
+    private static Set<String> getOwnedGeocodes(final Set<Waypoint> waypoints) {
+        final Set<String> ownedGeocodes = new HashSet<>();
+        final Set<String> unknownGeocodes = new HashSet<>();
+        for (final Waypoint wp : waypoints) {
+            final Waypoint.ParentCacheState parentCacheState = wp.getParentCacheState();
+            if (parentCacheState == null) {
+                unknownGeocodes.add(wp.getGeocode());
+            } else if (parentCacheState.owner) {
+                ownedGeocodes.add(wp.getGeocode());
+            }
+        }
+        if (!unknownGeocodes.isEmpty()) {
+            for (final Geocache cache : DataStore.loadCaches(unknownGeocodes, LoadFlags.LOAD_CACHE_OR_DB)) {
+                if (cache.isOwner()) {
+                    ownedGeocodes.add(cache.getGeocode());
+                }
+            }
+        }
+        return ownedGeocodes;
+    }
+
     // filter own/found/disabled caches if required
     public static void filter(final Collection<Geocache> caches) {
         final boolean excludeMine = Settings.isExcludeMyCaches();
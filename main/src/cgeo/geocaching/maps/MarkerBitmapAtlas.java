@@ -0,0 +1,59 @@
+package cgeo.geocaching.maps;
+
+import cgeo.geocaching.utils.MapMarkerUtils;
+import cgeo.geocaching.utils.functions.Func1;
+
+import android.graphics.drawable.Drawable;
+import android.util.LongSparseArray;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Bounded cache of marker bitmaps in the format of a specific map implementation, indexed by the key of the
+ * {@link CacheMarker}. This way each distinct marker look is converted only once, instead of once per item on the map.
+ *
+ * @param <T> bitmap type of the map implementation
+ */
+public class MarkerBitmapAtlas<T> {
+
+    private final LongSparseArray<T> bitmaps = new LongSparseArray<>();
+    private final int maxEntries;
+    @NonNull private final Func1<Drawable, T> converter;
+    private int generation = MapMarkerUtils.getMarkerGeneration();
+
+    /**
+     * @param maxEntries number of bitmaps after which the atlas is cleared completely
+     * @param converter conversion of a marker drawable into a bitmap of the map implementation
+     */
+    public MarkerBitmapAtlas(final int maxEntries, @NonNull final Func1<Drawable, T> converter) {
+        this.maxEntries = maxEntries;
+        this.converter = converter;
+    }
+
+    @NonNull
+    public synchronized T get(@NonNull final CacheMarker marker) {
+        final long key = marker.getKey();
+        if (key == 0) {
+            return converter.call(marker.getDrawable());
+        }
+        // the keys of the markers are reassigned after the marker cache has been cleared
+        final int currentGeneration = MapMarkerUtils.getMarkerGeneration();
+        if (currentGeneration != generation) {
+            bitmaps.clear();
+            generation = currentGeneration;
+        }
+        T bitmap = bitmaps.get(key);
+        if (bitmap == null) {
+            if (bitmaps.size() >= maxEntries) {
+                bitmaps.clear();
+            }
+            bitmap = converter.call(marker.getDrawable());
+            bitmaps.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    public synchronized void clear() {
+        bitmaps.clear();
+    }
+}
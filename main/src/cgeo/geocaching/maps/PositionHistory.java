@@ -8,11 +8,15 @@ import cgeo.geocaching.storage.DataStore;
 import android.location.Location;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * Map trail history
+ *
+ * The positions are kept in a ring buffer of primitive arrays, so that adding a position to a full history does not
+ * move the other positions and drawing the trail does not need a position object per point.
  */
 public class PositionHistory {
 
@@ -26,11 +30,25 @@ public class PositionHistory {
      */
     private static final int MAX_POSITIONS = Settings.getMaximumMapTrailLength();
 
-    private ArrayList<TrailHistoryElement> history = new ArrayList<>();
+    private final double[] latitudes = new double[MAX_POSITIONS];
+    private final double[] longitudes = new double[MAX_POSITIONS];
+    private final double[] altitudes = new double[MAX_POSITIONS];
+    private final long[] timestamps = new long[MAX_POSITIONS];
+    /**
+     * index of the oldest position
+     */
+    private int start = 0;
+    private int size = 0;
+    /**
+     * incremented on every change of the history
+     */
+    private int version = 0;
+
+    private final float[] distance = new float[1];
 
     // load data from permanent storage
     public PositionHistory() {
-        history = DataStore.loadTrailHistory();
+        setHistory(DataStore.loadTrailHistory());
     }
 
     // save current coords to permanent storage
@@ -42,14 +60,20 @@ public class PositionHistory {
     public void reset() {
         Schedulers.io().scheduleDirect(() -> {
             DataStore.clearTrailHistory();
-            history.clear();
+            clear();
         });
     }
 
+    private synchronized void clear() {
+        start = 0;
+        size = 0;
+        version++;
+    }
+
     /**
      * Adds the current position to the trail history to be able to show the trail on the map.
      */
-    public void rememberTrailPosition(final Location coordinates) {
+    public synchronized void rememberTrailPosition(final Location coordinates) {
         if (coordinates.getAccuracy() >= 50f) {
             return;
         }
@@ -59,35 +83,103 @@ public class PositionHistory {
         if (GeoData.isArtificialLocationProvider(coordinates.getProvider())) {
             return;
         }
-        if (history.isEmpty()) {
-            saveToStorage(coordinates);
-            history.add(new TrailHistoryElement(coordinates));
-            return;
+        if (size > 0) {
+            final int recent = index(size - 1);
+            Location.distanceBetween(latitudes[recent], longitudes[recent], coordinates.getLatitude(), coordinates.getLongitude(), distance);
+            if (distance[0] <= MINIMUM_DISTANCE_METERS) {
+                return;
+            }
         }
 
-        final TrailHistoryElement historyRecent = history.get(history.size() - 1);
-        if (historyRecent.distanceTo(coordinates) <= MINIMUM_DISTANCE_METERS) {
+        saveToStorage(coordinates);
+        add(new TrailHistoryElement(coordinates));
+    }
+
+    /**
+     * Add a position, replacing the oldest one if the history is full (to avoid running out of memory).
+     */
+    private void add(final TrailHistoryElement element) {
+        if (MAX_POSITIONS <= 0) {
             return;
         }
+        final int index;
+        if (size < MAX_POSITIONS) {
+            index = index(size);
+            size++;
+        } else {
+            index = start;
+            start = index(1);
+        }
+        latitudes[index] = element.getLatitude();
+        longitudes[index] = element.getLongitude();
+        altitudes[index] = element.getAltitude();
+        timestamps[index] = element.getTimestamp();
+        version++;
+    }
 
-        saveToStorage(coordinates);
-        history.add(new TrailHistoryElement(coordinates));
+    private int index(final int position) {
+        return (start + position) % MAX_POSITIONS;
+    }
 
-        // avoid running out of memory
-        final int itemsToRemove = getHistory().size() - MAX_POSITIONS;
-        if (itemsToRemove > 0) {
-            for (int i = 0; i < itemsToRemove; i++) {
-                getHistory().remove(0);
-            }
-        }
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Number of changes of the history, to detect changes since an earlier access.
+     */
+    public synchronized int getVersion() {
+        return version;
     }
 
-    public ArrayList<TrailHistoryElement> getHistory() {
+    /**
+     * Copy the coordinates of the positions, oldest first, into the given arrays which must hold at least
+     * {@link #size()} elements. Synchronize on this history to get a size and coordinates matching each other.
+     */
+    public synchronized void getCoordinates(final double[] latitudesOut, final double[] longitudesOut) {
+        final int first = Math.min(size, MAX_POSITIONS - start);
+        System.arraycopy(latitudes, start, latitudesOut, 0, first);
+        System.arraycopy(longitudes, start, longitudesOut, 0, first);
+        System.arraycopy(latitudes, 0, latitudesOut, first, size - first);
+        System.arraycopy(longitudes, 0, longitudesOut, first, size - first);
+    }
+
+    /**
+     * @return a copy of the positions, oldest first
+     */
+    public synchronized ArrayList<TrailHistoryElement> getHistory() {
+        final ArrayList<TrailHistoryElement> history = new ArrayList<>(size);
+        for (int position = 0; position < size; position++) {
+            final int index = index(position);
+            history.add(new TrailHistoryElement(latitudes[index], longitudes[index], altitudes[index], timestamps[index]));
+        }
         return history;
     }
 
-    public void setHistory(final ArrayList<TrailHistoryElement> history) {
-        this.history = history;
+    /**
+     * @return true if the given positions have the same size and the same most recent position as this history, so
+     * that setting them would not change the history
+     */
+    public synchronized boolean matches(final List<TrailHistoryElement> history) {
+        if (history.size() != size) {
+            return false;
+        }
+        if (size == 0) {
+            return true;
+        }
+        final TrailHistoryElement recentElement = history.get(size - 1);
+        final int recent = index(size - 1);
+        return recentElement.getTimestamp() == timestamps[recent] && recentElement.getLatitude() == latitudes[recent] && recentElement.getLongitude() == longitudes[recent];
+    }
+
+    public synchronized void setHistory(final List<TrailHistoryElement> history) {
+        start = 0;
+        size = 0;
+        // keep the most recent positions only
+        for (int position = Math.max(0, history.size() - MAX_POSITIONS); position < history.size(); position++) {
+            add(history.get(position));
+        }
+        version++;
     }
 
 }
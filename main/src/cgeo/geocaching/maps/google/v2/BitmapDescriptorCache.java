@@ -1,29 +1,26 @@
 package cgeo.geocaching.maps.google.v2;
 
 import cgeo.geocaching.maps.CacheMarker;
+import cgeo.geocaching.maps.MarkerBitmapAtlas;
 
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.drawable.Drawable;
-import android.util.SparseArray;
 
 import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 
 public class BitmapDescriptorCache {
 
+    private static final int MAX_BITMAPS = 500;
+
     /**
-     * rely on unique hashcode of CacheMarker
+     * rely on unique key of CacheMarker
      */
-    protected final SparseArray<BitmapDescriptor> cache = new SparseArray<>();
+    protected final MarkerBitmapAtlas<BitmapDescriptor> cache = new MarkerBitmapAtlas<>(MAX_BITMAPS, BitmapDescriptorCache::toBitmapDescriptor);
 
     public BitmapDescriptor fromCacheMarker(final CacheMarker d) {
-        BitmapDescriptor bd = cache.get(d.hashCode());
-        if (bd == null) {
-            bd = toBitmapDescriptor(d.getDrawable());
-            cache.put(d.hashCode(), bd);
-        }
-        return bd;
+        return cache.get(d);
     }
 
     public static BitmapDescriptor toBitmapDescriptor(final Drawable d) {
@@ -50,6 +50,9 @@ import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.model.CameraPosition;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.VisibleRegion;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+import io.reactivex.rxjava3.subjects.Subject;
 
 public class GoogleMapView extends MapView implements MapViewImpl<GoogleCacheOverlayItem>, OnMapReadyCallback {
 
@@ -71,6 +74,7 @@ public class GoogleMapView extends MapView implements MapViewImpl<GoogleCacheOve
     private boolean canDisableAutoRotate = false;
 
     private final Lock lock = new ReentrantLock();
+    private final Subject<Viewport> viewportChanges = PublishSubject.<Viewport>create().toSerialized();
 
     private final ScaleDrawer scaleDrawer = new ScaleDrawer();
     private DistanceDrawer distanceDrawer;
@@ -175,6 +179,10 @@ public class GoogleMapView extends MapView implements MapViewImpl<GoogleCacheOve
         if (newVisibleRegion != null) {
             visibleRegion = newVisibleRegion;
         }
+        final Viewport viewport = getViewport();
+        if (viewport != null) {
+            viewportChanges.onNext(viewport);
+        }
         invalidate(); // force redraw to draw scale
     }
 
@@ -253,6 +261,11 @@ public class GoogleMapView extends MapView implements MapViewImpl<GoogleCacheOve
         return new Viewport(new GoogleGeoPoint(visibleRegion.farLeft), new GoogleGeoPoint(visibleRegion.nearRight));
     }
 
+    @Override
+    public Observable<Viewport> getViewportChanges() {
+        return viewportChanges;
+    }
+
     @Override
     public void clearOverlays() {
         // do nothing, there are no overlays to be cleared
@@ -154,7 +154,7 @@ public class GooglePositionAndHistory implements PositionAndHistory, Route.Updat
 
     @Override
     public void setHistory(final ArrayList<TrailHistoryElement> history) {
-        if (history != this.history.getHistory()) {
+        if (!this.history.matches(history)) {
             this.history.setHistory(history);
         }
     }
@@ -12,6 +12,8 @@ import androidx.annotation.NonNull;
 
 import java.util.Collection;
 
+import io.reactivex.rxjava3.core.Observable;
+
 /**
  * Defines common functions of the provider-specific
  * MapView implementations
@@ -77,6 +79,12 @@ public interface MapViewImpl<T extends CachesOverlayItemImpl> {
 
     Viewport getViewport();
 
+    /**
+     * Viewport after every change of position, zoom or size of the map. Changes might come in bursts
+     * while the map is moving, so consumers should debounce them.
+     */
+    Observable<Viewport> getViewportChanges();
+
     /**
      * Indicates if the current map view supports different themes
      * for map rendering
@@ -14,6 +14,9 @@ import android.view.GestureDetector;
 import android.view.GestureDetector.SimpleOnGestureListener;
 import android.view.MotionEvent;
 
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+import io.reactivex.rxjava3.subjects.Subject;
 import org.mapsforge.core.model.BoundingBox;
 import org.mapsforge.core.model.Dimension;
 import org.mapsforge.core.model.LatLong;
@@ -26,11 +29,32 @@ public class MfMapView extends MapView {
 
     private final GestureDetector gestureDetector;
     private OnMapDragListener onDragListener;
+    private final Subject<Viewport> viewportChanges = PublishSubject.<Viewport>create().toSerialized();
 
     public MfMapView(final Context context, final AttributeSet attributeSet) {
         super(context, attributeSet);
 
         gestureDetector = new GestureDetector(context, new GestureListener());
+        // the position observer fires for every change of center or zoom, including animations
+        getModel().mapViewPosition.addObserver(this::onViewportChanged);
+    }
+
+    /**
+     * Viewport after every change of position, zoom or size of the map. Changes are emitted on the thread causing
+     * them and might come in bursts while the map is moving, so consumers should debounce them.
+     */
+    public Observable<Viewport> getViewportChanges() {
+        return viewportChanges;
+    }
+
+    private void onViewportChanged() {
+        viewportChanges.onNext(getViewport());
+    }
+
+    @Override
+    protected void onSizeChanged(final int width, final int height, final int oldWidth, final int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        onViewportChanged();
     }
 
     public Viewport getViewport() {
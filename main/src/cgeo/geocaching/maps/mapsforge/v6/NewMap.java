@@ -902,6 +902,8 @@ public class NewMap extends AbstractActionBarActivity implements XmlRenderThemeM
 
         pauseTileLayer();
         mapView.getModel().mapViewPosition.removeObserver(this);
+        // write the recorded trail into the database file while the map is not used
+        DataStore.scheduleCheckpoint();
         super.onPause();
     }
 
@@ -5,15 +5,21 @@ import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.location.WaypointDistanceInfo;
+import cgeo.geocaching.maps.MarkerBitmapAtlas;
 import cgeo.geocaching.maps.mapsforge.v6.MapHandlers;
 import cgeo.geocaching.maps.mapsforge.v6.NewMap;
-import cgeo.geocaching.maps.mapsforge.v6.TapHandler;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.MapMarkerUtils;
+import cgeo.geocaching.utils.functions.Func1;
+
+import android.content.res.Resources;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.lang.ref.WeakReference;
 import java.util.Collection;
@@ -21,9 +27,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
-
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+import io.reactivex.rxjava3.subjects.Subject;
 import org.mapsforge.core.graphics.Bitmap;
-import org.mapsforge.core.model.LatLong;
 import org.mapsforge.map.android.graphics.AndroidGraphicFactory;
 import org.mapsforge.map.layer.Layer;
 import org.mapsforge.map.layer.LayerManager;
@@ -31,16 +43,23 @@ import org.mapsforge.map.layer.Layers;
 
 public abstract class AbstractCachesOverlay {
 
+    /**
+     * marker bitmaps shared by all overlays, so that equal markers are converted only once
+     */
+    private static final MarkerBitmapAtlas<Bitmap> MARKER_BITMAPS = new MarkerBitmapAtlas<>(500, AndroidGraphicFactory::convertToBitmap);
+
     private final int overlayId;
     private final Set<GeoEntry> geoEntries;
     private final WeakReference<CachesBundle> bundleRef;
     private final Layer anchorLayer;
     private final Layer circleLayer;
-    private final GeoitemLayers layerList = new GeoitemLayers();
+    private final GeoitemMarkerLayer markerLayer;
     private final MapHandlers mapHandlers;
     private boolean invalidated = true;
     private boolean showCircles = false;
     private final WeakReference<NewMap> mapRef;
+    private final Subject<Boolean> invalidations = PublishSubject.<Boolean>create().toSerialized();
+    private Disposable refresher = Disposable.disposed();
 
     public AbstractCachesOverlay(final NewMap map, final int overlayId, final Set<GeoEntry> geoEntries, final CachesBundle bundle, final Layer anchorLayer, final MapHandlers mapHandlers) {
         this.overlayId = overlayId;
@@ -50,13 +69,24 @@ public abstract class AbstractCachesOverlay {
         this.mapHandlers = mapHandlers;
         this.circleLayer = bundle.getCirclesSeparator();
         this.showCircles = Settings.isShowCircles();
+        this.markerLayer = new GeoitemMarkerLayer(mapHandlers.getTapHandler(), bundle.getMapView().getMapViewProjection(), bundle.getMapView().getModel().mapViewPosition);
         mapRef = new WeakReference<>(map);
         Log.d(String.format(Locale.ENGLISH, "AbstractCacheOverlay: construct overlay %d", overlayId));
     }
 
     public void onDestroy() {
         Log.d(String.format(Locale.ENGLISH, "AbtsractCacheOverlay: onDestroy overlay %d", overlayId));
+        refresher.dispose();
         clearLayers();
+
+        final Layers layers = getLayers();
+        if (layers == null) {
+            return;
+        }
+        synchronized (this.bundleRef.get().getMapView()) {
+            layers.remove(markerLayer);
+            layers.remove(markerLayer.getCirclesLayer());
+        }
     }
 
     Set<String> getVisibleCacheGeocodes() {
@@ -81,7 +111,7 @@ public abstract class AbstractCachesOverlay {
     }
 
     int getCachesCount() {
-        return layerList.getCacheCount();
+        return markerLayer.getCacheCount();
     }
 
     protected int getAllVisibleCachesCount() {
@@ -95,6 +125,7 @@ public abstract class AbstractCachesOverlay {
     public void invalidate() {
         invalidated = true;
         showCircles = Settings.isShowCircles();
+        invalidations.onNext(Boolean.TRUE);
     }
 
     public void invalidate(final Collection<String> invalidGeocodes) {
@@ -115,20 +146,73 @@ public abstract class AbstractCachesOverlay {
         invalidated = false;
     }
 
+    /**
+     * Start refreshing the overlay on map changes instead of polling the viewport: every refresh viewport accepted by
+     * needsLoad is loaded on a background thread and displayed afterwards. A newer viewport cancels the loading for an
+     * older one, so only the latest one gets displayed. The refresh stops on {@link #onDestroy()}.
+     *
+     * @param debounceMillis time the map has to stand still before a new viewport is handled
+     * @param needsLoad decides whether the caches have to be loaded for the viewport, called sequentially
+     * @param loader loads the caches to display for the viewport
+     */
+    protected void startRefresh(final long debounceMillis, @NonNull final Func1<Viewport, Boolean> needsLoad, @NonNull final Func1<Viewport, Set<Geocache>> loader) {
+        refresher.dispose();
+        refresher = getRefreshViewports(debounceMillis)
+                .filter(needsLoad::call)
+                .switchMapMaybe(viewport -> Maybe.fromCallable(() -> load(loader, viewport)).subscribeOn(Schedulers.io()))
+                .subscribe(this::display, throwable -> Log.w("AbstractCachesOverlay.refresh", throwable));
+    }
+
+    /**
+     * The current viewport at start, every new viewport after the map has stood still for the given time
+     * and the current viewport right after the overlay has been invalidated.
+     */
+    private Observable<Viewport> getRefreshViewports(final long debounceMillis) {
+        final CachesBundle bundle = bundleRef.get();
+        if (bundle == null) {
+            return Observable.empty();
+        }
+        return bundle.getViewportChanges()
+                .debounce(debounceMillis, TimeUnit.MILLISECONDS)
+                .mergeWith(invalidations.map(ignored -> bundle.getViewport()))
+                .startWith(Observable.fromCallable(bundle::getViewport));
+    }
+
+    @Nullable
+    private Set<Geocache> load(@NonNull final Func1<Viewport, Set<Geocache>> loader, @NonNull final Viewport viewport) {
+        try {
+            showProgress();
+            return loader.call(viewport);
+        } catch (final RuntimeException e) {
+            // also happens if the loading was interrupted for a newer viewport
+            Log.w("AbstractCachesOverlay.load", e);
+            return null;
+        } finally {
+            hideProgress();
+        }
+    }
+
+    private void display(@NonNull final Set<Geocache> caches) {
+        try {
+            showProgress();
+            update(caches);
+        } finally {
+            hideProgress();
+        }
+    }
+
     void switchCircles() {
+        showCircles = Settings.isShowCircles();
+        final Layers layers = getLayers();
+        if (layers == null) {
+            return;
+        }
         synchronized (this.bundleRef.get().getMapView()) {
-            showCircles = Settings.isShowCircles();
-            final Layers layers = getLayers();
-            final int circleIndex = layers.indexOf(circleLayer) + 1;
-            for (final GeoitemLayer layer : layerList) {
-                final Layer circle = layer.getCircle();
-                if (circle != null) {
-                    if (showCircles) {
-                        layers.add(circleIndex, circle);
-                    } else {
-                        layers.remove(circle);
-                    }
-                }
+            final Layer circles = markerLayer.getCirclesLayer();
+            if (!showCircles) {
+                layers.remove(circles);
+            } else if (!layers.contains(circles)) {
+                layers.add(layers.indexOf(circleLayer) + 1, circles);
             }
         }
     }
@@ -180,7 +264,7 @@ public abstract class AbstractCachesOverlay {
     protected final boolean addItem(final Geocache cache, final boolean isDotMode) {
         final GeoEntry entry = new GeoEntry(cache.getGeocode(), overlayId);
         if (geoEntries.add(entry)) {
-            layerList.add(getCacheItem(cache, this.mapHandlers.getTapHandler(), isDotMode));
+            markerLayer.add(cache.getGeoitemRef(), cache.getCoords(), () -> getCacheMarker(cache, isDotMode), cache.applyDistanceRule());
 
             Log.d(String.format(Locale.ENGLISH, "Cache %s for id %d added, geoEntries: %d", entry.geocode, overlayId, geoEntries.size()));
 
@@ -194,9 +278,9 @@ public abstract class AbstractCachesOverlay {
 
     protected final boolean addItem(final Waypoint waypoint, final boolean isDotMode) {
         final GeoEntry entry = new GeoEntry(waypoint.getGpxId(), overlayId);
-        final GeoitemLayer waypointItem = getWaypointItem(waypoint, this.mapHandlers.getTapHandler(), isDotMode);
-        if (waypointItem != null && geoEntries.add(entry)) {
-            layerList.add(waypointItem);
+        final Geopoint coords = waypoint.getCoords();
+        if (coords != null && coords.isValid() && geoEntries.add(entry)) {
+            markerLayer.add(waypoint.getGeoitemRef(), coords, () -> getWaypointMarker(waypoint, isDotMode), waypoint.getWaypointType().applyDistanceRule());
 
             Log.d(String.format(Locale.ENGLISH, "Waypoint %s for id %d added, geoEntries: %d", entry.geocode, overlayId, geoEntries.size()));
 
@@ -208,33 +292,33 @@ public abstract class AbstractCachesOverlay {
         return false;
     }
 
+    /**
+     * Make sure the marker layer (and circles layer) of this overlay are part of the map and redraw them.
+     * The layers are only added once, later changes of the displayed items don't touch the map layers.
+     */
     protected void addLayers() {
         final Layers layers = getLayers();
         if (layers == null) {
             return;
         }
         synchronized (this.bundleRef.get().getMapView()) {
-            int index = layers.indexOf(anchorLayer) + 1;
-            final int circleIndex = layers.indexOf(circleLayer) + 1;
-            for (final GeoitemLayer layer : layerList) {
-                layers.add(index, layer);
-                if (showCircles) {
-                    final Layer circle = layer.getCircle();
-                    if (circle != null) {
-                        layers.add(circleIndex, circle);
-                        index++;
-                    }
-                }
+            if (!layers.contains(markerLayer)) {
+                layers.add(layers.indexOf(anchorLayer) + 1, markerLayer, false);
+            }
+            final Layer circles = markerLayer.getCirclesLayer();
+            if (showCircles && !layers.contains(circles)) {
+                layers.add(layers.indexOf(circleLayer) + 1, circles, false);
             }
         }
+        markerLayer.requestRedraw();
     }
 
     protected Collection<String> getGeocodes() {
-        return layerList.getGeocodes();
+        return markerLayer.getGeocodes();
     }
 
     protected Collection<String> getCacheGeocodes() {
-        return layerList.getCacheGeocodes();
+        return markerLayer.getCacheGeocodes();
     }
 
     protected Viewport getViewport() {
@@ -274,23 +358,11 @@ public abstract class AbstractCachesOverlay {
     }
 
     protected void clearLayers() {
-        final Layers layers = getLayers();
-        if (layers == null) {
-            return;
-        }
-
-        synchronized (this.bundleRef.get().getMapView()) {
-            for (final GeoitemLayer layer : layerList) {
-                geoEntries.remove(new GeoEntry(layer.getItemCode(), overlayId));
-                layers.remove(layer);
-                final Layer circle = layer.getCircle();
-                if (circle != null) {
-                    layers.remove(circle);
-                }
-            }
+        for (final String code : markerLayer.getGeocodes()) {
+            geoEntries.remove(new GeoEntry(code, overlayId));
         }
-
-        layerList.clear();
+        markerLayer.clear();
+        markerLayer.requestRedraw();
 
         Log.d(String.format(Locale.ENGLISH, "Layers for id %d cleared, remaining geoEntries: %d", overlayId, geoEntries.size()));
     }
@@ -302,48 +374,17 @@ public abstract class AbstractCachesOverlay {
             return;
         }
 
-        final Layers layers = getLayers();
-        if (layers == null) {
-            return;
-        }
-
+        // new items have already been added to the marker layer by addItem()
         removeItems(removeCodes);
-        synchronized (this.bundleRef.get().getMapView()) {
-            int index = layers.indexOf(anchorLayer) + 1;
-            final int circleIndex = layers.indexOf(circleLayer) + 1;
-            for (final String code : newCodes) {
-                final GeoitemLayer layer = layerList.getItem(code);
-                layers.add(index, layer);
-                if (showCircles) {
-                    final Layer circle = layer.getCircle();
-                    if (circle != null) {
-                        layers.add(circleIndex, circle);
-                        index++;
-                    }
-                }
-            }
-        }
+        addLayers();
 
         Log.d(String.format(Locale.ENGLISH, "Layers for id %d synced. Codes removed: %d, new codes: %d, geoEntries: %d", overlayId, removeCodes.size(), newCodes.size(), geoEntries.size()));
     }
 
     private void removeItems(final Collection<String> removeCodes) {
-        final Layers layers = getLayers();
-        if (layers == null) {
-            return;
-        }
-        synchronized (this.bundleRef.get().getMapView()) {
-            for (final String code : removeCodes) {
-                final GeoitemLayer item = layerList.getItem(code);
-                if (item != null) {
-                    geoEntries.remove(new GeoEntry(code, overlayId));
-                    layers.remove(item);
-                    final Layer circle = item.getCircle();
-                    if (circle != null) {
-                        layers.remove(circle);
-                    }
-                    layerList.remove(item);
-                }
+        for (final String code : removeCodes) {
+            if (markerLayer.remove(code)) {
+                geoEntries.remove(new GeoEntry(code, overlayId));
             }
         }
     }
@@ -364,30 +405,14 @@ public abstract class AbstractCachesOverlay {
         return Math.abs(newViewport.getLatitudeSpan() - referenceViewport.getLatitudeSpan()) > 50e-6 || Math.abs(newViewport.getLongitudeSpan() - referenceViewport.getLongitudeSpan()) > 50e-6 || Math.abs(newViewport.center.getLatitude() - referenceViewport.center.getLatitude()) > referenceViewport.getLatitudeSpan() / 4 || Math.abs(newViewport.center.getLongitude() - referenceViewport.center.getLongitude()) > referenceViewport.getLongitudeSpan() / 4;
     }
 
-    private static GeoitemLayer getCacheItem(final Geocache cache, final TapHandler tapHandler, final boolean isDotMode) {
-        final Geopoint target = cache.getCoords();
-        Bitmap marker = null;
-        if (isDotMode) {
-            marker = AndroidGraphicFactory.convertToBitmap(MapMarkerUtils.createCacheDotMarker(CgeoApplication.getInstance().getResources(), cache));
-        } else {
-            marker = AndroidGraphicFactory.convertToBitmap(MapMarkerUtils.getCacheMarker(CgeoApplication.getInstance().getResources(), cache).getDrawable());
-        }
-        return new GeoitemLayer(cache.getGeoitemRef(), cache.applyDistanceRule(), tapHandler, new LatLong(target.getLatitude(), target.getLongitude()), marker, 0, -marker.getHeight() / 2);
+    private static Bitmap getCacheMarker(final Geocache cache, final boolean isDotMode) {
+        final Resources res = CgeoApplication.getInstance().getResources();
+        return MARKER_BITMAPS.get(isDotMode ? MapMarkerUtils.getCacheDotMarker(res, cache) : MapMarkerUtils.getCacheMarker(res, cache));
     }
 
-    private static GeoitemLayer getWaypointItem(final Waypoint waypoint, final TapHandler tapHandler, final boolean isDotMode) {
-        final Geopoint target = waypoint.getCoords();
-        if (target != null && target.isValid()) {
-            Bitmap marker = null;
-            if (isDotMode) {
-                marker = AndroidGraphicFactory.convertToBitmap(MapMarkerUtils.createWaypointDotMarker(CgeoApplication.getInstance().getResources(), waypoint));
-            } else {
-                marker = AndroidGraphicFactory.convertToBitmap(MapMarkerUtils.getWaypointMarker(CgeoApplication.getInstance().getResources(), waypoint).getDrawable());
-            }
-            return new GeoitemLayer(waypoint.getGeoitemRef(), waypoint.getWaypointType().applyDistanceRule(), tapHandler, new LatLong(target.getLatitude(), target.getLongitude()), marker, 0, -marker.getHeight() / 2);
-        }
-
-        return null;
+    private static Bitmap getWaypointMarker(final Waypoint waypoint, final boolean isDotMode) {
+        final Resources res = CgeoApplication.getInstance().getResources();
+        return MARKER_BITMAPS.get(isDotMode ? MapMarkerUtils.getWaypointDotMarker(res, waypoint) : MapMarkerUtils.getWaypointMarker(res, waypoint));
     }
 
     public WaypointDistanceInfo getClosestDistanceInM(final Geopoint coord) {
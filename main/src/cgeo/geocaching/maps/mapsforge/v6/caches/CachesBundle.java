@@ -18,6 +18,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import io.reactivex.rxjava3.core.Observable;
 import org.mapsforge.map.layer.Layer;
 import org.mapsforge.map.layer.LayerManager;
 
@@ -294,6 +295,10 @@ public class CachesBundle {
         return mapView.getMapZoomLevel();
     }
 
+    Observable<Viewport> getViewportChanges() {
+        return mapView.getViewportChanges();
+    }
+
     LayerManager getLayerManager() {
         return mapView.getLayerManager();
     }
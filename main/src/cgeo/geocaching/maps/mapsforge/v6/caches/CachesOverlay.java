@@ -2,34 +2,28 @@ package cgeo.geocaching.maps.mapsforge.v6.caches;
 
 import cgeo.geocaching.SearchResult;
 import cgeo.geocaching.enumerations.LoadFlags;
-import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.maps.mapsforge.v6.MapHandlers;
 import cgeo.geocaching.maps.mapsforge.v6.NewMap;
-import cgeo.geocaching.models.Geocache;
-import cgeo.geocaching.utils.Log;
 
-import androidx.annotation.NonNull;
-
-import java.lang.ref.WeakReference;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
-import io.reactivex.rxjava3.disposables.Disposable;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.mapsforge.map.layer.Layer;
 
 public class CachesOverlay extends AbstractCachesOverlay {
 
+    /**
+     * the caches are fixed, map changes only need a title update
+     */
+    private static final long DEBOUNCE_MILLIS = 250;
+
     private final SearchResult search;
-    private final Disposable timer;
     private boolean firstRun = true;
-    private boolean updating = false;
 
     CachesOverlay(final NewMap map, final SearchResult search, final int overlayId, final Set<GeoEntry> geoEntries, final CachesBundle bundle, final Layer anchorLayer, final MapHandlers mapHandlers) {
         super(map, overlayId, geoEntries, bundle, anchorLayer, mapHandlers);
 
         this.search = search;
-        this.timer = startTimer();
+        startRefresh(DEBOUNCE_MILLIS, viewport -> needsLoad(), viewport -> search.getCachesFromSearchResult(LoadFlags.LOAD_WAYPOINTS));
     }
 
     CachesOverlay(final NewMap map, final String geocode, final int overlayId, final Set<GeoEntry> geoEntries, final CachesBundle bundle, final Layer layerAnchor, final MapHandlers mapHandlers) {
@@ -37,68 +31,17 @@ public class CachesOverlay extends AbstractCachesOverlay {
 
         this.search = new SearchResult();
         this.search.addGeocode(geocode);
-        this.timer = startTimer();
+        startRefresh(DEBOUNCE_MILLIS, viewport -> needsLoad(), viewport -> search.getCachesFromSearchResult(LoadFlags.LOAD_WAYPOINTS));
     }
 
-    private Disposable startTimer() {
-        return Schedulers.newThread().schedulePeriodicallyDirect(new CachesOverlay.LoadTimerAction(this), 0, 250, TimeUnit.MILLISECONDS);
-    }
-
-    private static final class LoadTimerAction implements Runnable {
-
-        @NonNull
-        private final WeakReference<CachesOverlay> overlayRef;
-        private Viewport previousViewport;
-
-        LoadTimerAction(@NonNull final CachesOverlay overlay) {
-            this.overlayRef = new WeakReference<>(overlay);
+    private boolean needsLoad() {
+        // Initially bring the main list in
+        if (firstRun || isInvalidated()) {
+            firstRun = false;
+            refreshed();
+            return true;
         }
-
-        @Override
-        public void run() {
-            final CachesOverlay overlay = overlayRef.get();
-            if (overlay == null || overlay.updating) {
-                return;
-            }
-            overlay.updating = true;
-            try {
-                // Initially bring the main list in
-                if (overlay.firstRun || overlay.isInvalidated()) {
-                    final Set<Geocache> cachesToDisplay = overlay.search.getCachesFromSearchResult(LoadFlags.LOAD_WAYPOINTS);
-                    overlay.display(cachesToDisplay);
-                    overlay.firstRun = false;
-                    overlay.refreshed();
-                }
-
-                // get current viewport
-                final Viewport viewportNow = overlay.getViewport();
-
-                if (previousViewport != null && !previousViewport.equals(viewportNow)) {
-
-                    previousViewport = viewportNow;
-                    overlay.updateTitle();
-                }
-            } catch (final Exception e) {
-                Log.w("CachesOverlay.LoadTimer.run", e);
-            } finally {
-                overlay.updating = false;
-            }
-        }
-    }
-
-    private void display(final Set<Geocache> cachesToDisplay) {
-        try {
-            showProgress();
-            update(cachesToDisplay);
-        } finally {
-            hideProgress();
-        }
-    }
-
-    @Override
-    public void onDestroy() {
-        timer.dispose();
-
-        super.onDestroy();
+        updateTitle();
+        return false;
     }
 }
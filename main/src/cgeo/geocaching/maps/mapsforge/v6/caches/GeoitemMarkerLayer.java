@@ -0,0 +1,599 @@
+package cgeo.geocaching.maps.mapsforge.v6.caches;
+
+import cgeo.geocaching.CgeoApplication;
+import cgeo.geocaching.R;
+import cgeo.geocaching.enumerations.CoordinatesType;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.IConversion;
+import cgeo.geocaching.maps.mapsforge.v6.TapHandler;
+import cgeo.geocaching.utils.DisplayUtils;
+import cgeo.geocaching.utils.MapLineUtils;
+
+import android.content.Context;
+import android.util.DisplayMetrics;
+import android.util.LongSparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+import androidx.core.util.Supplier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mapsforge.core.graphics.Align;
+import org.mapsforge.core.graphics.Bitmap;
+import org.mapsforge.core.graphics.Canvas;
+import org.mapsforge.core.graphics.FontFamily;
+import org.mapsforge.core.graphics.FontStyle;
+import org.mapsforge.core.graphics.Paint;
+import org.mapsforge.core.graphics.Style;
+import org.mapsforge.core.model.BoundingBox;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.MapPosition;
+import org.mapsforge.core.model.Point;
+import org.mapsforge.core.model.Rectangle;
+import org.mapsforge.core.util.MercatorProjection;
+import org.mapsforge.map.android.graphics.AndroidGraphicFactory;
+import org.mapsforge.map.layer.Layer;
+import org.mapsforge.map.model.MapViewPosition;
+import org.mapsforge.map.util.MapViewProjection;
+
+/**
+ * Single layer drawing all cache and waypoint markers of an overlay, instead of one mapsforge layer per marker.
+ * Items can be added and removed without touching the {@link org.mapsforge.map.layer.Layers} of the map.
+ * A grid over the item coordinates limits drawing and tap hit-testing to the items near the visible area
+ * respectively the tap position.
+ *
+ * On low zoom levels, markers close to each other on the screen are combined into clusters showing their count.
+ * The clusters are computed once per zoom level and set of items. Tapping a cluster zooms into it.
+ * The markers of the items are only created when an item is drawn on its own, so items only shown as part of a
+ * cluster don't need a marker bitmap.
+ *
+ * The circles around the items are drawn by a separate layer (see {@link #getCirclesLayer()}), as they are
+ * placed below all markers.
+ */
+public class GeoitemMarkerLayer extends Layer {
+
+    private static final double tapSpanInches = 0.12; // 3mm as inches
+    private static final double tapSpanRadius;
+
+    static {
+        final DisplayMetrics metrics = DisplayUtils.getDisplayMetrics();
+        tapSpanRadius = metrics.densityDpi * tapSpanInches / 2.0;
+    }
+
+    private static final float radius = (float) (528.0 * IConversion.FEET_TO_KILOMETER * 1000.0);
+
+    private static final Paint strokePaint;
+    private static final Paint fillPaint;
+
+    static {
+        strokePaint = AndroidGraphicFactory.INSTANCE.createPaint();
+        strokePaint.setStrokeWidth(2.0f);
+        strokePaint.setDashPathEffect(new float[] { 3, 2 });
+        strokePaint.setColor(MapLineUtils.getCircleColor());
+        strokePaint.setStyle(Style.STROKE);
+
+        fillPaint = AndroidGraphicFactory.INSTANCE.createPaint();
+        fillPaint.setColor(MapLineUtils.getCircleFillColor());
+        fillPaint.setStyle(Style.FILL);
+    }
+
+    /**
+     * Below this zoom level markers close to each other are drawn as one cluster showing their count.
+     * The clusters are built from screen cells of {@link #clusterCellSize} pixels, so the number of drawn
+     * elements is bounded by the screen size and clusters split up while zooming in.
+     */
+    private static final int CLUSTER_MAX_ZOOM_LEVEL = 13;
+    private static final int clusterCellSize;
+    private static final int clusterRadius;
+
+    private static final Paint clusterFillPaint;
+    private static final Paint clusterStrokePaint;
+    private static final Paint clusterTextPaint;
+
+    static {
+        final float density = DisplayUtils.getDisplayDensity();
+        clusterCellSize = (int) (48 * density);
+        clusterRadius = (int) (14 * density);
+        final Context context = CgeoApplication.getInstance();
+
+        clusterFillPaint = AndroidGraphicFactory.INSTANCE.createPaint();
+        clusterFillPaint.setColor(ContextCompat.getColor(context, R.color.map_cluster_fill));
+        clusterFillPaint.setStyle(Style.FILL);
+
+        clusterStrokePaint = AndroidGraphicFactory.INSTANCE.createPaint();
+        clusterStrokePaint.setColor(ContextCompat.getColor(context, R.color.map_cluster_stroke));
+        clusterStrokePaint.setStrokeWidth(2 * density);
+        clusterStrokePaint.setStyle(Style.STROKE);
+
+        clusterTextPaint = AndroidGraphicFactory.INSTANCE.createPaint();
+        clusterTextPaint.setColor(ContextCompat.getColor(context, R.color.map_cluster_text));
+        clusterTextPaint.setTextSize(12 * density);
+        clusterTextPaint.setTypeface(FontFamily.DEFAULT, FontStyle.BOLD);
+        clusterTextPaint.setTextAlign(Align.CENTER);
+    }
+
+    /**
+     * size of the grid cells in degrees
+     */
+    private static final double CELL_SIZE = 0.01;
+
+    /**
+     * draw southern markers last, so they overlap the northern ones
+     */
+    private static final Comparator<Geoitem> NORTH_TO_SOUTH = (left, right) -> Double.compare(right.latitude, left.latitude);
+
+    private final TapHandler tapHandler;
+    private final MapViewProjection projection;
+    private final MapViewPosition mapViewPosition;
+    private final Layer circlesLayer = new Layer() {
+        @Override
+        public void draw(final BoundingBox boundingBox, final byte zoomLevel, final Canvas canvas, final Point topLeftPoint) {
+            drawCircles(boundingBox, zoomLevel, canvas, topLeftPoint, displayModel.getTileSize());
+        }
+    };
+
+    /**
+     * ordered set of items to be displayed
+     */
+    private final Map<String, Geoitem> geoitems = new LinkedHashMap<>();
+    private final Set<String> cacheCodes = new HashSet<>();
+    private final Map<Long, List<Geoitem>> cells = new HashMap<>();
+
+    /**
+     * the items by screen cell of {@link #clusterCellSize} absolute map pixels, computed once per zoom level and set of
+     * items below {@link #CLUSTER_MAX_ZOOM_LEVEL}. Screen cells with a single item don't form a cluster.
+     */
+    private final LongSparseArray<Cluster> screenCells = new LongSparseArray<>();
+    /**
+     * map size the screen cells were computed for, 0 if they have to be computed again
+     */
+    private long clusteredMapSize = 0;
+
+    /**
+     * the elements of the current frame, kept to avoid allocations while drawing
+     */
+    private final List<Geoitem> drawnItems = new ArrayList<>();
+    private final List<Cluster> drawnClusters = new ArrayList<>();
+    private final List<Geoitem> circleItems = new ArrayList<>();
+    private final List<Cluster> circleClusters = new ArrayList<>();
+
+    /**
+     * largest marker width and height, used as margin when searching the grid. Markers are created lazily,
+     * so the margin starts with an estimate.
+     */
+    private int maxMarkerWidth = clusterCellSize;
+    private int maxMarkerHeight = clusterCellSize;
+
+    /**
+     * zoom level of the last draw, the zoom level only changes together with a redraw
+     */
+    private byte zoomLevel = 0;
+
+    private static final class Geoitem {
+        @NonNull private final GeoitemRef item;
+        private final double latitude;
+        private final double longitude;
+        @NonNull private final Supplier<Bitmap> markerFactory;
+        @Nullable private Bitmap marker = null;
+        private final boolean hasCircle;
+        private final long cell;
+        /**
+         * position in absolute map pixels for a map of {@link #projectedMapSize} pixels
+         */
+        private long projectedMapSize = 0;
+        private double pixelX;
+        private double pixelY;
+
+        Geoitem(@NonNull final GeoitemRef item, @NonNull final Geopoint coords, @NonNull final Supplier<Bitmap> markerFactory, final boolean hasCircle) {
+            this.item = item;
+            this.latitude = coords.getLatitude();
+            this.longitude = coords.getLongitude();
+            this.markerFactory = markerFactory;
+            this.hasCircle = hasCircle;
+            this.cell = getCell(getCellIndex(latitude), getCellIndex(longitude));
+        }
+
+        private void project(final long mapSize) {
+            if (projectedMapSize != mapSize) {
+                pixelX = MercatorProjection.longitudeToPixelX(longitude, mapSize);
+                pixelY = MercatorProjection.latitudeToPixelY(latitude, mapSize);
+                projectedMapSize = mapSize;
+            }
+        }
+    }
+
+    /**
+     * the items of a screen cell, drawn as one cluster at the center of its items if there are several
+     */
+    private static final class Cluster {
+        @NonNull private final List<Geoitem> items = new ArrayList<>();
+        private double pixelX;
+        private double pixelY;
+        @Nullable private LatLong center;
+    }
+
+    public GeoitemMarkerLayer(final TapHandler tapHandler, final MapViewProjection projection, final MapViewPosition mapViewPosition) {
+        this.tapHandler = tapHandler;
+        this.projection = projection;
+        this.mapViewPosition = mapViewPosition;
+    }
+
+    /**
+     * @return the layer drawing the circles around those items requesting one
+     */
+    public Layer getCirclesLayer() {
+        return circlesLayer;
+    }
+
+    /**
+     * Add an item. The marker is anchored at the bottom center of the bitmap.
+     *
+     * @param markerFactory creates the marker when the item is drawn on its own for the first time
+     * @return false if an item with the same code is already displayed
+     */
+    public synchronized boolean add(@NonNull final GeoitemRef item, @NonNull final Geopoint coords, @NonNull final Supplier<Bitmap> markerFactory, final boolean hasCircle) {
+        final String itemCode = item.getItemCode();
+        if (geoitems.containsKey(itemCode)) {
+            return false;
+        }
+        final Geoitem geoitem = new Geoitem(item, coords, markerFactory, hasCircle);
+        geoitems.put(itemCode, geoitem);
+        if (item.getType() == CoordinatesType.CACHE) {
+            cacheCodes.add(itemCode);
+        }
+        List<Geoitem> cell = cells.get(geoitem.cell);
+        if (cell == null) {
+            cell = new ArrayList<>();
+            cells.put(geoitem.cell, cell);
+        }
+        cell.add(geoitem);
+        clusteredMapSize = 0;
+        return true;
+    }
+
+    @NonNull
+    private Bitmap getMarker(@NonNull final Geoitem geoitem) {
+        if (geoitem.marker == null) {
+            geoitem.marker = geoitem.markerFactory.get();
+            maxMarkerWidth = Math.max(maxMarkerWidth, geoitem.marker.getWidth());
+            maxMarkerHeight = Math.max(maxMarkerHeight, geoitem.marker.getHeight());
+        }
+        return geoitem.marker;
+    }
+
+    public synchronized boolean remove(final String itemCode) {
+        final Geoitem geoitem = geoitems.remove(itemCode);
+        if (geoitem == null) {
+            return false;
+        }
+        cacheCodes.remove(itemCode);
+        final List<Geoitem> cell = cells.get(geoitem.cell);
+        if (cell != null) {
+            cell.remove(geoitem);
+            if (cell.isEmpty()) {
+                cells.remove(geoitem.cell);
+            }
+        }
+        clusteredMapSize = 0;
+        return true;
+    }
+
+    public synchronized void clear() {
+        geoitems.clear();
+        cacheCodes.clear();
+        cells.clear();
+        clusteredMapSize = 0;
+    }
+
+    public synchronized Collection<String> getGeocodes() {
+        return new ArrayList<>(geoitems.keySet());
+    }
+
+    public synchronized Collection<String> getCacheGeocodes() {
+        return new ArrayList<>(cacheCodes);
+    }
+
+    public synchronized int getCacheCount() {
+        return cacheCodes.size();
+    }
+
+    @Override
+    public synchronized void draw(final BoundingBox boundingBox, final byte zoomLevel, final Canvas canvas, final Point topLeftPoint) {
+        this.zoomLevel = zoomLevel;
+        final long mapSize = MercatorProjection.getMapSize(zoomLevel, displayModel.getTileSize());
+        final int canvasWidth = canvas.getWidth();
+        final int canvasHeight = canvas.getHeight();
+        // markers are drawn above their coordinates, so they may reach into the canvas from below
+        collectVisible(zoomLevel, mapSize, topLeftPoint.x - maxMarkerWidth / 2.0, topLeftPoint.y,
+                topLeftPoint.x + canvasWidth + maxMarkerWidth / 2.0, topLeftPoint.y + canvasHeight + maxMarkerHeight, drawnItems, drawnClusters);
+
+        Collections.sort(drawnItems, NORTH_TO_SOUTH);
+        for (final Geoitem geoitem : drawnItems) {
+            final Bitmap marker = getMarker(geoitem);
+            final int width = marker.getWidth();
+            final int height = marker.getHeight();
+            final int left = (int) (geoitem.pixelX - topLeftPoint.x - width / 2.0);
+            final int top = (int) (geoitem.pixelY - topLeftPoint.y - height);
+            if (left < canvasWidth && left + width > 0 && top < canvasHeight && top + height > 0) {
+                canvas.drawBitmap(marker, left, top);
+            }
+        }
+
+        for (final Cluster cluster : drawnClusters) {
+            final int x = (int) (cluster.pixelX - topLeftPoint.x);
+            final int y = (int) (cluster.pixelY - topLeftPoint.y);
+            final String count = String.valueOf(cluster.items.size());
+            canvas.drawCircle(x, y, clusterRadius, clusterFillPaint);
+            canvas.drawCircle(x, y, clusterRadius, clusterStrokePaint);
+            canvas.drawText(count, x, y + clusterTextPaint.getTextHeight(count) / 2, clusterTextPaint);
+        }
+        drawnItems.clear();
+        drawnClusters.clear();
+    }
+
+    /**
+     * Collect the items and clusters whose coordinates are in the given rectangle of absolute map pixels. Below
+     * {@link #CLUSTER_MAX_ZOOM_LEVEL} they are taken from the screen cells overlapping the rectangle, so that the
+     * clusters don't depend on the area asked for.
+     */
+    private void collectVisible(final byte zoomLevel, final long mapSize, final double minX, final double minY, final double maxX, final double maxY,
+                                @NonNull final List<Geoitem> items, @NonNull final List<Cluster> clusters) {
+        items.clear();
+        clusters.clear();
+        if (zoomLevel >= CLUSTER_MAX_ZOOM_LEVEL) {
+            collectItems(mapSize, minX, minY, maxX, maxY, items);
+            return;
+        }
+        updateClusters(mapSize);
+
+        final int minRow = getScreenCellIndex(minY);
+        final int maxRow = getScreenCellIndex(maxY);
+        final int minColumn = getScreenCellIndex(minX);
+        final int maxColumn = getScreenCellIndex(maxX);
+        // for large areas it is cheaper to check the non-empty screen cells than to look up every overlapping one
+        if ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1) <= screenCells.size()) {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    final Cluster cluster = screenCells.get(getCell(row, column));
+                    if (cluster != null) {
+                        addVisible(cluster, mapSize, items, clusters);
+                    }
+                }
+            }
+        } else {
+            for (int index = 0; index < screenCells.size(); index++) {
+                final int row = getRow(screenCells.keyAt(index));
+                final int column = getColumn(screenCells.keyAt(index));
+                if (row >= minRow && row <= maxRow && column >= minColumn && column <= maxColumn) {
+                    addVisible(screenCells.valueAt(index), mapSize, items, clusters);
+                }
+            }
+        }
+    }
+
+    private static void addVisible(@NonNull final Cluster cluster, final long mapSize, @NonNull final List<Geoitem> items, @NonNull final List<Cluster> clusters) {
+        if (cluster.items.size() == 1) {
+            // the item may have been projected for another zoom level since the clusters were computed
+            final Geoitem geoitem = cluster.items.get(0);
+            geoitem.project(mapSize);
+            items.add(geoitem);
+        } else {
+            clusters.add(cluster);
+        }
+    }
+
+    /**
+     * Group all items by the screen cell containing them, unless this was already done for the given map size and the
+     * current items. The cells are based on absolute map pixels, so they don't change while panning.
+     */
+    private void updateClusters(final long mapSize) {
+        if (clusteredMapSize == mapSize) {
+            return;
+        }
+        screenCells.clear();
+        for (final Geoitem geoitem : geoitems.values()) {
+            geoitem.project(mapSize);
+            final long screenCell = getCell(getScreenCellIndex(geoitem.pixelY), getScreenCellIndex(geoitem.pixelX));
+            Cluster cluster = screenCells.get(screenCell);
+            if (cluster == null) {
+                cluster = new Cluster();
+                screenCells.put(screenCell, cluster);
+            }
+            cluster.items.add(geoitem);
+        }
+        for (int index = 0; index < screenCells.size(); index++) {
+            final Cluster cluster = screenCells.valueAt(index);
+            double pixelX = 0;
+            double pixelY = 0;
+            for (final Geoitem geoitem : cluster.items) {
+                pixelX += geoitem.pixelX;
+                pixelY += geoitem.pixelY;
+            }
+            cluster.pixelX = pixelX / cluster.items.size();
+            cluster.pixelY = pixelY / cluster.items.size();
+            cluster.center = new LatLong(MercatorProjection.pixelYToLatitude(cluster.pixelY, mapSize), MercatorProjection.pixelXToLongitude(cluster.pixelX, mapSize));
+        }
+        clusteredMapSize = mapSize;
+    }
+
+    private synchronized void drawCircles(final BoundingBox boundingBox, final byte zoomLevel, final Canvas canvas, final Point topLeftPoint, final int tileSize) {
+        final long mapSize = MercatorProjection.getMapSize(zoomLevel, tileSize);
+        final double maxLatitude = Math.min(85, Math.max(Math.abs(boundingBox.minLatitude), Math.abs(boundingBox.maxLatitude)));
+        final double circleMargin = MercatorProjection.metersToPixels(radius, maxLatitude, mapSize);
+        // items being part of a cluster don't get a circle
+        collectVisible(zoomLevel, mapSize, topLeftPoint.x - circleMargin, topLeftPoint.y - circleMargin,
+                topLeftPoint.x + canvas.getWidth() + circleMargin, topLeftPoint.y + canvas.getHeight() + circleMargin, circleItems, circleClusters);
+        for (final Geoitem geoitem : circleItems) {
+            if (geoitem.hasCircle) {
+                final int x = (int) (geoitem.pixelX - topLeftPoint.x);
+                final int y = (int) (geoitem.pixelY - topLeftPoint.y);
+                final int radiusInPixel = (int) MercatorProjection.metersToPixels(radius, geoitem.latitude, mapSize);
+                canvas.drawCircle(x, y, radiusInPixel, fillPaint);
+                canvas.drawCircle(x, y, radiusInPixel, strokePaint);
+            }
+        }
+        circleItems.clear();
+        circleClusters.clear();
+    }
+
+    /**
+     * Add the items whose coordinates are in the given rectangle of absolute map pixels to the result.
+     */
+    private void collectItems(final long mapSize, final double minX, final double minY, final double maxX, final double maxY, @NonNull final List<Geoitem> result) {
+        final double mapMax = mapSize;
+        final int minRow = getCellIndex(MercatorProjection.pixelYToLatitude(Math.min(mapMax, Math.max(0, maxY)), mapSize));
+        final int maxRow = getCellIndex(MercatorProjection.pixelYToLatitude(Math.min(mapMax, Math.max(0, minY)), mapSize));
+        final int minColumn = getCellIndex(MercatorProjection.pixelXToLongitude(Math.min(mapMax, Math.max(0, minX)), mapSize));
+        final int maxColumn = getCellIndex(MercatorProjection.pixelXToLongitude(Math.min(mapMax, Math.max(0, maxX)), mapSize));
+
+        // for large areas it is cheaper to check the non-empty cells than to look up every overlapping cell
+        if ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1) <= cells.size()) {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    final List<Geoitem> cell = cells.get(getCell(row, column));
+                    if (cell != null) {
+                        collectItems(cell, mapSize, minX, minY, maxX, maxY, result);
+                    }
+                }
+            }
+        } else {
+            for (final Map.Entry<Long, List<Geoitem>> cell : cells.entrySet()) {
+                final int row = getRow(cell.getKey());
+                final int column = getColumn(cell.getKey());
+                if (row >= minRow && row <= maxRow && column >= minColumn && column <= maxColumn) {
+                    collectItems(cell.getValue(), mapSize, minX, minY, maxX, maxY, result);
+                }
+            }
+        }
+    }
+
+    /**
+     * the grid cells are coarser than the rectangle, so their items have to be checked one by one
+     */
+    private static void collectItems(@NonNull final List<Geoitem> cell, final long mapSize, final double minX, final double minY, final double maxX, final double maxY, @NonNull final List<Geoitem> result) {
+        for (final Geoitem geoitem : cell) {
+            geoitem.project(mapSize);
+            if (geoitem.pixelX >= minX && geoitem.pixelX <= maxX && geoitem.pixelY >= minY && geoitem.pixelY <= maxY) {
+                result.add(geoitem);
+            }
+        }
+    }
+
+    @Override
+    public boolean onTap(final LatLong tapLatLong, final Point layerXY, final Point tapXY) {
+        tapHandler.setMode(false);
+        final LatLong cluster = setHits(tapXY, false);
+        if (cluster != null) {
+            // zoom into the cluster until it splits up, instead of selecting all of its items
+            mapViewPosition.setMapPosition(new MapPosition(cluster, (byte) Math.min(zoomLevel + 2, CLUSTER_MAX_ZOOM_LEVEL)));
+        }
+        return false;
+    }
+
+    @Override
+    public boolean onLongPress(final LatLong tapLatLong, final Point layerXY, final Point tapXY) {
+        tapHandler.setMode(true);
+        setHits(tapXY, true);
+        return false;
+    }
+
+    /**
+     * Mark the tapped single items as hit. A long press on a cluster hits the item closest to its center only.
+     *
+     * @return the center of the tapped cluster if a tap should zoom into it, null otherwise
+     */
+    @Nullable
+    private synchronized LatLong setHits(final Point tapXY, final boolean longPress) {
+        final LatLong tapLatLong = projection.fromPixels(tapXY.x, tapXY.y);
+        if (tapLatLong == null) {
+            return null;
+        }
+        // the clusters are the same as in the last draw, as they only depend on its zoom level and the items
+        final long mapSize = MercatorProjection.getMapSize(zoomLevel, displayModel.getTileSize());
+        final double tapX = MercatorProjection.longitudeToPixelX(tapLatLong.longitude, mapSize);
+        final double tapY = MercatorProjection.latitudeToPixelY(tapLatLong.latitude, mapSize);
+        final double marginX = Math.max(maxMarkerWidth / 2.0, clusterRadius) + tapSpanRadius;
+        final double marginY = Math.max(maxMarkerHeight, clusterRadius) + tapSpanRadius;
+        final List<Geoitem> items = new ArrayList<>();
+        final List<Cluster> clusters = new ArrayList<>();
+        collectVisible(zoomLevel, mapSize, tapX - marginX, tapY - marginY, tapX + marginX, tapY + marginY, items, clusters);
+
+        for (final Geoitem geoitem : items) {
+            if (isHit(geoitem, tapXY)) {
+                tapHandler.setHit(geoitem.item);
+            }
+        }
+
+        for (final Cluster cluster : clusters) {
+            final double distance = Math.hypot(cluster.pixelX - tapX, cluster.pixelY - tapY);
+            if (distance <= clusterRadius + tapSpanRadius) {
+                if (!longPress) {
+                    return cluster.center;
+                }
+                tapHandler.setHit(getClosestItem(cluster, mapSize).item);
+            }
+        }
+        return null;
+    }
+
+    @NonNull
+    private static Geoitem getClosestItem(@NonNull final Cluster cluster, final long mapSize) {
+        Geoitem closest = cluster.items.get(0);
+        double closestDistance = Double.MAX_VALUE;
+        for (final Geoitem geoitem : cluster.items) {
+            geoitem.project(mapSize);
+            final double distance = Math.hypot(geoitem.pixelX - cluster.pixelX, geoitem.pixelY - cluster.pixelY);
+            if (distance < closestDistance) {
+                closest = geoitem;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    private boolean isHit(final Geoitem geoitem, final Point tapXY) {
+        final Point itemXY = projection.toPixels(new LatLong(geoitem.latitude, geoitem.longitude));
+        if (itemXY == null) {
+            return false;
+        }
+        final Bitmap marker = getMarker(geoitem);
+        final double halfXSpan = marker.getWidth() / 2.0;
+        final double halfYSpan = marker.getHeight() / 2.0;
+        // the marker is drawn above its coordinates
+        final double centerY = itemXY.y - halfYSpan;
+        final Rectangle rect = new Rectangle(itemXY.x - halfXSpan, centerY - halfYSpan, itemXY.x + halfXSpan, centerY + halfYSpan);
+
+        return rect.intersectsCircle(tapXY.x, tapXY.y, tapSpanRadius);
+    }
+
+    private static int getScreenCellIndex(final double pixel) {
+        return (int) Math.floor(pixel / clusterCellSize);
+    }
+
+    private static int getCellIndex(final double coordinate) {
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private static long getCell(final int row, final int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    private static int getRow(final long cell) {
+        return (int) (cell >> 32);
+    }
+
+    private static int getColumn(final long cell) {
+        return (int) cell;
+    }
+}
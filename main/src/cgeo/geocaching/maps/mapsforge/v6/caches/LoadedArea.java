@@ -0,0 +1,97 @@
+package cgeo.geocaching.maps.mapsforge.v6.caches;
+
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.models.ICoordinates;
+import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.functions.Func1;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Items loaded for an area of the map. When the map is moved, only the newly exposed strips of the new area get
+ * loaded, and items outside a retention margin are dropped.
+ */
+final class LoadedArea<T extends ICoordinates> {
+
+    @NonNull private final Func1<T, String> codeOf;
+    private final Map<String, T> items = new HashMap<>();
+    private Viewport covered;
+    private String key;
+    /**
+     * number of resets requested and the number of resets handled by the last update
+     */
+    private final AtomicInteger resets = new AtomicInteger(1);
+    private int handledResets = 0;
+
+    LoadedArea(@NonNull final Func1<T, String> codeOf) {
+        this.codeOf = codeOf;
+    }
+
+    /**
+     * Forget all loaded items, the next update loads the whole area.
+     */
+    void reset() {
+        resets.incrementAndGet();
+    }
+
+    /**
+     * Load the items of the given area which are not loaded yet.
+     *
+     * @param key
+     *          settings the items have been loaded with, a changed key reloads the whole area
+     * @param area
+     *          area to load
+     * @param retained
+     *          area to keep loaded items for, should include the area
+     * @param loader
+     *          loads the items of a part of the area
+     * @return all loaded items inside the retained area
+     */
+    @NonNull
+    synchronized Set<T> update(@NonNull final String key, @NonNull final Viewport area, @NonNull final Viewport retained, @NonNull final Func1<Viewport, Collection<T>> loader) {
+        final int currentResets = resets.get();
+        final boolean full = currentResets != handledResets || covered == null || !StringUtils.equals(key, this.key);
+        final List<Viewport> missing = full ? null : area.subtract(covered);
+
+        // load everything before changing the state, loading may be interrupted for a newer area
+        final List<T> loaded = new ArrayList<>();
+        if (full) {
+            loaded.addAll(loader.call(area));
+        } else {
+            for (final Viewport strip : missing) {
+                loaded.addAll(loader.call(strip));
+            }
+        }
+
+        if (full) {
+            items.clear();
+        }
+        for (final T item : loaded) {
+            items.put(codeOf.call(item), item);
+        }
+        final Iterator<T> iterator = items.values().iterator();
+        while (iterator.hasNext()) {
+            if (!retained.contains(iterator.next())) {
+                iterator.remove();
+            }
+        }
+        covered = area;
+        this.key = key;
+        handledResets = currentResets;
+
+        Log.d("LoadedArea: " + (full ? "loaded whole area" : "loaded " + missing.size() + " strips") + " with " + loaded.size() + " items, holding " + items.size() + " items");
+        return new HashSet<>(items.values());
+    }
+}
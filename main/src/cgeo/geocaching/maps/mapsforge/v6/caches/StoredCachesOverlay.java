@@ -1,6 +1,7 @@
 package cgeo.geocaching.maps.mapsforge.v6.caches;
 
 import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.enumerations.CacheType;
 import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.maps.MapUtils;
@@ -9,98 +10,70 @@ import cgeo.geocaching.maps.mapsforge.v6.NewMap;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
-import cgeo.geocaching.utils.Log;
 
-import androidx.annotation.NonNull;
-
-import java.lang.ref.WeakReference;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
-import io.reactivex.rxjava3.disposables.Disposable;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.mapsforge.map.layer.Layer;
 
 public class StoredCachesOverlay extends AbstractCachesOverlay {
 
-    private final Disposable timer;
+    /**
+     * time the map has to stand still before the caches for a new viewport are loaded
+     */
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    /**
+     * caches loaded for earlier viewports are kept up to this size relative to the viewport, so that panning back
+     * does not load them again
+     */
+    static final double RETAINED_AREA_FACTOR = 2.0;
+
+    private final LoadedArea<Geocache> loadedArea = new LoadedArea<>(Geocache::getGeocode);
+    private int previousZoom = -100;
+    private Viewport previousViewport;
 
     public StoredCachesOverlay(final NewMap map, final int overlayId, final Set<GeoEntry> geoEntries, final CachesBundle bundle, final Layer anchorLayer, final MapHandlers mapHandlers) {
         super(map, overlayId, geoEntries, bundle, anchorLayer, mapHandlers);
-        this.timer = startTimer();
-    }
-
-    private Disposable startTimer() {
-        return Schedulers.newThread().schedulePeriodicallyDirect(new LoadTimerAction(this), 0, 250, TimeUnit.MILLISECONDS);
+        startRefresh(DEBOUNCE_MILLIS, this::needsLoad, this::load);
     }
 
-    private static final class LoadTimerAction implements Runnable {
-
-        @NonNull
-        private final WeakReference<StoredCachesOverlay> overlayRef;
-        private int previousZoom = -100;
-        private Viewport previousViewport;
-
-        LoadTimerAction(@NonNull final StoredCachesOverlay overlay) {
-            this.overlayRef = new WeakReference<>(overlay);
-        }
-
-        @Override
-        public void run() {
-            final StoredCachesOverlay overlay = overlayRef.get();
-            if (overlay == null) {
-                return;
-            }
-            try {
-                // get current viewport
-                final Viewport viewportNow = overlay.getViewport();
-                // Since zoomNow is used only for local comparison purposes,
-                // it is ok to use the Google Maps compatible zoom level of OSM Maps
-                final int zoomNow = overlay.getMapZoomLevel();
-
-                // check if map moved or zoomed
-                //TODO Portree Use Rectangle inside with bigger search window. That will stop reloading on every move
-                final boolean moved = overlay.isInvalidated() || previousViewport == null || zoomNow != previousZoom ||
-                        mapMoved(previousViewport, viewportNow);
+    private boolean needsLoad(final Viewport viewportNow) {
+        // Since zoomNow is used only for local comparison purposes,
+        // it is ok to use the Google Maps compatible zoom level of OSM Maps
+        final int zoomNow = getMapZoomLevel();
 
-                // save new values
-                if (moved) {
+        // check if map moved or zoomed
+        //TODO Portree Use Rectangle inside with bigger search window. That will stop reloading on every move
+        final boolean moved = isInvalidated() || previousViewport == null || zoomNow != previousZoom ||
+                mapMoved(previousViewport, viewportNow);
 
-                    previousZoom = zoomNow;
-                    previousViewport = viewportNow;
-                    overlay.load();
-                    overlay.refreshed();
-                } else if (!previousViewport.equals(viewportNow)) {
-                    overlay.updateTitle();
-                }
-            } catch (final Exception e) {
-                Log.w("StoredCachesOverlay.startLoadtimer.start", e);
+        // save new values
+        if (moved) {
+            if (isInvalidated()) {
+                loadedArea.reset();
             }
+            previousZoom = zoomNow;
+            previousViewport = viewportNow;
+            refreshed();
+        } else {
+            updateTitle();
         }
+        return moved;
     }
 
-    private void load() {
-        try {
-            showProgress();
-
-            final SearchResult searchResult = new SearchResult(DataStore.loadCachedInViewport(getViewport().resize(1.2), Settings.getCacheType()));
-
-            final Set<Geocache> cachesFromSearchResult = searchResult.getCachesFromSearchResult(LoadFlags.LOAD_WAYPOINTS);
-
-            MapUtils.filter(cachesFromSearchResult);
-
-            // render
-            update(cachesFromSearchResult);
-
-        } finally {
-            hideProgress();
-        }
+    private Set<Geocache> load(final Viewport viewport) {
+        final CacheType cacheType = Settings.getCacheType();
+        // the loaded caches are filtered by these settings as well, see MapUtils.filter
+        final String key = cacheType.id + Settings.isExcludeMyCaches() + Settings.isExcludeDisabledCaches() + Settings.isExcludeArchivedCaches();
+        return loadedArea.update(key, viewport.resize(1.2), viewport.resize(RETAINED_AREA_FACTOR), area -> load(area, cacheType));
     }
 
-    @Override
-    public void onDestroy() {
-        timer.dispose();
+    private static Set<Geocache> load(final Viewport area, final CacheType cacheType) {
+        final SearchResult searchResult = new SearchResult(DataStore.loadCachedInViewport(area, cacheType));
+
+        final Set<Geocache> cachesFromSearchResult = searchResult.getCachesFromSearchResult(LoadFlags.LOAD_WAYPOINTS);
 
-        super.onDestroy();
+        MapUtils.filter(cachesFromSearchResult);
+        return cachesFromSearchResult;
     }
 }
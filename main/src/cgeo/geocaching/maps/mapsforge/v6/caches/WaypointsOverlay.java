@@ -2,6 +2,7 @@ package cgeo.geocaching.maps.mapsforge.v6.caches;
 
 import cgeo.geocaching.enumerations.CacheType;
 import cgeo.geocaching.enumerations.LoadFlags;
+import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.maps.MapUtils;
 import cgeo.geocaching.maps.mapsforge.v6.MapHandlers;
 import cgeo.geocaching.maps.mapsforge.v6.NewMap;
@@ -12,18 +13,29 @@ import cgeo.geocaching.storage.DataStore;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.mapsforge.map.layer.Layer;
 
 public class WaypointsOverlay extends AbstractCachesOverlay {
+
+    /**
+     * filtered waypoints of the base caches by geocode, so that only the waypoints of new base caches get loaded
+     */
+    private final Map<String, Set<Waypoint>> baseWaypoints = new HashMap<>();
+    private boolean baseCheckOwnership;
+    private final LoadedArea<Waypoint> storedWaypoints = new LoadedArea<>(Waypoint::getGpxId);
+
     public WaypointsOverlay(final NewMap map, final int overlayId, final Set<GeoEntry> geoEntries, final CachesBundle bundle, final Layer anchorLayer, final MapHandlers mapHandlers) {
         super(map, overlayId, geoEntries, bundle, anchorLayer, mapHandlers);
     }
 
-    void hideWaypoints() {
+    synchronized void hideWaypoints() {
         final Collection<String> removeCodes = getGeocodes();
         final Collection<String> newCodes = new HashSet<>();
 
@@ -31,31 +43,60 @@ public class WaypointsOverlay extends AbstractCachesOverlay {
     }
 
     private Set<Waypoint> filterWaypoints(final Collection<String> baseGeoCodes, final boolean showStored, final boolean checkOwnership) {
+        if (isInvalidated() || checkOwnership != baseCheckOwnership) {
+            baseWaypoints.clear();
+            storedWaypoints.reset();
+            baseCheckOwnership = checkOwnership;
+            refreshed();
+        }
+
         final Set<Waypoint> waypoints = new HashSet<>();
 
-        final Set<Geocache> baseCaches = DataStore.loadCaches(baseGeoCodes, LoadFlags.LOAD_WAYPOINTS);
+        baseWaypoints.keySet().retainAll(baseGeoCodes);
+        final Set<String> newBaseGeoCodes = new HashSet<>(baseGeoCodes);
+        newBaseGeoCodes.removeAll(baseWaypoints.keySet());
+        if (!newBaseGeoCodes.isEmpty()) {
+            final Set<Geocache> baseCaches = DataStore.loadCaches(newBaseGeoCodes, LoadFlags.LOAD_WAYPOINTS);
 
-        for (final Geocache cache : baseCaches) {
-            final Set<Waypoint> filteredWaypoints = new HashSet<>(cache.getWaypoints());
-            MapUtils.filter(filteredWaypoints, checkOwnership);
-            waypoints.addAll(filteredWaypoints);
+            for (final Geocache cache : baseCaches) {
+                final Waypoint.ParentCacheState parentCacheState = new Waypoint.ParentCacheState(cache);
+                for (final Waypoint waypoint : cache.getWaypoints()) {
+                    waypoint.setParentCacheState(parentCacheState);
+                }
+                final Set<Waypoint> filteredWaypoints = new HashSet<>(cache.getWaypoints());
+                MapUtils.filter(filteredWaypoints, checkOwnership);
+                baseWaypoints.put(cache.getGeocode(), filteredWaypoints);
+            }
+            // don't try to load unknown caches again
+            for (final String geocode : newBaseGeoCodes) {
+                if (!baseWaypoints.containsKey(geocode)) {
+                    baseWaypoints.put(geocode, Collections.emptySet());
+                }
+            }
+        }
+        for (final Set<Waypoint> cacheWaypoints : baseWaypoints.values()) {
+            waypoints.addAll(cacheWaypoints);
         }
 
-        if (showStored) {
+        final Viewport viewport = getViewport();
+        if (showStored && viewport != null) {
             final boolean excludeMine = Settings.isExcludeMyCaches();
             final boolean excludeDisabled = Settings.isExcludeDisabledCaches();
             final boolean excludeArchived = Settings.isExcludeArchivedCaches();
             final CacheType type = Settings.getCacheType();
 
-            final Set<Waypoint> waypointsInViewport = DataStore.loadWaypoints(getViewport(), excludeMine, excludeDisabled, excludeArchived, type);
-            MapUtils.filter(waypointsInViewport, checkOwnership);
-            waypoints.addAll(waypointsInViewport);
+            final String key = type.id + excludeMine + excludeDisabled + excludeArchived;
+            waypoints.addAll(storedWaypoints.update(key, viewport.resize(1.2), viewport.resize(StoredCachesOverlay.RETAINED_AREA_FACTOR), area -> {
+                final Set<Waypoint> waypointsInArea = DataStore.loadWaypoints(area, excludeMine, excludeDisabled, excludeArchived, type);
+                MapUtils.filter(waypointsInArea, checkOwnership);
+                return waypointsInArea;
+            }));
         }
 
         return waypoints;
     }
 
-    protected void showWaypoints(final Collection<String> baseGeoCodes, final boolean showStored, final boolean checkOwnership, final boolean forceCompactIconMode) {
+    protected synchronized void showWaypoints(final Collection<String> baseGeoCodes, final boolean showStored, final boolean checkOwnership, final boolean forceCompactIconMode) {
         final Collection<String> removeCodes = getGeocodes();
         final Collection<String> newCodes = new HashSet<>();
         final Set<Waypoint> waypoints = filterWaypoints(baseGeoCodes, showStored, checkOwnership);
@@ -1,15 +1,15 @@
 package cgeo.geocaching.maps.mapsforge.v6.layers;
 
-import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Route;
+import cgeo.geocaching.models.RouteSegment;
+import cgeo.geocaching.models.TrackPoints;
+import cgeo.geocaching.utils.LeastRecentlyUsedMap;
 import cgeo.geocaching.utils.MapLineUtils;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 
 import org.mapsforge.core.graphics.Canvas;
 import org.mapsforge.core.graphics.Paint;
-import org.mapsforge.core.graphics.Path;
 import org.mapsforge.core.graphics.Style;
 import org.mapsforge.core.model.BoundingBox;
 import org.mapsforge.core.model.Point;
@@ -18,17 +18,22 @@ import org.mapsforge.map.android.graphics.AndroidGraphicFactory;
 import org.mapsforge.map.layer.Layer;
 
 abstract class AbstractRouteLayer extends Layer {
+
+    /**
+     * number of zoom levels to keep the projected route for, so that zooming back and forth does not project again
+     */
+    private static final int CACHED_ZOOM_LEVELS = 4;
+
     protected float width;
     private Paint paint = null;
     protected int lineColor = 0xD00000A0;
     protected boolean isHidden = false;
     private final Boolean pathLock = true;
 
-    // used for caching
-    private ArrayList<Geopoint> track = null;
-    private Path path = null;
-    private long mapSize = -1;
-    private Point topLeftPoint = null;
+    // coordinates of the route and their projections per map size
+    private double[] latitudes = null;
+    private double[] longitudes = null;
+    private final LeastRecentlyUsedMap<Long, ProjectedLine> projections = new LeastRecentlyUsedMap.LruCache<>(CACHED_ZOOM_LEVELS);
 
     protected AbstractRouteLayer() {
         width = MapLineUtils.getDefaultThinLineWidth();
@@ -37,10 +42,29 @@ abstract class AbstractRouteLayer extends Layer {
     public void updateRoute(final Route route) {
         resetColor();
         synchronized (pathLock) {
-            this.track = null;
-            this.path = null;
+            this.latitudes = null;
+            this.longitudes = null;
+            projections.clear();
             if (route != null) {
-                this.track = route.getAllPoints();
+                final RouteSegment[] segments = route.getSegments();
+                final ArrayList<TrackPoints> tracks = new ArrayList<>();
+                int count = 0;
+                if (segments != null) {
+                    for (RouteSegment segment : segments) {
+                        final TrackPoints track = segment.getPoints();
+                        tracks.add(track);
+                        count += track.size();
+                    }
+                }
+                latitudes = new double[count];
+                longitudes = new double[count];
+                int index = 0;
+                for (TrackPoints track : tracks) {
+                    for (int i = 0; i < track.size(); i++, index++) {
+                        latitudes[index] = track.getLatitude(i);
+                        longitudes[index] = track.getLongitude(i);
+                    }
+                }
             }
         }
     }
@@ -63,40 +87,23 @@ abstract class AbstractRouteLayer extends Layer {
             return;
         }
 
-        // no route or route too short?
-        if (this.track == null || this.track.size() < 2) {
-            return;
-        }
-
-        final long mapSize = MercatorProjection.getMapSize(zoomLevel, this.displayModel.getTileSize());
+        final ProjectedLine projection;
         synchronized (pathLock) {
-            if (null == this.path || this.mapSize != mapSize || this.topLeftPoint != topLeftPoint) {
-                translateRouteToPath(mapSize, topLeftPoint);
+            // no route or route too short?
+            if (this.latitudes == null || this.latitudes.length < 2) {
+                return;
             }
-        }
-        if (null != this.path) {
-            canvas.drawPath(path, paint);
-        }
-    }
-
-    private void translateRouteToPath(final long mapSize, final Point topLeftPoint) {
-        this.mapSize = mapSize;
-        this.topLeftPoint = topLeftPoint;
-        this.path = null;
 
-        final Iterator<Geopoint> iterator = track.iterator();
-        if (!iterator.hasNext()) {
-            return;
-        }
-
-        Geopoint point = iterator.next();
-        path = AndroidGraphicFactory.INSTANCE.createPath();
-        path.moveTo((float) (MercatorProjection.longitudeToPixelX(point.getLongitude(), mapSize) - topLeftPoint.x), (float) (MercatorProjection.latitudeToPixelY(point.getLatitude(), mapSize) - topLeftPoint.y));
-
-        while (iterator.hasNext()) {
-            point = iterator.next();
-            path.lineTo((float) (MercatorProjection.longitudeToPixelX(point.getLongitude(), mapSize) - topLeftPoint.x), (float) (MercatorProjection.latitudeToPixelY(point.getLatitude(), mapSize) - topLeftPoint.y));
+            // project once per zoom level, panning only translates the projected route
+            final long mapSize = MercatorProjection.getMapSize(zoomLevel, this.displayModel.getTileSize());
+            ProjectedLine cached = projections.get(mapSize);
+            if (cached == null) {
+                cached = new ProjectedLine(latitudes, longitudes, latitudes.length, null, mapSize);
+                projections.put(mapSize, cached);
+            }
+            projection = cached;
         }
+        projection.draw(canvas, paint, topLeftPoint);
     }
 
 }
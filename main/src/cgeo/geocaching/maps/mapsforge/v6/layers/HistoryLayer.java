@@ -30,6 +30,17 @@ public class HistoryLayer extends Layer {
     private Location coordinates;
     private Paint historyLine;
 
+    // copy of the trail and its projection, only updated if the trail or the zoom level changes
+    private int trailVersion;
+    private int trailSize;
+    private double[] trailLatitudes;
+    private double[] trailLongitudes;
+    private boolean[] trailGaps;
+    private ProjectedLine projectedTrail;
+
+    private final Path currentPath = AndroidGraphicFactory.INSTANCE.createPath();
+    private final float[] distance = new float[1];
+
     public HistoryLayer(final ArrayList<TrailHistoryElement> locationHistory) {
         super();
         if (locationHistory != null) {
@@ -58,39 +69,55 @@ public class HistoryLayer extends Layer {
         positionHistory.rememberTrailPosition(coordinates);
 
         if (Settings.isMapTrail()) {
-            final ArrayList<TrailHistoryElement> paintHistory = new ArrayList<>(getHistory());
-            // always add current position to drawn history to have a closed connection, even if it's not yet recorded
-            paintHistory.add(new TrailHistoryElement(coordinates));
-            final int size = paintHistory.size();
-            if (size < 2) {
+            final long mapSize = MercatorProjection.getMapSize(zoomLevel, this.displayModel.getTileSize());
+            updateProjectedTrail(mapSize);
+            if (trailSize == 0) {
                 return;
             }
+            projectedTrail.draw(canvas, historyLine, topLeftPoint);
+
+            // always connect the current position to the drawn history, even if it's not yet recorded
+            final double lastLatitude = trailLatitudes[trailSize - 1];
+            final double lastLongitude = trailLongitudes[trailSize - 1];
+            Location.distanceBetween(lastLatitude, lastLongitude, coordinates.getLatitude(), coordinates.getLongitude(), distance);
+            if (distance[0] < LINE_MAXIMUM_DISTANCE_METERS) {
+                currentPath.clear();
+                currentPath.moveTo((float) (MercatorProjection.longitudeToPixelX(lastLongitude, mapSize) - topLeftPoint.x), (float) (MercatorProjection.latitudeToPixelY(lastLatitude, mapSize) - topLeftPoint.y));
+                currentPath.lineTo((float) (MercatorProjection.longitudeToPixelX(coordinates.getLongitude(), mapSize) - topLeftPoint.x), (float) (MercatorProjection.latitudeToPixelY(coordinates.getLatitude(), mapSize) - topLeftPoint.y));
+                canvas.drawPath(currentPath, historyLine);
+            }
+        }
+    }
 
-            final long mapSize = MercatorProjection.getMapSize(zoomLevel, this.displayModel.getTileSize());
-
-            Location prev = paintHistory.get(0).getLocation();
-            final Path path = AndroidGraphicFactory.INSTANCE.createPath();
-            int current = 1;
-            while (current < size) {
-                path.moveTo((float) (MercatorProjection.longitudeToPixelX(prev.getLongitude(), mapSize) - topLeftPoint.x), (float) (MercatorProjection.latitudeToPixelY(prev.getLatitude(), mapSize) - topLeftPoint.y));
-
-                boolean paint = false;
-                while (!paint && current < size) {
-                    final Location now = paintHistory.get(current).getLocation();
-                    current++;
-                    if (now.distanceTo(prev) < LINE_MAXIMUM_DISTANCE_METERS) {
-                        path.lineTo((float) (MercatorProjection.longitudeToPixelX(now.getLongitude(), mapSize) - topLeftPoint.x), (float) (MercatorProjection.latitudeToPixelY(now.getLatitude(), mapSize) - topLeftPoint.y));
-                    } else {
-                        paint = true;
-                    }
-                    prev = now;
-                }
-                if (!path.isEmpty()) {
-                    canvas.drawPath(path, historyLine);
-                    path.clear();
+    /**
+     * Copy the trail if it has changed and project it again if it or the map size has changed. Other frames only
+     * draw the cached projection.
+     */
+    private void updateProjectedTrail(final long mapSize) {
+        synchronized (positionHistory) {
+            final int version = positionHistory.getVersion();
+            if (trailLatitudes == null || version != trailVersion) {
+                trailSize = positionHistory.size();
+                if (trailLatitudes == null || trailLatitudes.length < trailSize) {
+                    trailLatitudes = new double[trailSize];
+                    trailLongitudes = new double[trailSize];
                 }
+                positionHistory.getCoordinates(trailLatitudes, trailLongitudes);
+                trailVersion = version;
+                trailGaps = null;
+                projectedTrail = null;
             }
         }
+        if (trailGaps == null) {
+            trailGaps = new boolean[trailLatitudes.length];
+            for (int i = 1; i < trailSize; i++) {
+                Location.distanceBetween(trailLatitudes[i - 1], trailLongitudes[i - 1], trailLatitudes[i], trailLongitudes[i], distance);
+                trailGaps[i] = distance[0] >= LINE_MAXIMUM_DISTANCE_METERS;
+            }
+        }
+        if (projectedTrail == null || projectedTrail.getMapSize() != mapSize) {
+            projectedTrail = new ProjectedLine(trailLatitudes, trailLongitudes, trailSize, trailGaps, mapSize);
+        }
     }
 
     public ArrayList<TrailHistoryElement> getHistory() {
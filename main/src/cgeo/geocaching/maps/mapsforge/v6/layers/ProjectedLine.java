@@ -0,0 +1,119 @@
+package cgeo.geocaching.maps.mapsforge.v6.layers;
+
+import cgeo.geocaching.utils.LineSimplifier;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.mapsforge.core.graphics.Canvas;
+import org.mapsforge.core.graphics.Paint;
+import org.mapsforge.core.graphics.Path;
+import org.mapsforge.core.model.Point;
+import org.mapsforge.core.util.MercatorProjection;
+import org.mapsforge.map.android.graphics.AndroidGraphicFactory;
+
+/**
+ * A polyline projected to the pixel coordinates of one map size (zoom level) and simplified for it, so that drawing
+ * it on every frame only has to translate and cull the remaining points.
+ */
+final class ProjectedLine {
+
+    /**
+     * maximum deviation (in pixels) of the simplified line from the original one
+     */
+    private static final double SIMPLIFICATION_TOLERANCE_PIXELS = 1.0;
+
+    private final long mapSize;
+    private final double[] xs;
+    private final double[] ys;
+    /**
+     * whether a point starts a new part of the line, i.e. is not connected to its predecessor
+     */
+    private final boolean[] starts;
+    private final int count;
+
+    private final Path path = AndroidGraphicFactory.INSTANCE.createPath();
+
+    /**
+     * @param latitudes
+     *          latitudes of the points
+     * @param longitudes
+     *          longitudes of the points
+     * @param count
+     *          number of points to use from the arrays
+     * @param gaps
+     *          for every point whether it should not be connected to its predecessor, or null to connect all points
+     * @param mapSize
+     *          map size to project the points for
+     */
+    ProjectedLine(@NonNull final double[] latitudes, @NonNull final double[] longitudes, final int count, @Nullable final boolean[] gaps, final long mapSize) {
+        this.mapSize = mapSize;
+
+        final double[] allXs = new double[count];
+        final double[] allYs = new double[count];
+        for (int i = 0; i < count; i++) {
+            allXs[i] = MercatorProjection.longitudeToPixelX(longitudes[i], mapSize);
+            allYs[i] = MercatorProjection.latitudeToPixelY(latitudes[i], mapSize);
+        }
+
+        xs = new double[count];
+        ys = new double[count];
+        starts = new boolean[count];
+        int kept = 0;
+        int partStart = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || (gaps != null && gaps[i])) {
+                final boolean[] keep = LineSimplifier.simplify(allXs, allYs, partStart, i - 1, SIMPLIFICATION_TOLERANCE_PIXELS);
+                for (int k = 0; k < keep.length; k++) {
+                    if (keep[k]) {
+                        xs[kept] = allXs[partStart + k];
+                        ys[kept] = allYs[partStart + k];
+                        starts[kept] = k == 0;
+                        kept++;
+                    }
+                }
+                partStart = i;
+            }
+        }
+        this.count = kept;
+    }
+
+    long getMapSize() {
+        return mapSize;
+    }
+
+    /**
+     * Draw the parts of the line crossing the visible area of the canvas.
+     */
+    void draw(@NonNull final Canvas canvas, @NonNull final Paint paint, @NonNull final Point topLeftPoint) {
+        final double left = topLeftPoint.x;
+        final double top = topLeftPoint.y;
+        final double right = left + canvas.getWidth();
+        final double bottom = top + canvas.getHeight();
+
+        path.clear();
+        // index of the point the path currently ends at, -1 if the path has to be started again
+        int penAt = -1;
+        for (int i = 1; i < count; i++) {
+            if (starts[i] || !intersects(xs[i - 1], ys[i - 1], xs[i], ys[i], left, top, right, bottom)) {
+                penAt = -1;
+                continue;
+            }
+            if (penAt != i - 1) {
+                path.moveTo((float) (xs[i - 1] - left), (float) (ys[i - 1] - top));
+            }
+            path.lineTo((float) (xs[i] - left), (float) (ys[i] - top));
+            penAt = i;
+        }
+        if (!path.isEmpty()) {
+            canvas.drawPath(path, paint);
+        }
+    }
+
+    /**
+     * whether the bounding box of the segment intersects the given area
+     */
+    private static boolean intersects(final double x1, final double y1, final double x2, final double y2, final double left, final double top, final double right, final double bottom) {
+        return Math.max(x1, x2) >= left && Math.min(x1, x2) <= right && Math.max(y1, y2) >= top && Math.min(y1, y2) <= bottom;
+    }
+}
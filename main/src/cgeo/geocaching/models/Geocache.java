@@ -30,6 +30,7 @@ import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.log.LogCacheActivity;
 import cgeo.geocaching.log.LogEntry;
+import cgeo.geocaching.log.LogSummary;
 import cgeo.geocaching.log.LogTemplateProvider;
 import cgeo.geocaching.log.LogTemplateProvider.LogContext;
 import cgeo.geocaching.log.LogType;
@@ -179,6 +180,14 @@ public class Geocache implements IWaypoint {
 
     private Boolean hasLogOffline = null;
     private OfflineLogEntry offlineLog = null;
+    /**
+     * type of the offline log, if known without loading the complete offline log
+     */
+    private LogType offlineLogType = null;
+    /**
+     * summary of the stored logs, null if not yet loaded
+     */
+    private LogSummary logSummary = null;
     private Integer eventTimeMinutes = null;
 
     private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+");
@@ -259,6 +268,7 @@ public class Geocache implements IWaypoint {
         }
         if (hasLogOffline == null) {
             hasLogOffline = other.hasLogOffline;
+            offlineLogType = other.offlineLogType;
         }
         if (visitedDate == 0) {
             visitedDate = other.visitedDate;
@@ -473,17 +483,34 @@ public class Geocache implements IWaypoint {
             return false;
         }
 
-        boolean willAttend = false;
-        final List<LogEntry> logs = getLogs();
-        for (final LogEntry logEntry : logs) {
-            final LogType logType = logEntry.getType();
-            if (logType == LogType.ATTENDED) {
-                return false;
-            } else if (logType == LogType.WILL_ATTEND && logEntry.isOwn()) {
-                willAttend = true;
+        // "attended" is the only found log of events
+        final LogSummary logSummary = getLogSummary();
+        return logSummary.isWillAttend() && logSummary.getOwnFoundDate() == 0;
+    }
+
+    /**
+     * @return the summary of the stored logs, without loading the logs
+     */
+    @NonNull
+    public LogSummary getLogSummary() {
+        if (logSummary == null) {
+            if (!inDatabase()) {
+                return LogSummary.EMPTY;
             }
+            logSummary = DataStore.loadLogSummary(geocode);
         }
-        return willAttend;
+        return logSummary;
+    }
+
+    public void setLogSummary(@Nullable final LogSummary logSummary) {
+        this.logSummary = logSummary;
+    }
+
+    /**
+     * Forget all state derived from the stored logs, to be called after the logs of this cache have been changed.
+     */
+    public void resetLogsDerivedState() {
+        logSummary = null;
     }
 
     public void logVisit(final Activity fromActivity) {
@@ -500,11 +527,26 @@ public class Geocache implements IWaypoint {
     }
 
     public boolean hasLogOffline() {
-        return BooleanUtils.isTrue(hasLogOffline);
+        if (hasLogOffline == null) {
+            return DataStore.hasLogOffline(geocode);
+        }
+        return hasLogOffline;
     }
 
     public void setHasLogOffline(final boolean hasLogOffline) {
         this.hasLogOffline = hasLogOffline;
+        if (!hasLogOffline) {
+            offlineLog = null;
+            offlineLogType = null;
+        }
+    }
+
+    /**
+     * Set the offline log type as read together with the cache, so that it is known without loading the complete offline log.
+     */
+    public void setOfflineLogType(@Nullable final LogType offlineLogType) {
+        this.offlineLogType = offlineLogType;
+        this.hasLogOffline = offlineLogType != null;
     }
 
     public void logOffline(final Activity fromActivity, final LogType logType, final ReportProblemType reportProblem) {
@@ -539,6 +581,7 @@ public class Geocache implements IWaypoint {
             DataStore.saveVisitDate(geocode, logEntry.date);
             hasLogOffline = Boolean.TRUE;
             offlineLog = logEntry;
+            offlineLogType = logEntry.logType;
             notifyChange();
         } else {
             ActivityMixin.showToast(fromActivity, res.getString(R.string.err_log_post_failed));
@@ -553,7 +596,7 @@ public class Geocache implements IWaypoint {
      */
     @Nullable
     public OfflineLogEntry getOfflineLog() {
-        if (!BooleanUtils.isFalse(hasLogOffline) && offlineLog == null) {
+        if (offlineLog == null && hasLogOffline()) {
             offlineLog = DataStore.loadLogOffline(geocode);
             setHasLogOffline(offlineLog != null);
         }
@@ -568,11 +611,14 @@ public class Geocache implements IWaypoint {
      */
     @Nullable
     public LogType getOfflineLogType() {
-        final LogEntry offlineLog = getOfflineLog();
-        if (offlineLog == null) {
-            return null;
+        if (offlineLog != null) {
+            return offlineLog.logType;
+        }
+        if (offlineLogType != null) {
+            return offlineLogType;
         }
-        return offlineLog.logType;
+        // the types of all offline logs are kept in memory, so this doesn't load the offline log
+        return BooleanUtils.isFalse(hasLogOffline) ? null : DataStore.getOfflineLogType(geocode);
     }
 
     /**
@@ -1240,17 +1286,34 @@ public class Geocache implements IWaypoint {
     }
 
     /**
-     * @return only the logs of friends
+     * Like {@link #getLogs()}, but without the log texts. Use this to check the type, author or date of the logs.
+     *
+     * @return immutable list of logs without text
      */
     @NonNull
-    public List<LogEntry> getFriendsLogs() {
-        final List<LogEntry> friendLogs = new ArrayList<>();
-        for (final LogEntry log : getLogs()) {
-            if (log.friend) {
-                friendLogs.add(log);
+    public List<LogEntry> getLogHeaders() {
+        return inDatabase() ? DataStore.loadLogHeaders(geocode, false, false, 0, DataStore.MAX_LOADED_LOGS) : Collections.emptyList();
+    }
+
+    /**
+     * @return the images of the logs, without loading the log texts
+     */
+    @NonNull
+    public List<Image> getLogImages() {
+        final List<Image> images = new ArrayList<>();
+        if (inDatabase()) {
+            for (final LogEntry log : DataStore.loadLogHeaders(geocode, false, true, 0, DataStore.MAX_LOADED_LOGS)) {
+                images.addAll(log.getLogImages());
             }
         }
-        return Collections.unmodifiableList(friendLogs);
+        return images;
+    }
+
+    /**
+     * @return {@code true} if there are logs of friends
+     */
+    public boolean hasFriendsLogs() {
+        return getLogSummary().getFriendLogsCount() > 0;
     }
 
     public boolean isStatusChecked() {
@@ -1851,12 +1914,8 @@ public class Geocache implements IWaypoint {
 
             // store images from logs
             if (Settings.isStoreLogImages()) {
-                for (final LogEntry log : cache.getLogs()) {
-                    if (log.hasLogImages()) {
-                        for (final Image oneLogImg : log.getLogImages()) {
-                            imgGetter.getDrawable(oneLogImg.getUrl());
-                        }
-                    }
+                for (final Image oneLogImg : cache.getLogImages()) {
+                    imgGetter.getDrawable(oneLogImg.getUrl());
                 }
             }
 
@@ -1936,9 +1995,7 @@ public class Geocache implements IWaypoint {
     public Collection<Image> getImages() {
         final List<Image> result = new LinkedList<>(getSpoilers());
         addLocalSpoilersTo(result);
-        for (final LogEntry log : getLogs()) {
-            result.addAll(log.getLogImages());
-        }
+        result.addAll(getLogImages());
         ImageUtils.addImagesFromHtml(result, geocode, getShortDescription(), getDescription());
         return result;
     }
@@ -1992,18 +2049,6 @@ public class Geocache implements IWaypoint {
         setDetailed(true);
     }
 
-    /**
-     * Gets whether the user has logged the specific log type for this cache. Only checks the currently stored logs of
-     * the cache, so the result might be wrong.
-     */
-    public boolean hasOwnLog(final LogType logType) {
-        for (final LogEntry logEntry : getLogs()) {
-            if (logEntry.getType() == logType && logEntry.isOwn()) {
-                return true;
-            }
-        }
-        return false;
-    }
 
     public int getMapMarkerId() {
         return getConnector().getCacheMapMarkerId(isDisabled() || isArchived());
@@ -2064,8 +2109,12 @@ public class Geocache implements IWaypoint {
             final Date eventDate = getHiddenDate();
             final boolean expired = CalendarUtils.isPastEvent(this);
 
-            if (hasOwnLog(LogType.WILL_ATTEND) || expired || (eventDate != null && CalendarUtils.daysSince(eventDate.getTime()) == 0)) {
-                return hasOwnLog(LogType.ATTENDED) ? LogType.NOTE : LogType.ATTENDED;
+            // only checks the currently stored logs of the cache, so the result might be wrong
+            final LogSummary logSummary = getLogSummary();
+            // "attended" is the only found log of events
+            final boolean attended = logSummary.getOwnFoundDate() > 0;
+            if (logSummary.isWillAttend() || attended || expired || (eventDate != null && CalendarUtils.daysSince(eventDate.getTime()) == 0)) {
+                return attended ? LogType.NOTE : LogType.ATTENDED;
             }
             return LogType.WILL_ATTEND;
         }
@@ -38,6 +38,7 @@ public class Route implements Parcelable {
             segments = new ArrayList<>();
         }
         segments.add(segment);
+        distance += segment.getDistance();
     }
 
     public int getNumSegments() {
@@ -54,22 +55,13 @@ public class Route implements Parcelable {
         return numPoints;
     }
 
-    public ArrayList<Geopoint> getAllPoints() {
-        final ArrayList<Geopoint> points = new ArrayList<>();
-        if (null != segments) {
-            for (RouteSegment segment : segments) {
-                points.addAll(segment.getPoints());
-            }
-        }
-        return points;
-    }
-
     public ArrayList<LatLng> getAllPointsLatLng() {
         final ArrayList<LatLng> points = new ArrayList<>();
         if (null != segments) {
             for (RouteSegment segment : segments) {
-                for (Geopoint point : segment.getPoints()) {
-                    points.add(new LatLng(point.getLatitude(), point.getLongitude()));
+                final TrackPoints segmentPoints = segment.getPoints();
+                for (int i = 0; i < segmentPoints.size(); i++) {
+                    points.add(new LatLng(segmentPoints.getLatitude(i), segmentPoints.getLongitude(i)));
                 }
             }
         }
@@ -90,27 +82,26 @@ public class Route implements Parcelable {
 
     public void setCenter(final CenterOnPosition centerOnPosition) {
         if (null != segments && segments.size() > 0) {
-            final ArrayList<Geopoint> points0 = segments.get(0).getPoints();
+            final TrackPoints points0 = segments.get(0).getPoints();
             if (points0.size() > 0) {
-                final Geopoint first = points0.get(0);
-                double minLat = first.getLatitude();
-                double maxLat = first.getLatitude();
-                double minLon = first.getLongitude();
-                double maxLon = first.getLongitude();
+                double minLat = points0.getLatitude(0);
+                double maxLat = minLat;
+                double minLon = points0.getLongitude(0);
+                double maxLon = minLon;
 
                 double latitude = 0.0d;
                 double longitude = 0.0d;
                 int numPoints = 0;
                 for (RouteSegment segment : segments) {
-                    final ArrayList<Geopoint> points = segment.getPoints();
+                    final TrackPoints points = segment.getPoints();
                     if (points.size() > 0) {
                         numPoints += points.size();
-                        for (Geopoint point : points) {
-                            final double lat = point.getLatitude();
-                            final double lon = point.getLongitude();
+                        for (int i = 0; i < points.size(); i++) {
+                            final double lat = points.getLatitude(i);
+                            final double lon = points.getLongitude(i);
 
-                            latitude += point.getLatitude();
-                            longitude += point.getLongitude();
+                            latitude += lat;
+                            longitude += lon;
 
                             minLat = Math.min(minLat, lat);
                             maxLat = Math.max(maxLat, lat);
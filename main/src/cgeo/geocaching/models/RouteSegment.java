@@ -5,29 +5,23 @@ import cgeo.geocaching.location.Geopoint;
 import android.os.Parcel;
 import android.os.Parcelable;
 
-import java.util.ArrayList;
-
 public class RouteSegment implements Parcelable {
     private final RouteItem item;
-    private float distance;
-    private ArrayList<Geopoint> points;
+    private TrackPoints points;
 
-    public RouteSegment(final RouteItem item, final ArrayList<Geopoint> points) {
+    public RouteSegment(final RouteItem item, final TrackPoints points) {
         this.item = item;
-        distance = 0.0f;
         this.points = points;
+        if (null != points) {
+            points.trimToSize();
+        }
     }
 
+    /**
+     * @return the length of the segment in kilometers, which is summed up while adding the points
+     */
     public float calculateDistance() {
-        distance = 0.0f;
-        if (points.size() > 0) {
-            Geopoint last = points.get(0);
-            for (Geopoint point : points) {
-                distance += last.distanceTo(point);
-                last = point;
-            }
-        }
-        return distance;
+        return getDistance();
     }
 
     public RouteItem getItem() {
@@ -35,12 +29,12 @@ public class RouteSegment implements Parcelable {
     }
 
     public float getDistance() {
-        return distance;
+        return null == points ? 0.0f : points.getDistance();
     }
 
-    public ArrayList<Geopoint> getPoints() {
-        if (null == points || points.size() == 0) {
-            this.points = new ArrayList<>();
+    public TrackPoints getPoints() {
+        if (null == points || points.isEmpty()) {
+            this.points = new TrackPoints();
             final Geopoint point = item.getPoint();
             if (null != point) {
                 this.points.add(point);
@@ -50,7 +44,7 @@ public class RouteSegment implements Parcelable {
     }
 
     public int getSize() {
-        return points.size();
+        return null == points ? 0 : points.size();
     }
 
     public Geopoint getPoint() {
@@ -62,12 +56,14 @@ public class RouteSegment implements Parcelable {
     }
 
     public void addPoint(final Geopoint geopoint) {
+        if (null == points) {
+            points = new TrackPoints();
+        }
         points.add(geopoint);
     }
 
     public void resetPoints() {
-        points = new ArrayList<>();
-        distance = 0.0f;
+        points = new TrackPoints();
     }
 
     // Parcelable methods
@@ -88,8 +84,7 @@ public class RouteSegment implements Parcelable {
 
     private RouteSegment(final Parcel parcel) {
         item = parcel.readParcelable(RouteItem.class.getClassLoader());
-        distance = parcel.readFloat();
-        points = parcel.readArrayList(Geopoint.class.getClassLoader());
+        points = parcel.readParcelable(TrackPoints.class.getClassLoader());
     }
 
     @Override
@@ -100,8 +95,7 @@ public class RouteSegment implements Parcelable {
     @Override
     public void writeToParcel(final Parcel dest, final int flags) {
         dest.writeParcelable(item, flags);
-        dest.writeFloat(distance);
-        dest.writeList(points);
+        dest.writeParcelable(points, flags);
     }
 
 }
@@ -0,0 +1,143 @@
+package cgeo.geocaching.models;
+
+import cgeo.geocaching.location.Geopoint;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+import net.sf.geographiclib.Geodesic;
+import net.sf.geographiclib.GeodesicMask;
+
+/**
+ * Points of a track or route, stored as microdegrees in primitive arrays instead of one {@link Geopoint} object per
+ * point. The length of the track is summed up while adding the points.
+ */
+public class TrackPoints implements Parcelable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] latitudesE6;
+    private int[] longitudesE6;
+    private int size = 0;
+    /**
+     * length of the track in kilometers
+     */
+    private float distance = 0.0f;
+
+    public TrackPoints() {
+        latitudesE6 = new int[INITIAL_CAPACITY];
+        longitudesE6 = new int[INITIAL_CAPACITY];
+    }
+
+    public void add(@NonNull final Geopoint point) {
+        add(point.getLatitude(), point.getLongitude());
+    }
+
+    public void add(final double latitude, final double longitude) {
+        if (size == latitudesE6.length) {
+            final int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            latitudesE6 = Arrays.copyOf(latitudesE6, capacity);
+            longitudesE6 = Arrays.copyOf(longitudesE6, capacity);
+        }
+        latitudesE6[size] = (int) Math.round(latitude * 1e6);
+        longitudesE6[size] = (int) Math.round(longitude * 1e6);
+        if (size > 0) {
+            distance += (float) Geodesic.WGS84.Inverse(getLatitude(size - 1), getLongitude(size - 1), getLatitude(size), getLongitude(size), GeodesicMask.DISTANCE).s12 / 1000;
+        }
+        size++;
+    }
+
+    /**
+     * Add all points of another track, connecting them to the points of this track.
+     */
+    public void addAll(@NonNull final TrackPoints other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.getLatitude(i), other.getLongitude(i));
+        }
+    }
+
+    /**
+     * Release the spare capacity once no more points will be added.
+     */
+    public void trimToSize() {
+        if (latitudesE6.length > size) {
+            latitudesE6 = Arrays.copyOf(latitudesE6, size);
+            longitudesE6 = Arrays.copyOf(longitudesE6, size);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double getLatitude(final int index) {
+        return latitudesE6[index] / 1e6;
+    }
+
+    public double getLongitude(final int index) {
+        return longitudesE6[index] / 1e6;
+    }
+
+    @NonNull
+    public Geopoint get(final int index) {
+        return new Geopoint(getLatitude(index), getLongitude(index));
+    }
+
+    @Nullable
+    public Geopoint getLast() {
+        return size == 0 ? null : get(size - 1);
+    }
+
+    /**
+     * @return the length of the track in kilometers
+     */
+    public float getDistance() {
+        return distance;
+    }
+
+    // Parcelable methods
+
+    public static final Parcelable.Creator<TrackPoints> CREATOR = new Parcelable.Creator<TrackPoints>() {
+
+        @Override
+        public TrackPoints createFromParcel(final Parcel source) {
+            return new TrackPoints(source);
+        }
+
+        @Override
+        public TrackPoints[] newArray(final int size) {
+            return new TrackPoints[size];
+        }
+
+    };
+
+    private TrackPoints(final Parcel parcel) {
+        size = parcel.readInt();
+        distance = parcel.readFloat();
+        latitudesE6 = parcel.createIntArray();
+        longitudesE6 = parcel.createIntArray();
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        dest.writeInt(size);
+        dest.writeFloat(distance);
+        dest.writeIntArray(Arrays.copyOf(latitudesE6, size));
+        dest.writeIntArray(Arrays.copyOf(longitudesE6, size));
+    }
+
+}
@@ -73,6 +73,36 @@ public class Waypoint implements IWaypoint {
 
     private String calcStateJson = null;
 
+    /**
+     * state of the parent cache, only known if it has been loaded together with the waypoint
+     */
+    @Nullable
+    private ParentCacheState parentCacheState = null;
+
+    /**
+     * Flags and lists of the parent cache of a waypoint, so that the waypoint can be filtered and its marker can be
+     * created without loading its cache.
+     */
+    public static final class ParentCacheState {
+        public final boolean owner;
+        public final boolean found;
+        public final boolean disabled;
+        public final boolean archived;
+        @NonNull public final Set<Integer> lists;
+
+        public ParentCacheState(final boolean owner, final boolean found, final boolean disabled, final boolean archived, @NonNull final Set<Integer> lists) {
+            this.owner = owner;
+            this.found = found;
+            this.disabled = disabled;
+            this.archived = archived;
+            this.lists = lists;
+        }
+
+        public ParentCacheState(@NonNull final Geocache cache) {
+            this(cache.isOwner(), cache.isFound(), cache.isDisabled(), cache.isArchived(), new HashSet<>(cache.getLists()));
+        }
+    }
+
     /**
      * Sort waypoints by their probable order (e.g. parking first, final last).
      * use Geocache::getWaypointComparator() to retrieve the adequate comparator for your cache
@@ -297,6 +327,15 @@ public class Waypoint implements IWaypoint {
         return visited;
     }
 
+    @Nullable
+    public ParentCacheState getParentCacheState() {
+        return parentCacheState;
+    }
+
+    public void setParentCacheState(@Nullable final ParentCacheState parentCacheState) {
+        this.parentCacheState = parentCacheState;
+    }
+
     public int getStaticMapsHashcode() {
         long hash = 0;
         if (coords != null) {
@@ -1,9 +1,12 @@
 package cgeo.geocaching.sorting;
 
 import cgeo.geocaching.connector.gc.GCConstants;
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.utils.Log;
 
+import androidx.annotation.Nullable;
+
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -68,4 +71,13 @@ abstract class AbstractCacheComparator implements CacheComparator {
         return false;
     }
 
+    /**
+     * The default implementation returns {@code null}, sorting is done in memory only.
+     */
+    @Override
+    @Nullable
+    public String getSqlOrderExpression(@Nullable final Geopoint coords) {
+        return null;
+    }
+
 }
@@ -1,8 +1,10 @@
 package cgeo.geocaching.sorting;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.Comparator;
 
@@ -16,4 +18,16 @@ public interface CacheComparator extends Comparator<Geocache> {
 
     String getSortableSection(@NonNull Geocache cache);
 
+    /**
+     * returns an SQL expression on the columns of the caches table, which sorts stored caches (ascending) in the order
+     * of this comparator, or {@code null} if the caches can only be sorted in memory. Caches which this comparator
+     * places last must not have a {@code NULL} value. The order may differ from the comparator in details, lists loaded
+     * page by page keep the order of the database.
+     *
+     * @param coords
+     *            the position to sort by distance from, may be {@code null}
+     */
+    @Nullable
+    String getSqlOrderExpression(@Nullable Geopoint coords);
+
 }
@@ -1,10 +1,12 @@
 package cgeo.geocaching.sorting;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.sensors.Sensors;
 import cgeo.geocaching.utils.CalendarUtils;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -46,4 +48,10 @@ class DateComparator extends AbstractCacheComparator {
     public String getSortableSection(@NonNull final Geocache cache) {
         return CalendarUtils.yearMonth(cache.getHiddenDate());
     }
+
+    @Override
+    @Nullable
+    public String getSqlOrderExpression(@Nullable final Geopoint coords) {
+        return "CASE WHEN hidden <> 0 THEN hidden ELSE " + Long.MAX_VALUE + " END";
+    }
 }
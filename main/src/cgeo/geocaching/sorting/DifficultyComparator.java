@@ -1,8 +1,10 @@
 package cgeo.geocaching.sorting;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.Locale;
 
@@ -26,4 +28,10 @@ class DifficultyComparator extends AbstractCacheComparator {
     public String getSortableSection(@NonNull final Geocache cache) {
         return String.format(Locale.getDefault(), "%.1f", cache.getDifficulty());
     }
+
+    @Override
+    @Nullable
+    public String getSqlOrderExpression(@Nullable final Geopoint coords) {
+        return "CASE WHEN difficulty <> 0 THEN difficulty ELSE 1000 END";
+    }
 }
@@ -5,9 +5,11 @@ import cgeo.geocaching.location.Units;
 import cgeo.geocaching.models.Geocache;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * sorts caches by distance to given position
@@ -65,4 +67,19 @@ public class DistanceComparator extends AbstractCacheComparator {
     public String getSortableSection(@NonNull final Geocache cache) {
         return Units.getDistanceFromKilometers(cache.getDistance());
     }
+
+    /**
+     * Sorts by the squared distance in an equirectangular projection around the given position, which keeps the order
+     * of the real distances close to that position. Caches without coordinates are sorted last.
+     */
+    @Override
+    @Nullable
+    public String getSqlOrderExpression(@Nullable final Geopoint coords) {
+        if (coords == null) {
+            return null;
+        }
+        final double scale = Math.cos(Math.toRadians(coords.getLatitude()));
+        return String.format((Locale) null, "COALESCE((latitude - %1$.6f) * (latitude - %1$.6f) + (longitude - %2$.6f) * (longitude - %2$.6f) * %3$.6f, 1000000)",
+                coords.getLatitude(), coords.getLongitude(), scale * scale);
+    }
 }
@@ -1,8 +1,10 @@
 package cgeo.geocaching.sorting;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 /**
  * comparator which inverses the sort order of the given other comparator
@@ -30,4 +32,13 @@ public class InverseComparator implements CacheComparator {
     public String getSortableSection(@NonNull final Geocache cache) {
         return originalComparator.getSortableSection(cache);
     }
+
+    /**
+     * The database sorts descending by the expression of the original comparator instead.
+     */
+    @Override
+    @Nullable
+    public String getSqlOrderExpression(@Nullable final Geopoint coords) {
+        return null;
+    }
 }
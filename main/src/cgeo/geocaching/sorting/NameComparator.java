@@ -1,9 +1,11 @@
 package cgeo.geocaching.sorting;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.utils.TextUtils;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -27,4 +29,13 @@ public class NameComparator extends AbstractCacheComparator {
     public String getSortableSection(@NonNull final Geocache cache) {
         return StringUtils.upperCase(StringUtils.substring(cache.getNameForSorting(), 0, 2));
     }
+
+    /**
+     * The database compares the names case insensitive only, without the number padding of the sort names.
+     */
+    @Override
+    @Nullable
+    public String getSqlOrderExpression(@Nullable final Geopoint coords) {
+        return "CASE WHEN TRIM(name) <> '' THEN '0' || LOWER(name) ELSE '1' END";
+    }
 }
@@ -1,9 +1,11 @@
 package cgeo.geocaching.sorting;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.utils.CalendarUtils;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 class StorageTimeComparator extends AbstractCacheComparator {
 
@@ -16,4 +18,10 @@ class StorageTimeComparator extends AbstractCacheComparator {
     public String getSortableSection(@NonNull final Geocache cache) {
         return CalendarUtils.yearMonth(cache.getUpdated());
     }
+
+    @Override
+    @Nullable
+    public String getSqlOrderExpression(@Nullable final Geopoint coords) {
+        return "COALESCE(updated, 0)";
+    }
 }
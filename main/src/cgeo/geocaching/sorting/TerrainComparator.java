@@ -1,8 +1,10 @@
 package cgeo.geocaching.sorting;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.Locale;
 
@@ -26,4 +28,10 @@ class TerrainComparator extends AbstractCacheComparator {
     public String getSortableSection(@NonNull final Geocache cache) {
         return String.format(Locale.getDefault(), "%.1f", cache.getTerrain());
     }
+
+    @Override
+    @Nullable
+    public String getSqlOrderExpression(@Nullable final Geopoint coords) {
+        return "CASE WHEN terrain <> 0 THEN terrain ELSE 1000 END";
+    }
 }
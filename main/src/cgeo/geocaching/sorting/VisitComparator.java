@@ -1,9 +1,11 @@
 package cgeo.geocaching.sorting;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.utils.CalendarUtils;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 /**
  * sorts caches by last visited date
@@ -29,4 +31,10 @@ public class VisitComparator extends AbstractCacheComparator {
     public String getSortableSection(@NonNull final Geocache cache) {
         return CalendarUtils.yearMonth(cache.getVisitedDate());
     }
+
+    @Override
+    @Nullable
+    public String getSqlOrderExpression(@Nullable final Geopoint coords) {
+        return "-COALESCE(visiteddate, 0)";
+    }
 }
@@ -7,7 +7,6 @@ import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.storage.DataStore.StorageLocation;
 import cgeo.geocaching.utils.LeastRecentlyUsedMap;
 import cgeo.geocaching.utils.LeastRecentlyUsedMap.RemoveHandler;
-import cgeo.geocaching.utils.Log;
 
 import androidx.annotation.NonNull;
 
@@ -24,6 +23,7 @@ public class CacheCache {
 
     private static final int MAX_CACHED_CACHES = 1000;
     private final LeastRecentlyUsedMap<String, Geocache> cachesCache;
+    private final GeocacheGrid grid = new GeocacheGrid();
 
     public CacheCache() {
         cachesCache = new LeastRecentlyUsedMap.LruCache<>(MAX_CACHED_CACHES);
@@ -32,6 +32,7 @@ public class CacheCache {
 
     public synchronized void removeAllFromCache() {
         cachesCache.clear();
+        grid.clear();
     }
 
     /**
@@ -64,6 +65,7 @@ public class CacheCache {
         synchronized (this) {
             cache.addStorageLocation(StorageLocation.CACHE);
             cachesCache.put(cache.getGeocode(), cache);
+            grid.put(cache);
         }
     }
 
@@ -83,17 +85,7 @@ public class CacheCache {
 
     public synchronized Set<String> getInViewport(final Viewport viewport, final CacheType cacheType) {
         final Set<String> geocodes = new HashSet<>();
-        for (final Geocache cache : cachesCache.values()) {
-            if (cache.getCoords() == null) {
-                // FIXME: this kludge must be removed, it is only present to help us debug the cases where
-                // caches contain null coordinates.
-                Log.w("CacheCache.getInViewport: got cache with null coordinates: " + cache.getGeocode());
-                continue;
-            }
-            if (cacheType.contains(cache) && viewport.contains(cache)) {
-                geocodes.add(cache.getGeocode());
-            }
-        }
+        grid.addInViewport(viewport, cacheType, geocodes);
         return geocodes;
     }
 
@@ -103,12 +95,13 @@ public class CacheCache {
         return StringUtils.join(cachesCache.keySet(), ' ');
     }
 
-    private static class CacheRemoveHandler implements RemoveHandler<Geocache> {
+    private class CacheRemoveHandler implements RemoveHandler<Geocache> {
 
         @Override
         public void onRemove(final Geocache removed) {
-            // FIXME: as above, we sometimes get caches with null coordinates, that may then provoke
-            // a NullPointerException down the invocation chain.
+            // called from within the synchronized methods modifying cachesCache
+            grid.remove(removed.getGeocode());
+            // tiles are found by the coordinates of the cache, which are sometimes missing
             if (removed.getCoords() != null) {
                 Tile.cache.removeFromTileCache(removed);
             }
@@ -21,6 +21,7 @@ import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.log.LogEntry;
+import cgeo.geocaching.log.LogSummary;
 import cgeo.geocaching.log.LogType;
 import cgeo.geocaching.log.LogTypeTrackable;
 import cgeo.geocaching.log.OfflineLogEntry;
@@ -59,11 +60,13 @@ import android.database.Cursor;
 import android.database.DatabaseUtils;
 import android.database.MatrixCursor;
 import android.database.SQLException;
+import android.database.sqlite.SQLiteCursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteDatabase.CursorFactory;
 import android.database.sqlite.SQLiteDoneException;
 import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteProgram;
 import android.database.sqlite.SQLiteStatement;
 import android.location.Location;
 
@@ -91,7 +94,9 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.Single;
@@ -102,6 +107,7 @@ import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 
 public class DataStore {
 
@@ -139,6 +145,31 @@ public class DataStore {
 
     private static final Func1<Cursor, Integer> GET_INTEGER_0 = cursor -> cursor.getInt(0);
 
+    /** number of caches written within one database transaction when saving several caches */
+    private static final int SAVE_BATCH_SIZE = 200;
+
+    /** maximum number of host parameters in a single statement (SQLITE_MAX_VARIABLE_NUMBER of older SQLite versions) */
+    private static final int MAX_SQL_PARAMETERS = 999;
+
+    /** maximum number of logs of a cache loaded at once */
+    public static final int MAX_LOADED_LOGS = 100;
+
+    /** columns of the summary of the logs in the cache table, see {@link LogSummary} */
+    private static final String LOG_SUMMARY_COLUMNS = "own_log_type, own_log_date, friend_logs, will_attend, last_log_date, own_found_date, last_found_date";
+
+    /**
+     * Update the log summary of all caches from their logs. The user name is bound to ?1, a condition may be appended.
+     */
+    private static final String UPDATE_LOG_SUMMARY = "UPDATE cg_caches SET"
+            + " own_log_type = COALESCE((SELECT type FROM cg_logs l WHERE l.geocode = cg_caches.geocode AND l.author = ?1 COLLATE NOCASE ORDER BY l.date DESC, l._id ASC LIMIT 1), 0),"
+            + " own_log_date = COALESCE((SELECT MAX(date) FROM cg_logs l WHERE l.geocode = cg_caches.geocode AND l.author = ?1 COLLATE NOCASE), 0),"
+            + " friend_logs = (SELECT COUNT(*) FROM cg_logs l WHERE l.geocode = cg_caches.geocode AND l.friend = 1),"
+            + " will_attend = EXISTS (SELECT 1 FROM cg_logs l WHERE l.geocode = cg_caches.geocode AND l.type = " + LogType.WILL_ATTEND.id + " AND l.author = ?1 COLLATE NOCASE),"
+            + " last_log_date = COALESCE((SELECT MAX(date) FROM cg_logs l WHERE l.geocode = cg_caches.geocode), 0),"
+            + " own_found_date = COALESCE((SELECT MAX(date) FROM cg_logs l WHERE l.geocode = cg_caches.geocode AND l.type IN (" + StringUtils.join(LogType.foundLogTypes(), ',') + ")"
+            + " AND l.author = ?1 COLLATE NOCASE), 0),"
+            + " last_found_date = COALESCE((SELECT MAX(date) FROM cg_logs l WHERE l.geocode = cg_caches.geocode AND l.type IN (" + StringUtils.join(LogType.foundLogTypes(), ',') + ")), 0)";
+
     // Columns and indices for the cache data
     private static final String QUERY_CACHE_DATA =
             "SELECT " +
@@ -187,7 +218,8 @@ public class DataStore {
                     "cg_caches.watchlistCount,"           +  // 42
                     "cg_caches.preventWaypointsFromNote," +  // 43
                     "cg_caches.owner_guid,"               +  // 44
-                    "cg_caches.emoji";                       // 45
+                    "cg_caches.emoji,"                    +  // 45
+                    LOG_SUMMARY_COLUMNS;                     // 46-52
 
     /** The list of fields needed for mapping. */
     private static final String[] WAYPOINT_COLUMNS = { "_id", "geocode", "updated", "type", "prefix", "lookup", "name", "latitude", "longitude", "note", "own", "visited", "user_note", "org_coords_empty", "calc_state" };
@@ -200,7 +232,7 @@ public class DataStore {
      */
     private static final CacheCache cacheCache = new CacheCache();
     private static volatile SQLiteDatabase database = null;
-    private static final int dbVersion = 93;
+    private static final int dbVersion = 96;
     public static final int customListIdOffset = 10;
 
     /**
@@ -229,7 +261,10 @@ public class DataStore {
             90, // add user guid to cg_caches and cg_logs
             91, // add fields to cg_extension
             92, // add emoji id to cg_caches
-            93  // add emoji id to cg_lists
+            93, // add emoji id to cg_lists
+            94, // add spatial index for caches and waypoints
+            95, // add full text index for caches
+            96  // add log summary to cg_caches
     }));
 
     @NonNull private static final String dbTableCaches = "cg_caches";
@@ -250,6 +285,9 @@ public class DataStore {
     @NonNull private static final String dbTableRoute = "cg_route";
     @NonNull private static final String dbTableExtension = "cg_extension";
     @NonNull private static final String dbTableSequences = "sqlite_sequence";
+    @NonNull private static final String dbTableCachesSpatialIndex = "cg_caches_rtree";
+    @NonNull private static final String dbTableWaypointsSpatialIndex = "cg_waypoints_rtree";
+    @NonNull private static final String dbTableCachesFullTextIndex = "cg_caches_fts";
     @NonNull private static final String dbCreateCaches = ""
             + "CREATE TABLE IF NOT EXISTS " + dbTableCaches + " ("
             + "_id INTEGER PRIMARY KEY AUTOINCREMENT, "
@@ -298,7 +336,14 @@ public class DataStore {
             + "watchlistCount INTEGER DEFAULT -1,"
             + "preventWaypointsFromNote INTEGER DEFAULT 0,"
             + "owner_guid TEXT NOT NULL DEFAULT '',"
-            + "emoji INTEGER DEFAULT 0"
+            + "emoji INTEGER DEFAULT 0,"
+            + "own_log_type INTEGER DEFAULT 0,"
+            + "own_log_date LONG DEFAULT 0,"
+            + "friend_logs INTEGER DEFAULT 0,"
+            + "will_attend INTEGER DEFAULT 0,"
+            + "last_log_date LONG DEFAULT 0,"
+            + "own_found_date LONG DEFAULT 0,"
+            + "last_found_date LONG DEFAULT 0"
             + "); ";
     private static final String dbCreateLists = ""
             + "CREATE TABLE IF NOT EXISTS " + dbTableLists + " ("
@@ -472,11 +517,82 @@ public class DataStore {
             + "string4 TEXT"
             + "); ";
 
+    // R*Tree virtual tables holding one (degenerated) bounding box per cache/waypoint, keyed by the _id of the base table.
+    // They are maintained by triggers, so every insert/update/delete on the base tables keeps them in sync.
+    private static final String dbCreateCachesSpatialIndex = createSpatialIndexStatement(dbTableCachesSpatialIndex);
+    private static final String dbCreateWaypointsSpatialIndex = createSpatialIndexStatement(dbTableWaypointsSpatialIndex);
+
     // reminder to myself: when adding a new CREATE TABLE statement:
     // make sure to add it to both onUpgrade() and onCreate()
 
     private static final String SEQUENCE_INTERNAL_CACHE = "seq_internal_cache";
 
+    /**
+     * whether the R*Tree spatial index could be created in the current database
+     * (the rtree module might be missing in the SQLite build of some devices)
+     */
+    private static volatile boolean spatialIndexAvailable = false;
+
+    /**
+     * delay after a bulk write before the write-ahead log is checkpointed into the database file
+     */
+    private static final long CHECKPOINT_DELAY_SECONDS = 30;
+    /**
+     * size of the write-ahead log in pages from which on SQLite checkpoints on commit again, as a fallback for a log
+     * growing by many small writes (e.g. trail points) without a scheduled checkpoint
+     */
+    private static final int WAL_AUTOCHECKPOINT_PAGES = 10000;
+    private static final AtomicBoolean checkpointScheduled = new AtomicBoolean(false);
+
+    // FTS4 index (external content, so the texts are not stored twice) over the columns of cg_caches searched
+    // by suggestions and offline keyword search. Kept in sync by triggers like the spatial indices.
+    private static final String[] FULL_TEXT_INDEX_COLUMNS = { "geocode", "name", "owner", "owner_real", "location", "personal_note" };
+
+    /**
+     * whether the full text index could be created in the current database, otherwise searches fall back to LIKE
+     */
+    private static volatile boolean fullTextIndexAvailable = false;
+
+    @NonNull
+    private static String createSpatialIndexStatement(@NonNull final String table) {
+        return "CREATE VIRTUAL TABLE IF NOT EXISTS " + table + " USING rtree(id, minLat, maxLat, minLon, maxLon)";
+    }
+
+    @NonNull
+    private static String[] createSpatialIndexTriggers(@NonNull final String baseTable, @NonNull final String indexTable) {
+        final String insertNew = "INSERT OR REPLACE INTO " + indexTable + " (id, minLat, maxLat, minLon, maxLon)"
+                + " SELECT new._id, new.latitude, new.latitude, new.longitude, new.longitude"
+                + " WHERE new.latitude IS NOT NULL AND new.longitude IS NOT NULL; ";
+        final String deleteOld = "DELETE FROM " + indexTable + " WHERE id = old._id; ";
+        return new String[] {
+                "CREATE TRIGGER IF NOT EXISTS tr_" + indexTable + "_insert AFTER INSERT ON " + baseTable + " BEGIN " + insertNew + "END",
+                "CREATE TRIGGER IF NOT EXISTS tr_" + indexTable + "_update AFTER UPDATE OF _id, latitude, longitude ON " + baseTable + " BEGIN " + deleteOld + insertNew + "END",
+                "CREATE TRIGGER IF NOT EXISTS tr_" + indexTable + "_delete AFTER DELETE ON " + baseTable + " BEGIN " + deleteOld + "END"
+        };
+    }
+
+    @NonNull
+    private static String createFullTextIndexStatement(@NonNull final String tokenizer) {
+        return "CREATE VIRTUAL TABLE IF NOT EXISTS " + dbTableCachesFullTextIndex + " USING fts4(content=\"" + dbTableCaches + "\", "
+                + StringUtils.join(FULL_TEXT_INDEX_COLUMNS, ", ") + ", tokenize=" + tokenizer + ")";
+    }
+
+    @NonNull
+    private static String[] createFullTextIndexTriggers() {
+        final String columns = StringUtils.join(FULL_TEXT_INDEX_COLUMNS, ", ");
+        final String insertNew = "INSERT INTO " + dbTableCachesFullTextIndex + " (docid, " + columns + ")"
+                + " VALUES (new._id, new." + StringUtils.join(FULL_TEXT_INDEX_COLUMNS, ", new.") + "); ";
+        // with external content the old texts are read from cg_caches on delete, so this must run BEFORE the change
+        final String deleteOld = "DELETE FROM " + dbTableCachesFullTextIndex + " WHERE docid = old._id; ";
+        final String prefix = "CREATE TRIGGER IF NOT EXISTS tr_" + dbTableCachesFullTextIndex;
+        return new String[] {
+                prefix + "_insert AFTER INSERT ON " + dbTableCaches + " BEGIN " + insertNew + "END",
+                prefix + "_before_update BEFORE UPDATE OF _id, " + columns + " ON " + dbTableCaches + " BEGIN " + deleteOld + "END",
+                prefix + "_after_update AFTER UPDATE OF _id, " + columns + " ON " + dbTableCaches + " BEGIN " + insertNew + "END",
+                prefix + "_delete BEFORE DELETE ON " + dbTableCaches + " BEGIN " + deleteOld + "END"
+        };
+    }
+
     public static int getExpectedDBVersion() {
         return dbVersion;
     }
@@ -776,11 +892,44 @@ public class DataStore {
         }
 
         cacheCache.removeAllFromCache();
+        DBLogOfflineUtils.forgetAllTypes();
         PreparedStatement.clearPreparedStatements();
+        // closing the last connection checkpoints the write-ahead log, so the database file can be copied afterwards
         database.close();
         database = null;
     }
 
+    /**
+     * Schedule a checkpoint of the write-ahead log into the database file. Called after bulk writes and when the
+     * interactive use ends (e.g. the map is paused or the app goes to the background), further calls are ignored
+     * until the scheduled checkpoint has run.
+     */
+    public static void scheduleCheckpoint() {
+        if (checkpointScheduled.compareAndSet(false, true)) {
+            Schedulers.io().scheduleDirect(() -> {
+                checkpointScheduled.set(false);
+                checkpoint();
+            }, CHECKPOINT_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Copy the write-ahead log into the database file as far as possible without waiting for readers or writers.
+     */
+    private static void checkpoint() {
+        final SQLiteDatabase db = database;
+        if (db == null || !db.isOpen() || !db.isWriteAheadLoggingEnabled()) {
+            return;
+        }
+        try (Cursor cursor = db.rawQuery("PRAGMA wal_checkpoint(PASSIVE)", null)) {
+            if (cursor.moveToFirst()) {
+                Log.d("[DB] WAL checkpoint: " + cursor.getInt(2) + " of " + cursor.getInt(1) + " pages");
+            }
+        } catch (final Exception e) {
+            Log.w("[DB] WAL checkpoint failed", e);
+        }
+    }
+
     @NonNull
     public static File getBackupFileInternal(final File backupDir, final boolean checkDeprecated) {
         final File currentBackupFile = new File(backupDir, DB_FILE_NAME_BACKUP);
@@ -930,6 +1079,74 @@ public class DataStore {
             db.execSQL(dbCreateExtension);
 
             createIndices(db, dbVersion);
+            createSpatialIndices(db);
+            createFullTextIndex(db);
+        }
+
+        /**
+         * (Re)creates the R*Tree spatial indices for caches and waypoints including the triggers keeping them
+         * in sync, and fills them from the base tables. Failure is not fatal: viewport queries then fall back
+         * to the plain latitude/longitude indices.
+         */
+        private static void createSpatialIndices(final SQLiteDatabase db) {
+            try {
+                createSpatialIndex(db, dbTableCaches, dbTableCachesSpatialIndex, dbCreateCachesSpatialIndex);
+                createSpatialIndex(db, dbTableWaypoints, dbTableWaypointsSpatialIndex, dbCreateWaypointsSpatialIndex);
+            } catch (final SQLException e) {
+                Log.w("[DB] Unable to create spatial index, using plain coordinate indices instead", e);
+            }
+        }
+
+        private static void createSpatialIndex(final SQLiteDatabase db, final String baseTable, final String indexTable, final String createStatement) {
+            db.execSQL(createStatement);
+            for (final String trigger : createSpatialIndexTriggers(baseTable, indexTable)) {
+                db.execSQL(trigger);
+            }
+            db.execSQL("DELETE FROM " + indexTable);
+            db.execSQL("INSERT INTO " + indexTable + " (id, minLat, maxLat, minLon, maxLon)"
+                    + " SELECT _id, latitude, latitude, longitude, longitude FROM " + baseTable
+                    + " WHERE latitude IS NOT NULL AND longitude IS NOT NULL");
+        }
+
+        /**
+         * (Re)creates the FTS4 index over the searchable cache columns including its triggers, and rebuilds
+         * it from cg_caches. Failure is not fatal: searches then fall back to LIKE queries.
+         */
+        private static void createFullTextIndex(final SQLiteDatabase db) {
+            try {
+                try {
+                    db.execSQL(createFullTextIndexStatement("unicode61"));
+                } catch (final SQLException e) {
+                    Log.w("[DB] unicode61 tokenizer not available, using simple tokenizer for full text index", e);
+                    db.execSQL(createFullTextIndexStatement("simple"));
+                }
+                for (final String trigger : createFullTextIndexTriggers()) {
+                    db.execSQL(trigger);
+                }
+                db.execSQL("INSERT INTO " + dbTableCachesFullTextIndex + " (" + dbTableCachesFullTextIndex + ") VALUES ('rebuild')");
+            } catch (final SQLException e) {
+                Log.w("[DB] Unable to create full text index, using LIKE queries instead", e);
+            }
+        }
+
+        private static boolean hasFullTextIndex(final SQLiteDatabase db) {
+            try (Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?",
+                    new String[] { dbTableCachesFullTextIndex })) {
+                return cursor.moveToFirst() && cursor.getInt(0) == 1;
+            } catch (final SQLException e) {
+                Log.w("[DB] Unable to check for full text index", e);
+                return false;
+            }
+        }
+
+        private static boolean hasSpatialIndices(final SQLiteDatabase db) {
+            try (Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name IN (?, ?)",
+                    new String[] { dbTableCachesSpatialIndex, dbTableWaypointsSpatialIndex })) {
+                return cursor.moveToFirst() && cursor.getInt(0) == 2;
+            } catch (final SQLException e) {
+                Log.w("[DB] Unable to check for spatial index", e);
+                return false;
+            }
         }
 
         private static void createIndices(final SQLiteDatabase db, final int currentVersion) {
@@ -1516,6 +1733,32 @@ public class DataStore {
                         }
                     }
 
+                    // add R*Tree spatial index for caches and waypoints
+                    if (oldVersion < 94) {
+                        createSpatialIndices(db);
+                    }
+
+                    // add full text index for caches
+                    if (oldVersion < 95) {
+                        createFullTextIndex(db);
+                    }
+
+                    // add log summary to cg_caches
+                    if (oldVersion < 96) {
+                        try {
+                            createColumnIfNotExists(db, dbTableCaches, "own_log_type INTEGER DEFAULT 0");
+                            createColumnIfNotExists(db, dbTableCaches, "own_log_date LONG DEFAULT 0");
+                            createColumnIfNotExists(db, dbTableCaches, "friend_logs INTEGER DEFAULT 0");
+                            createColumnIfNotExists(db, dbTableCaches, "will_attend INTEGER DEFAULT 0");
+                            createColumnIfNotExists(db, dbTableCaches, "last_log_date LONG DEFAULT 0");
+                            createColumnIfNotExists(db, dbTableCaches, "own_found_date LONG DEFAULT 0");
+                            createColumnIfNotExists(db, dbTableCaches, "last_found_date LONG DEFAULT 0");
+                            db.execSQL(UPDATE_LOG_SUMMARY, new String[] { Settings.getUserName() });
+                        } catch (final SQLException e) {
+                            onUpgradeError(e, 96);
+                        }
+                    }
+
                 }
 
                 //at the very end of onUpgrade: rewrite downgradeable versions in database
@@ -1538,12 +1781,31 @@ public class DataStore {
             throw e;
         }
 
+        @Override
+        public void onConfigure(final SQLiteDatabase db) {
+            // In WAL mode queries from other threads run on the read-only connections of the pool
+            // while a writer holds the primary connection, so long imports don't block the map or lists.
+            if (!db.isReadOnly() && db.enableWriteAheadLogging()) {
+                // checkpoints are triggered by scheduleCheckpoint() instead of on commit during interactive use,
+                // only a very large log is still checkpointed on commit
+                try (Cursor cursor = db.rawQuery("PRAGMA wal_autocheckpoint=" + WAL_AUTOCHECKPOINT_PAGES, null)) {
+                    cursor.moveToFirst();
+                }
+            }
+        }
+
         @Override
         public void onOpen(final SQLiteDatabase db) {
 
             //get user version
             Log.iForce("[DB] Current Database Version: " + db.getVersion());
 
+            spatialIndexAvailable = hasSpatialIndices(db);
+            Log.iForce("[DB] Spatial index available: " + spatialIndexAvailable);
+            fullTextIndexAvailable = hasFullTextIndex(db);
+            Log.iForce("[DB] Full text index available: " + fullTextIndexAvailable);
+            Log.iForce("[DB] Write-ahead logging enabled: " + db.isWriteAheadLoggingEnabled());
+
             if (firstRun) {
                 sanityChecks(db);
                 // limit number of records for trailHistory
@@ -1620,6 +1882,9 @@ public class DataStore {
             db.execSQL("DROP TABLE IF EXISTS " + dbTableTrailHistory);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableRoute);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableExtension);
+            db.execSQL("DROP TABLE IF EXISTS " + dbTableCachesSpatialIndex);
+            db.execSQL("DROP TABLE IF EXISTS " + dbTableWaypointsSpatialIndex);
+            db.execSQL("DROP TABLE IF EXISTS " + dbTableCachesFullTextIndex);
             // also delete tables which have old table names
             db.execSQL("DROP TABLE IF EXISTS cg_table_route");
             db.execSQL("DROP TABLE IF EXISTS cg_table_extension");
@@ -1893,6 +2158,19 @@ public class DataStore {
      * @param caches the caches to save in the CacheCache/DB
      */
     public static void saveCaches(final Collection<Geocache> caches, final Set<LoadFlags.SaveFlag> saveFlags) {
+        saveCaches(caches, null, false, saveFlags);
+    }
+
+    /**
+     * Save/store caches together with their logs. If saving to the database is requested, caches and logs are
+     * written in batches of {@link #SAVE_BATCH_SIZE} caches per transaction. Meant for mass operations like imports
+     * or list refreshes, where committing each cache on its own dominates the runtime.
+     *
+     * @param caches the caches to save in the CacheCache/DB
+     * @param logs logs to store per geocode (only stored if saving to the database is requested), may be null
+     * @param removeAllExistingLogs see {@link #saveLogs(String, Iterable, boolean)}
+     */
+    public static void saveCaches(final Collection<Geocache> caches, @Nullable final Map<String, ? extends Iterable<LogEntry>> logs, final boolean removeAllExistingLogs, final Set<LoadFlags.SaveFlag> saveFlags) {
         if (CollectionUtils.isEmpty(caches)) {
             return;
         }
@@ -1920,7 +2198,7 @@ public class DataStore {
                 existingCaches.put(cacheFromDatabase.getGeocode(), cacheFromDatabase);
             }
 
-            final List<Geocache> toBeStored = new ArrayList<>();
+            final Set<String> toBeStored = new HashSet<>();
             final List<Geocache> toBeUpdated = new ArrayList<>();
             // Merge with the data already stored in the CacheCache or in the database if
             // the cache had not been loaded before, and update the CacheCache.
@@ -1940,15 +2218,16 @@ public class DataStore {
                 // Only save the cache in the database if it is requested by the caller and
                 // the cache contains detailed information.
                 if (saveFlags.contains(SaveFlag.DB) && dbUpdateRequired) {
-                    toBeStored.add(cache);
+                    toBeStored.add(geocode);
                 } else if (existingCache != null && existingCache.isDisabled() != cache.isDisabled()) {
                     // Update the disabled status in the database if it changed
                     toBeUpdated.add(cache);
                 }
             }
 
-            for (final Geocache geocache : toBeStored) {
-                storeIntoDatabase(geocache);
+            if (!toBeStored.isEmpty() || (logs != null && saveFlags.contains(SaveFlag.DB))) {
+                storeIntoDatabase(new ArrayList<>(caches), toBeStored, saveFlags.contains(SaveFlag.DB) ? logs : null, removeAllExistingLogs);
+                cLog.add("stored:%d", toBeStored.size());
             }
 
             for (final Geocache geocache : toBeUpdated) {
@@ -1983,9 +2262,77 @@ public class DataStore {
         return false;
     }
 
-    private static boolean storeIntoDatabase(final Geocache cache) {
-        cache.addStorageLocation(StorageLocation.DATABASE);
-        cacheCache.putCacheInCache(cache);
+    /**
+     * Writes the given caches and logs in transactions of up to {@link #SAVE_BATCH_SIZE} caches each.
+     * If a batch fails, it is rolled back and retried cache by cache, so a single broken cache
+     * does not prevent the others from being stored.
+     *
+     * @param cachesToStore geocodes of those caches which need to be written (others only get their logs written)
+     */
+    private static void storeIntoDatabase(final List<Geocache> caches, final Set<String> cachesToStore, @Nullable final Map<String, ? extends Iterable<LogEntry>> logs, final boolean removeAllExistingLogs) {
+        init();
+        for (int start = 0; start < caches.size(); start += SAVE_BATCH_SIZE) {
+            final List<Geocache> batch = caches.subList(start, Math.min(start + SAVE_BATCH_SIZE, caches.size()));
+            if (!storeBatchIntoDatabase(batch, cachesToStore, logs, removeAllExistingLogs) && batch.size() > 1) {
+                for (final Geocache cache : batch) {
+                    storeBatchIntoDatabase(Collections.singletonList(cache), cachesToStore, logs, removeAllExistingLogs);
+                }
+            }
+        }
+        scheduleCheckpoint();
+    }
+
+    private static boolean storeBatchIntoDatabase(final List<Geocache> batch, final Set<String> cachesToStore, @Nullable final Map<String, ? extends Iterable<LogEntry>> logs, final boolean removeAllExistingLogs) {
+        // waypoints inserted by a rolled back transaction must be inserted again on retry
+        final List<Waypoint> newWaypoints = new ArrayList<>();
+        for (final Geocache cache : batch) {
+            if (cachesToStore.contains(cache.getGeocode())) {
+                for (final Waypoint waypoint : cache.getWaypoints()) {
+                    if (waypoint.getId() < 0) {
+                        newWaypoints.add(waypoint);
+                    }
+                }
+            }
+        }
+        boolean stored = false;
+        database.beginTransaction();
+        try {
+            for (final Geocache cache : batch) {
+                final String geocode = cache.getGeocode();
+                if (cachesToStore.contains(geocode)) {
+                    storeIntoDatabaseWithoutTransaction(cache);
+                }
+                final Iterable<LogEntry> cacheLogs = logs == null ? null : logs.get(geocode);
+                if (cacheLogs != null) {
+                    saveLogsWithoutTransaction(geocode, cacheLogs, removeAllExistingLogs);
+                }
+            }
+            database.setTransactionSuccessful();
+            stored = true;
+        } catch (final Exception e) {
+            Log.e("SaveCache: storing batch of " + batch.size() + " caches failed", e);
+        } finally {
+            database.endTransaction();
+            for (final Geocache cache : batch) {
+                resetLogsDerivedState(cache.getGeocode());
+            }
+        }
+        if (stored) {
+            for (final Geocache cache : batch) {
+                if (cachesToStore.contains(cache.getGeocode())) {
+                    cache.addStorageLocation(StorageLocation.DATABASE);
+                    cacheCache.putCacheInCache(cache);
+                }
+            }
+        } else {
+            for (final Waypoint waypoint : newWaypoints) {
+                waypoint.setId(-1);
+            }
+        }
+        return stored;
+    }
+
+    private static void storeIntoDatabaseWithoutTransaction(final Geocache cache) {
         Log.d("Saving " + cache.toString() + " (" + cache.getLists() + ") to DB");
 
         final ContentValues values = new ContentValues();
@@ -2043,34 +2390,22 @@ public class DataStore {
         values.put("owner_guid", cache.getOwnerGuid());
         values.put("emoji", cache.getAssignedEmoji());
 
-        init();
+        saveAttributesWithoutTransaction(cache);
+        saveWaypointsWithoutTransaction(cache);
+        saveSpoilersWithoutTransaction(cache);
+        saveLogCountsWithoutTransaction(cache);
+        saveInventoryWithoutTransaction(cache.getGeocode(), cache.getInventory());
+        saveListsWithoutTransaction(cache);
 
         // try to update record else insert fresh..
-        database.beginTransaction();
-
-        try {
-            saveAttributesWithoutTransaction(cache);
-            saveWaypointsWithoutTransaction(cache);
-            saveSpoilersWithoutTransaction(cache);
-            saveLogCountsWithoutTransaction(cache);
-            saveInventoryWithoutTransaction(cache.getGeocode(), cache.getInventory());
-            saveListsWithoutTransaction(cache);
-
-            final int rows = database.update(dbTableCaches, values, "geocode = ?", new String[] { cache.getGeocode() });
-            if (rows == 0) {
-                // cache is not in the DB, insert it
-                /* long id = */
-                database.insert(dbTableCaches, null, values);
-            }
-            database.setTransactionSuccessful();
-            return true;
-        } catch (final Exception e) {
-            Log.e("SaveCache", e);
-        } finally {
-            database.endTransaction();
+        final int rows = database.update(dbTableCaches, values, "geocode = ?", new String[] { cache.getGeocode() });
+        if (rows == 0) {
+            // cache is not in the DB, insert it
+            /* long id = */
+            database.insert(dbTableCaches, null, values);
+            // its logs may have been stored before
+            updateLogSummaryWithoutTransaction(cache.getGeocode());
         }
-
-        return false;
     }
 
     private static void saveAttributesWithoutTransaction(final Geocache cache) {
@@ -2079,7 +2414,9 @@ public class DataStore {
         // The attributes must be fetched first because lazy loading may load
         // a null set otherwise.
         final List<String> attributes = cache.getAttributes();
-        database.delete(dbTableAttributes, "geocode = ?", new String[]{geocode});
+        final SQLiteStatement remove = PreparedStatement.REMOVE_ATTRIBUTES.getStatement();
+        remove.bindString(1, geocode);
+        remove.executeUpdateDelete();
 
         if (attributes.isEmpty()) {
             return;
@@ -2302,6 +2639,18 @@ public class DataStore {
         } finally {
             database.endTransaction();
         }
+        resetLogsDerivedState(geocode);
+    }
+
+    /**
+     * Forget the state derived from the logs of the cache in the CacheCache. To be called after the transaction
+     * changing the logs has ended, so that the state is not reloaded from the old logs meanwhile.
+     */
+    private static void resetLogsDerivedState(final String geocode) {
+        final Geocache cachedCache = cacheCache.getCacheFromCache(geocode);
+        if (cachedCache != null) {
+            cachedCache.resetLogsDerivedState();
+        }
     }
 
     private static void saveLogsWithoutTransaction(final String geocode, final Iterable<LogEntry> logs, final boolean removeAllExistingLongs) {
@@ -2311,7 +2660,9 @@ public class DataStore {
             }
             // TODO delete logimages referring these logs
             if (removeAllExistingLongs) {
-                database.delete(dbTableLogs, "geocode = ?", new String[]{geocode});
+                final SQLiteStatement deleteLogs = PreparedStatement.REMOVE_LOGS.getStatement();
+                deleteLogs.bindString(1, geocode);
+                deleteLogs.executeUpdateDelete();
             } else {
                 // instead of deleting all existing logs for this cache, try to merge
                 // by deleting only those from same author, same date, same logtype
@@ -2359,12 +2710,50 @@ public class DataStore {
                 }
             }
             cLog.add("logs:%d, imgs:%d", logCnt, imgCnt);
+            updateLogSummaryWithoutTransaction(geocode);
         }
     }
 
+    /**
+     * Summarize the stored logs of a cache in the cache table, see {@link LogSummary}.
+     */
+    private static void updateLogSummaryWithoutTransaction(final String geocode) {
+        final SQLiteStatement update = PreparedStatement.UPDATE_LOG_SUMMARY.getStatement();
+        update.bindString(1, Settings.getUserName());
+        update.bindString(2, geocode);
+        update.executeUpdateDelete();
+    }
+
+    /**
+     * Load the summary of the stored logs of a cache.
+     */
+    @NonNull
+    public static LogSummary loadLogSummary(final String geocode) {
+        if (StringUtils.isBlank(geocode)) {
+            return LogSummary.EMPTY;
+        }
+        init();
+        try (Cursor cursor = database.rawQuery("SELECT " + LOG_SUMMARY_COLUMNS + " FROM " + dbTableCaches + " WHERE geocode = ?", new String[] { geocode })) {
+            if (cursor.moveToFirst()) {
+                return createLogSummary(cursor, 0);
+            }
+        } catch (final Exception e) {
+            Log.e("DataStore.loadLogSummary", e);
+        }
+        return LogSummary.EMPTY;
+    }
+
+    @NonNull
+    private static LogSummary createLogSummary(final Cursor cursor, final int firstColumn) {
+        return new LogSummary(LogType.getById(cursor.getInt(firstColumn)), cursor.getLong(firstColumn + 1), cursor.getInt(firstColumn + 2),
+                cursor.getInt(firstColumn + 3) == 1, cursor.getLong(firstColumn + 4), cursor.getLong(firstColumn + 5), cursor.getLong(firstColumn + 6));
+    }
+
     private static void saveLogCountsWithoutTransaction(final Geocache cache) {
         final String geocode = cache.getGeocode();
-        database.delete(dbTableLogCount, "geocode = ?", new String[]{geocode});
+        final SQLiteStatement remove = PreparedStatement.REMOVE_LOG_COUNTS.getStatement();
+        remove.bindString(1, geocode);
+        remove.executeUpdateDelete();
 
         final Map<LogType, Integer> logCounts = cache.getLogCounts();
         if (MapUtils.isNotEmpty(logCounts)) {
@@ -2572,66 +2961,29 @@ public class DataStore {
             init();
 
             final StringBuilder query = new StringBuilder(QUERY_CACHE_DATA);
-            if (loadFlags.contains(LoadFlag.OFFLINE_LOG)) {
-                query.append(',').append(dbTableLogsOffline).append(".log");
-            }
-
             query.append(" FROM ").append(dbTableCaches);
-            if (loadFlags.contains(LoadFlag.OFFLINE_LOG)) {
-                query.append(" LEFT OUTER JOIN ").append(dbTableLogsOffline).append(" ON ( ").append(dbTableCaches).append(".geocode == ").append(dbTableLogsOffline).append(".geocode) ");
-            }
 
             query.append(" WHERE ").append(dbTableCaches).append('.');
             query.append(whereGeocodeIn(geocodes));
 
             try (Cursor cursor = database.rawQuery(query.toString(), null)) {
                 final Set<Geocache> caches = new HashSet<>();
-                int logIndex = -1;
-
                 while (cursor.moveToNext()) {
                     final Geocache cache = createCacheFromDatabaseContent(cursor);
 
-                    if (loadFlags.contains(LoadFlag.ATTRIBUTES)) {
-                        cache.setAttributes(loadAttributes(cache.getGeocode()));
-                    }
-
-                    if (loadFlags.contains(LoadFlag.WAYPOINTS)) {
-                        final List<Waypoint> waypoints = loadWaypoints(cache.getGeocode());
-                        if (CollectionUtils.isNotEmpty(waypoints)) {
-                            cache.setWaypoints(waypoints, false);
-                        }
-                    }
-
-                    if (loadFlags.contains(LoadFlag.SPOILERS)) {
-                        final List<Image> spoilers = loadSpoilers(cache.getGeocode());
-                        cache.setSpoilers(spoilers);
-                    }
-
-                    if (loadFlags.contains(LoadFlag.LOGS)) {
-                        final Map<LogType, Integer> logCounts = loadLogCounts(cache.getGeocode());
-                        if (MapUtils.isNotEmpty(logCounts)) {
-                            cache.getLogCounts().clear();
-                            cache.getLogCounts().putAll(logCounts);
-                        }
+                    if (loadFlags.contains(LoadFlag.OFFLINE_LOG)) {
+                        // keep the log type, so that map markers do not need to load the complete offline log
+                        cache.setOfflineLogType(getOfflineLogType(cache.getGeocode()));
                     }
+                    caches.add(cache);
+                }
 
-                    if (loadFlags.contains(LoadFlag.INVENTORY)) {
-                        final List<Trackable> inventory = loadInventory(cache.getGeocode());
-                        if (CollectionUtils.isNotEmpty(inventory)) {
-                            cache.setInventory(inventory);
-                        }
-                    }
+                // load the dependent data with one query per table for the whole batch instead of one query per cache
+                loadCacheDetails(caches, loadFlags);
 
-                    if (loadFlags.contains(LoadFlag.OFFLINE_LOG)) {
-                        if (logIndex < 0) {
-                            logIndex = cursor.getColumnIndex("log");
-                        }
-                        cache.setHasLogOffline(!cursor.isNull(logIndex));
-                    }
+                for (final Geocache cache : caches) {
                     cache.addStorageLocation(StorageLocation.DATABASE);
                     cacheCache.putCacheInCache(cache);
-
-                    caches.add(cache);
                 }
 
                 final Map<String, Set<Integer>> cacheLists = loadLists(geocodes);
@@ -2648,13 +3000,122 @@ public class DataStore {
     }
 
 
+    /**
+     * Fills attributes, waypoints, spoilers, log counts and inventory (as requested by the load flags)
+     * into the given caches freshly loaded from the database.
+     */
+    private static void loadCacheDetails(final Collection<Geocache> caches, final EnumSet<LoadFlag> loadFlags) {
+        if (caches.isEmpty()) {
+            return;
+        }
+        final Set<String> geocodes = Geocache.getGeocodes(caches);
+
+        if (loadFlags.contains(LoadFlag.ATTRIBUTES)) {
+            final Map<String, List<String>> attributes = loadAttributes(geocodes);
+            for (final Geocache cache : caches) {
+                final List<String> cacheAttributes = attributes.get(cache.getGeocode());
+                cache.setAttributes(cacheAttributes != null ? cacheAttributes : new LinkedList<>());
+            }
+        }
+
+        if (loadFlags.contains(LoadFlag.WAYPOINTS)) {
+            final Map<String, List<Waypoint>> waypoints = loadWaypoints(geocodes);
+            for (final Geocache cache : caches) {
+                final List<Waypoint> cacheWaypoints = waypoints.get(cache.getGeocode());
+                if (CollectionUtils.isNotEmpty(cacheWaypoints)) {
+                    cache.setWaypoints(cacheWaypoints, false);
+                }
+            }
+        }
+
+        if (loadFlags.contains(LoadFlag.SPOILERS)) {
+            final Map<String, List<Image>> spoilers = loadSpoilers(geocodes);
+            for (final Geocache cache : caches) {
+                final List<Image> cacheSpoilers = spoilers.get(cache.getGeocode());
+                cache.setSpoilers(cacheSpoilers != null ? cacheSpoilers : new LinkedList<>());
+            }
+        }
+
+        if (loadFlags.contains(LoadFlag.LOGS)) {
+            final Map<String, Map<LogType, Integer>> logCounts = loadLogCounts(geocodes);
+            for (final Geocache cache : caches) {
+                final Map<LogType, Integer> cacheLogCounts = logCounts.get(cache.getGeocode());
+                if (MapUtils.isNotEmpty(cacheLogCounts)) {
+                    cache.getLogCounts().clear();
+                    cache.getLogCounts().putAll(cacheLogCounts);
+                }
+            }
+        }
+
+        if (loadFlags.contains(LoadFlag.INVENTORY)) {
+            final Map<String, List<Trackable>> inventory = loadInventory(geocodes);
+            for (final Geocache cache : caches) {
+                final List<Trackable> cacheInventory = inventory.get(cache.getGeocode());
+                if (CollectionUtils.isNotEmpty(cacheInventory)) {
+                    cache.setInventory(cacheInventory);
+                }
+            }
+        }
+    }
+
+    /**
+     * Queries a table holding rows for several geocodes with one statement per chunk of geocodes
+     * and groups the mapped rows by geocode. The table needs to contain a column named "geocode".
+     *
+     * @param maxRowsPerGeocode rows exceeding this limit are skipped for the corresponding geocode
+     * @return map of geocode to mapped rows (in query order), geocodes without rows are missing in the map
+     */
+    @NonNull
+    private static <T> Map<String, List<T>> queryByGeocodes(@NonNull final String table, final String[] columns, final Collection<String> geocodes,
+                                                            final String orderBy, final int maxRowsPerGeocode, final Func1<? super Cursor, ? extends T> func) {
+        final Map<String, List<T>> result = new HashMap<>();
+        if (CollectionUtils.isEmpty(geocodes)) {
+            return result;
+        }
+        init();
+
+        final String[] queryColumns = ArrayUtils.contains(columns, "geocode") ? columns : ArrayUtils.add(columns, "geocode");
+        final List<String> geocodeList = new ArrayList<>(geocodes);
+        for (int start = 0; start < geocodeList.size(); start += MAX_SQL_PARAMETERS) {
+            final List<String> chunk = geocodeList.subList(start, Math.min(start + MAX_SQL_PARAMETERS, geocodeList.size()));
+            final String selection = "geocode IN (" + StringUtils.repeat("?", ",", chunk.size()) + ")";
+            try (Cursor cursor = database.query(table, queryColumns, selection, chunk.toArray(new String[0]), null, null, orderBy)) {
+                final int geocodeIndex = cursor.getColumnIndexOrThrow("geocode");
+                while (cursor.moveToNext()) {
+                    final String geocode = cursor.getString(geocodeIndex);
+                    List<T> rows = result.get(geocode);
+                    if (rows == null) {
+                        rows = new LinkedList<>();
+                        result.put(geocode, rows);
+                    }
+                    if (rows.size() < maxRowsPerGeocode) {
+                        rows.add(func.call(cursor));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Builds a where for a viewport with the size enhanced by 50%.
+     *
+     * If the spatial index is available, the rows are selected through the R*Tree, so the query
+     * cost depends on the number of results instead of the number of stored rows.
      */
 
     @NonNull
-    private static StringBuilder buildCoordinateWhere(final String dbTable, final Viewport viewport) {
-        return viewport.resize(1.5).sqlWhere(dbTable);
+    private static StringBuilder buildCoordinateWhere(final String dbTable, final String dbSpatialIndex, final Viewport viewport) {
+        final Viewport resized = viewport.resize(1.5);
+        if (!spatialIndexAvailable) {
+            return resized.sqlWhere(dbTable);
+        }
+        return new StringBuilder(dbTable).append("._id IN (SELECT id FROM ").append(dbSpatialIndex)
+                .append(" WHERE maxLat >= ").append(resized.getLatitudeMin())
+                .append(" AND minLat <= ").append(resized.getLatitudeMax())
+                .append(" AND maxLon >= ").append(resized.getLongitudeMin())
+                .append(" AND minLon <= ").append(resized.getLongitudeMax())
+                .append(')');
     }
 
     /**
@@ -2722,6 +3183,7 @@ public class DataStore {
         cache.setPreventWaypointsFromNote(cursor.getInt(43) > 0);
         cache.setOwnerGuid(cursor.getString(44));
         cache.setAssignedEmoji(cursor.getInt(45));
+        cache.setLogSummary(createLogSummary(cursor, 46));
 
         return cache;
     }
@@ -2742,6 +3204,16 @@ public class DataStore {
                 GET_STRING_0);
     }
 
+    @NonNull
+    private static Map<String, List<String>> loadAttributes(final Collection<String> geocodes) {
+        return queryByGeocodes(dbTableAttributes,
+                new String[]{"attribute"},
+                geocodes,
+                "_id",
+                100,
+                GET_STRING_0);
+    }
+
     @Nullable
     public static Set<Integer> loadLists(final String geocode) {
         if (StringUtils.isBlank(geocode)) {
@@ -2828,6 +3300,16 @@ public class DataStore {
                 DataStore::createWaypointFromDatabaseContent);
     }
 
+    @NonNull
+    private static Map<String, List<Waypoint>> loadWaypoints(final Collection<String> geocodes) {
+        return queryByGeocodes(dbTableWaypoints,
+                WAYPOINT_COLUMNS,
+                geocodes,
+                "_id",
+                Integer.MAX_VALUE,
+                DataStore::createWaypointFromDatabaseContent);
+    }
+
     @NonNull
     private static Waypoint createWaypointFromDatabaseContent(final Cursor cursor) {
         final String name = cursor.getString(cursor.getColumnIndex("name"));
@@ -2848,19 +3330,13 @@ public class DataStore {
         return waypoint;
     }
 
-    @Nullable
-    private static List<Image> loadSpoilers(final String geocode) {
-        if (StringUtils.isBlank(geocode)) {
-            return null;
-        }
-
-        return queryToColl(dbTableSpoilers,
+    @NonNull
+    private static Map<String, List<Image>> loadSpoilers(final Collection<String> geocodes) {
+        return queryByGeocodes(dbTableSpoilers,
                 new String[]{"url", "title", "description"},
-                "geocode = ?",
-                new String[]{geocode},
-                null,
-                "100",
-                new LinkedList<>(),
+                geocodes,
+                "_id",
+                100,
                 cursor -> new Image.Builder()
                         .setUrl(cursor.getString(0))
                         .setTitle(cursor.getString(1))
@@ -3037,57 +3513,96 @@ public class DataStore {
     @NonNull
     public static List<LogEntry> loadLogs(final String geocode) {
         try (ContextLogger cLog = new ContextLogger("DataStore.loadLogs(%s)", geocode)) {
-            final List<LogEntry> logs = new ArrayList<>();
+            final List<LogEntry> logs = loadLogs(geocode, false, true, true, 0, MAX_LOADED_LOGS);
+            cLog.add("#:%d", logs.size());
+            return logs;
+        }
+    }
 
-            if (StringUtils.isBlank(geocode)) {
-                return logs;
+    /**
+     * Load a page of the logs of a cache without their text, which is sufficient to check the type, author, date or
+     * images of the logs. The text of a log can be loaded with {@link #loadLogText(int)}.
+     *
+     * @param friendsOnly {@code true} to load the logs of friends and the own logs only
+     * @param withImages {@code true} to load the images of the logs
+     * @param offset number of (newest) logs to skip
+     * @param limit maximum number of logs to load
+     */
+    @NonNull
+    public static List<LogEntry> loadLogHeaders(final String geocode, final boolean friendsOnly, final boolean withImages, final int offset, final int limit) {
+        return loadLogs(geocode, friendsOnly, false, withImages, offset, limit);
+    }
+
+    /**
+     * @return the text of the log with the given id, or an empty string if there is no such log
+     */
+    @NonNull
+    public static String loadLogText(final int logId) {
+        init();
+        try (Cursor cursor = database.query(dbTableLogs, new String[] { "log" }, "_id = ?", new String[] { String.valueOf(logId) }, null, null, null, "1")) {
+            if (cursor.moveToFirst()) {
+                return StringUtils.defaultString(cursor.getString(0));
             }
+        } catch (final Exception e) {
+            Log.e("DataStore.loadLogText", e);
+        }
+        return StringUtils.EMPTY;
+    }
 
-            init();
+    @NonNull
+    private static List<LogEntry> loadLogs(final String geocode, final boolean friendsOnly, final boolean withText, final boolean withImages, final int offset, final int limit) {
+        if (StringUtils.isBlank(geocode)) {
+            return Collections.emptyList();
+        }
+
+        init();
 
-            final Cursor cursor = database.rawQuery(
-                //                           0          1               2     3       4            5    6     7      8                                       9                10      11     12   13
-                "SELECT cg_logs._id AS cg_logs_id, service_log_id, type, author, author_guid, log, date, found, friend, " + dbTableLogImages + "._id as cg_logImages_id, log_id, title, url, description"
-                            + " FROM " + dbTableLogs + " LEFT OUTER JOIN " + dbTableLogImages
-                            + " ON ( cg_logs._id = log_id ) WHERE geocode = ?  ORDER BY date DESC, cg_logs._id ASC", new String[]{geocode});
-
-            LogEntry.Builder log = null;
-            int cnt = 0;
-            while (cursor.moveToNext() && logs.size() < 100) {
-                cnt ++;
-                if (log == null || log.getId() != cursor.getInt(0)) {
-                    // Start of a new log entry group (we may have several entries if the log has several images).
+        final List<String> columns = new ArrayList<>(Arrays.asList("_id", "service_log_id", "type", "author", "author_guid", "date", "found", "friend"));
+        if (withText) {
+            columns.add("log");
+        }
+        final List<LogEntry.Builder> builders = new ArrayList<>();
+        try (Cursor cursor = database.query(dbTableLogs, columns.toArray(new String[0]), friendsOnly ? "geocode = ? AND friend = 1" : "geocode = ?", new String[] { geocode },
+                null, null, "date DESC, _id ASC", offset + "," + limit)) {
+            while (cursor.moveToNext()) {
+                final LogEntry.Builder log = new LogEntry.Builder()
+                        .setId(cursor.getInt(0))
+                        .setServiceLogId(cursor.getString(1))
+                        .setLogType(LogType.getById(cursor.getInt(2)))
+                        .setAuthor(cursor.getString(3))
+                        .setAuthorGuid(cursor.getString(4))
+                        .setDate(cursor.getLong(5))
+                        .setFound(cursor.getInt(6))
+                        .setFriend(cursor.getInt(7) == 1);
+                if (withText) {
+                    log.setLog(cursor.getString(8));
+                }
+                builders.add(log);
+            }
+        }
+
+        // the images of all logs are loaded with a single query instead of joining them to the (long) log texts
+        if (withImages && !builders.isEmpty()) {
+            final Map<Integer, LogEntry.Builder> buildersById = new HashMap<>();
+            for (final LogEntry.Builder log : builders) {
+                buildersById.put(log.getId(), log);
+            }
+            try (Cursor cursor = database.query(dbTableLogImages, new String[] { "log_id", "title", "url", "description" },
+                    "log_id IN (" + StringUtils.join(buildersById.keySet(), ',') + ")", null, null, null, "_id")) {
+                while (cursor.moveToNext()) {
+                    final LogEntry.Builder log = buildersById.get(cursor.getInt(0));
                     if (log != null) {
-                        logs.add(log.build());
-                    }
-                    log = new LogEntry.Builder()
-                            .setId(cursor.getInt(0))
-                            .setServiceLogId(cursor.getString(1))
-                            .setLogType(LogType.getById(cursor.getInt(2)))
-                            .setAuthor(cursor.getString(3))
-                            .setAuthorGuid(cursor.getString(4))
-                            .setLog(cursor.getString(5))
-                            .setDate(cursor.getLong(6))
-                            .setFound(cursor.getInt(7))
-                            .setFriend(cursor.getInt(8) == 1);
-                    if (!cursor.isNull(9)) {
-                        log.addLogImage(new Image.Builder().setUrl(cursor.getString(12)).setTitle(cursor.getString(11)).setDescription(cursor.getString(13)).build());
+                        log.addLogImage(new Image.Builder().setUrl(cursor.getString(2)).setTitle(cursor.getString(1)).setDescription(cursor.getString(3)).build());
                     }
-                } else {
-                    // We cannot get several lines for the same log entry if it does not contain an image.
-                  log.addLogImage(new Image.Builder().setUrl(cursor.getString(12)).setTitle(cursor.getString(11)).setDescription(cursor.getString(13)).build());
                 }
             }
-            if (log != null) {
-                logs.add(log.build());
-            }
-
-            cursor.close();
-
-            cLog.add("l:%d,#:%d", cnt, logs.size());
+        }
 
-            return Collections.unmodifiableList(logs);
+        final List<LogEntry> logs = new ArrayList<>(builders.size());
+        for (final LogEntry.Builder log : builders) {
+            logs.add(log.build());
         }
+        return Collections.unmodifiableList(logs);
     }
 
     @Nullable
@@ -3119,33 +3634,34 @@ public class DataStore {
         return logCounts;
     }
 
-    @Nullable
-    private static List<Trackable> loadInventory(final String geocode) {
-        if (StringUtils.isBlank(geocode)) {
-            return null;
+    @NonNull
+    private static Map<String, Map<LogType, Integer>> loadLogCounts(final Collection<String> geocodes) {
+        final Map<String, List<Entry<LogType, Integer>>> rows = queryByGeocodes(dbTableLogCount,
+                new String[]{"type", "count"},
+                geocodes,
+                "_id",
+                100,
+                cursor -> new ImmutablePair<>(LogType.getById(cursor.getInt(0)), cursor.getInt(1)));
+
+        final Map<String, Map<LogType, Integer>> logCounts = new HashMap<>();
+        for (final Entry<String, List<Entry<LogType, Integer>>> geocodeRows : rows.entrySet()) {
+            final Map<LogType, Integer> cacheLogCounts = new EnumMap<>(LogType.class);
+            for (final Entry<LogType, Integer> row : geocodeRows.getValue()) {
+                cacheLogCounts.put(row.getKey(), row.getValue());
+            }
+            logCounts.put(geocodeRows.getKey(), cacheLogCounts);
         }
+        return logCounts;
+    }
 
-        init();
-
-        final List<Trackable> trackables = new ArrayList<>();
-
-        final Cursor cursor = database.query(
-                dbTableTrackables,
+    @NonNull
+    private static Map<String, List<Trackable>> loadInventory(final Collection<String> geocodes) {
+        return queryByGeocodes(dbTableTrackables,
                 new String[]{"_id", "updated", "tbcode", "guid", "title", "owner", "released", "goal", "description", "log_date", "log_type", "log_guid"},
-                "geocode = ?",
-                new String[]{geocode},
-                null,
-                null,
+                geocodes,
                 "title COLLATE NOCASE ASC",
-                "100");
-
-        while (cursor.moveToNext()) {
-            trackables.add(createTrackableFromDatabaseContent(cursor));
-        }
-
-        cursor.close();
-
-        return trackables;
+                100,
+                DataStore::createTrackableFromDatabaseContent);
     }
 
     @Nullable
@@ -3309,29 +3825,18 @@ public class DataStore {
      * Return a batch of stored geocodes.
      *
      * @param coords the current coordinates to sort by distance, or null to sort by geocode
+     * @param filterWhere additional SQL condition on the caches table (see {@link cgeo.geocaching.filter.IFilter#toSqlWhere()}), or null
      * @return a non-null set of geocodes
      */
     @NonNull
-    private static Set<String> loadBatchOfStoredGeocodes(final Geopoint coords, final CacheType cacheType, final int listId) {
+    private static Set<String> loadBatchOfStoredGeocodes(final Geopoint coords, final CacheType cacheType, final int listId, @Nullable final String filterWhere) {
         if (cacheType == null) {
             throw new IllegalArgumentException("cacheType must not be null");
         }
 
         try (ContextLogger cLog = new ContextLogger(Log.LogLevel.DEBUG, "DataStore.loadBatchOfStoredGeocodes(coords=%s, type=%s, list=%d)",
                 String.valueOf(coords), String.valueOf(cacheType), listId)) {
-            final StringBuilder selection = new StringBuilder();
-
-            String[] selectionArgs = null;
-            if (cacheType != CacheType.ALL) {
-                selection.append(" type = ? AND");
-                selectionArgs = new String[] { String.valueOf(cacheType.id) };
-            }
-
-            selection.append(" geocode IN (SELECT geocode FROM ");
-            selection.append(dbTableCachesLists);
-            selection.append(" WHERE list_id ");
-            selection.append(listId != PseudoList.ALL_LIST.id ? "=" + Math.max(listId, 1) : ">= " + StoredList.STANDARD_LIST_ID);
-            selection.append(')');
+            final String selection = getStoredGeocodesSelection(cacheType, listId, filterWhere);
 
             cLog.add("Sel:" + selection);
 
@@ -3339,8 +3844,8 @@ public class DataStore {
                 return queryToColl(dbTableCaches,
                         new String[]{"geocode", "(ABS(latitude-" + String.format((Locale) null, "%.6f", coords.getLatitude()) +
                                 ") + ABS(longitude-" + String.format((Locale) null, "%.6f", coords.getLongitude()) + ")) AS dif"},
-                        selection.toString(),
-                        selectionArgs,
+                        selection,
+                        null,
                         "dif",
                         null,
                         new HashSet<>(),
@@ -3348,8 +3853,8 @@ public class DataStore {
             }
             return queryToColl(dbTableCaches,
                     new String[] { "geocode" },
-                    selection.toString(),
-                    selectionArgs,
+                    selection,
+                    null,
                     "geocode",
                     null,
                     new HashSet<>(),
@@ -3360,6 +3865,121 @@ public class DataStore {
         }
     }
 
+    /**
+     * Return the number of stored caches of a list matching an SQL condition.
+     *
+     * @param filterWhere additional SQL condition on the caches table (see {@link cgeo.geocaching.filter.IFilter#toSqlWhere()}), or null
+     */
+    public static int getStoredCachesCount(@NonNull final CacheType cacheType, final int listId, @Nullable final String filterWhere) {
+        init();
+        try {
+            return (int) DatabaseUtils.queryNumEntries(database, dbTableCaches, getStoredGeocodesSelection(cacheType, listId, filterWhere));
+        } catch (final Exception e) {
+            Log.e("DataStore.getStoredCachesCount", e);
+        }
+        return 0;
+    }
+
+    /**
+     * Return a page of stored geocodes, sorted by an SQL expression and the geocode. The page starts after the sort
+     * key and geocode of the last cache of the previous page (keyset paging), so loading a page does not depend on the
+     * number of pages loaded before.
+     *
+     * @param filterWhere additional SQL condition on the caches table (see {@link cgeo.geocaching.filter.IFilter#toSqlWhere()}), or null
+     * @param orderExpression SQL expression to sort by (see {@link cgeo.geocaching.sorting.CacheComparator#getSqlOrderExpression(Geopoint)})
+     * @param descending {@code true} to sort descending
+     * @param after geocode and sort key of the last cache of the previous page, or null for the first page
+     * @param pageSize maximum number of geocodes to return
+     * @return geocode and sort key (as Long, Double, String or null, like returned by the database) of the caches of the
+     * page, in sort order
+     */
+    @NonNull
+    public static List<ImmutablePair<String, Object>> loadStoredGeocodesPage(@NonNull final CacheType cacheType, final int listId, @Nullable final String filterWhere,
+            @NonNull final String orderExpression, final boolean descending, @Nullable final ImmutablePair<String, Object> after, final int pageSize) {
+        try (ContextLogger cLog = new ContextLogger(Log.LogLevel.DEBUG, "DataStore.loadStoredGeocodesPage(type=%s, list=%d, after=%s)",
+                String.valueOf(cacheType), listId, after == null ? null : after.left)) {
+            init();
+            final StringBuilder selection = new StringBuilder(getStoredGeocodesSelection(cacheType, listId, filterWhere));
+            final String direction = descending ? " DESC" : " ASC";
+            final Object[] args;
+            if (after != null) {
+                final String comparison = descending ? " < " : " > ";
+                selection.append(" AND ((").append(orderExpression).append(')').append(comparison).append('?')
+                        .append(" OR ((").append(orderExpression).append(") = ?")
+                        .append(" AND geocode").append(comparison).append("?))");
+                args = new Object[] { after.right, after.right, after.left };
+            } else {
+                args = new Object[0];
+            }
+
+            cLog.add("Sel:" + selection);
+
+            final String query = "SELECT geocode, (" + orderExpression + ") AS sortkey FROM " + dbTableCaches + " WHERE" + selection
+                    + " ORDER BY sortkey" + direction + ", geocode" + direction + " LIMIT " + pageSize;
+            // the sort keys are bound with their type, as the database compares numbers and strings differently
+            final CursorFactory factory = (db, driver, editTable, sqliteQuery) -> {
+                for (int i = 0; i < args.length; i++) {
+                    bindTyped(sqliteQuery, i + 1, args[i]);
+                }
+                return new SQLiteCursor(driver, editTable, sqliteQuery);
+            };
+            final List<ImmutablePair<String, Object>> page = new ArrayList<>();
+            try (Cursor cursor = database.rawQueryWithFactory(factory, query, null, dbTableCaches)) {
+                while (cursor.moveToNext()) {
+                    page.add(new ImmutablePair<>(cursor.getString(0), getTypedValue(cursor, 1)));
+                }
+            }
+            return page;
+        } catch (final Exception e) {
+            Log.e("DataStore.loadStoredGeocodesPage", e);
+            return Collections.emptyList();
+        }
+    }
+
+    @Nullable
+    private static Object getTypedValue(final Cursor cursor, final int column) {
+        switch (cursor.getType(column)) {
+            case Cursor.FIELD_TYPE_INTEGER:
+                return cursor.getLong(column);
+            case Cursor.FIELD_TYPE_FLOAT:
+                return cursor.getDouble(column);
+            case Cursor.FIELD_TYPE_NULL:
+                return null;
+            default:
+                return cursor.getString(column);
+        }
+    }
+
+    private static void bindTyped(final SQLiteProgram program, final int index, @Nullable final Object value) {
+        if (value == null) {
+            program.bindNull(index);
+        } else if (value instanceof Long) {
+            program.bindLong(index, (Long) value);
+        } else if (value instanceof Double) {
+            program.bindDouble(index, (Double) value);
+        } else {
+            program.bindString(index, value.toString());
+        }
+    }
+
+    @NonNull
+    private static String getStoredGeocodesSelection(@NonNull final CacheType cacheType, final int listId, @Nullable final String filterWhere) {
+        final StringBuilder selection = new StringBuilder();
+        if (cacheType != CacheType.ALL) {
+            selection.append(" type = ").append(DatabaseUtils.sqlEscapeString(cacheType.id)).append(" AND");
+        }
+        if (StringUtils.isNotBlank(filterWhere)) {
+            selection.append(" (").append(filterWhere).append(") AND");
+        }
+
+        selection.append(" geocode IN (SELECT geocode FROM ");
+        selection.append(dbTableCachesLists);
+        selection.append(" WHERE list_id ");
+        selection.append(listId != PseudoList.ALL_LIST.id ? "=" + Math.max(listId, 1) : ">= " + StoredList.STANDARD_LIST_ID);
+        selection.append(')');
+        return selection.toString();
+    }
+
     @NonNull
     private static Set<String> loadBatchOfHistoricGeocodes(final CacheType cacheType) {
         final StringBuilder selection = new StringBuilder();
@@ -3415,7 +4035,7 @@ public class DataStore {
             }
 
             // viewport limitation
-            final StringBuilder selection = buildCoordinateWhere(dbTableCaches, viewport);
+            final StringBuilder selection = buildCoordinateWhere(dbTableCaches, dbTableCachesSpatialIndex, viewport);
 
             // cacheType limitation
             String[] selectionArgs = null;
@@ -3491,6 +4111,7 @@ public class DataStore {
             } catch (final Exception e) {
                 Log.w("DataStore.clean", e);
             }
+            scheduleCheckpoint();
 
             Log.d("Database clean: finished");
         });
@@ -3613,6 +4234,8 @@ public class DataStore {
             } finally {
                 database.endTransaction();
             }
+            DBLogOfflineUtils.forgetTypes(geocodes);
+            scheduleCheckpoint();
 
             // Delete cache directories
             for (final String geocode : geocodes) {
@@ -3627,7 +4250,22 @@ public class DataStore {
 
     @Nullable
     public static OfflineLogEntry loadLogOffline(final String geocode) {
-        return DBLogOfflineUtils.load(geocode);
+        // most caches have no offline log, which is known without a query
+        return hasLogOffline(geocode) ? DBLogOfflineUtils.load(geocode) : null;
+    }
+
+    /**
+     * Get the type of the offline log of a cache without database access (except for the first call).
+     *
+     * @return the log type, or null if there is no offline log for the geocode
+     */
+    @Nullable
+    public static LogType getOfflineLogType(final String geocode) {
+        return StringUtils.isBlank(geocode) ? null : DBLogOfflineUtils.getTypes().get(geocode);
+    }
+
+    public static boolean hasLogOffline(final String geocode) {
+        return getOfflineLogType(geocode) != null;
     }
 
     public static boolean clearLogOffline(final String geocode) {
@@ -4199,7 +4837,7 @@ public class DataStore {
 
     @NonNull
     public static Set<Waypoint> loadWaypoints(final Viewport viewport, final boolean excludeMine, final boolean excludeDisabled, final boolean excludeArchived, final CacheType type) {
-        final StringBuilder where = buildCoordinateWhere(dbTableWaypoints, viewport);
+        final StringBuilder where = buildCoordinateWhere(dbTableWaypoints, dbTableWaypointsSpatialIndex, viewport);
         if (excludeMine) {
             // found will contain the value -1 if cache was logged as DNF. Therefore we can't check if found == 0
             where.append(" AND ").append(dbTableCaches).append(".found != 1");
@@ -4218,11 +4856,37 @@ public class DataStore {
         for (int i = 0; i < WAYPOINT_COLUMNS.length; i++) {
             query.append(i > 0 ? ", " : "").append(dbTableWaypoints).append('.').append(WAYPOINT_COLUMNS[i]).append(' ');
         }
+        // state of the parent cache, to filter the waypoints without loading their caches
+        query.append(", ").append(dbTableCaches).append(".owner AS cache_owner, ").append(dbTableCaches).append(".owner_real AS cache_owner_real, ")
+                .append(dbTableCaches).append(".found AS cache_found, ").append(dbTableCaches).append(".disabled AS cache_disabled, ")
+                .append(dbTableCaches).append(".archived AS cache_archived, (SELECT GROUP_CONCAT(list_id) FROM ").append(dbTableCachesLists)
+                .append(" WHERE ").append(dbTableCachesLists).append(".geocode = ").append(dbTableCaches).append(".geocode) AS cache_lists");
         query.append(" FROM ").append(dbTableWaypoints).append(", ").append(dbTableCaches).append(" WHERE ").append(dbTableWaypoints)
                 .append(".geocode == ").append(dbTableCaches).append(".geocode AND ").append(where)
                 .append(" LIMIT " + (Settings.getKeyInt(R.integer.waypoint_threshold_max) * 2));  // Hardcoded limit to avoid memory overflow
 
-        return cursorToColl(database.rawQuery(query.toString(), null), new HashSet<>(), DataStore::createWaypointFromDatabaseContent);
+        return cursorToColl(database.rawQuery(query.toString(), null), new HashSet<>(), DataStore::createWaypointWithCacheStateFromDatabaseContent);
+    }
+
+    @NonNull
+    private static Waypoint createWaypointWithCacheStateFromDatabaseContent(final Cursor cursor) {
+        final Waypoint waypoint = createWaypointFromDatabaseContent(cursor);
+
+        // ownership depends on the connector, so check it using a cache object with just the owner information
+        final Geocache cache = new Geocache();
+        cache.setGeocode(waypoint.getGeocode());
+        cache.setOwnerDisplayName(cursor.getString(cursor.getColumnIndex("cache_owner")));
+        cache.setOwnerUserId(cursor.getString(cursor.getColumnIndex("cache_owner_real")));
+        final Set<Integer> lists = new HashSet<>();
+        for (final String listId : StringUtils.split(StringUtils.defaultString(cursor.getString(cursor.getColumnIndex("cache_lists"))), ',')) {
+            lists.add(Integer.parseInt(listId));
+        }
+        waypoint.setParentCacheState(new Waypoint.ParentCacheState(cache.isOwner(),
+                cursor.getInt(cursor.getColumnIndex("cache_found")) == 1,
+                cursor.getInt(cursor.getColumnIndex("cache_disabled")) != 0,
+                cursor.getInt(cursor.getColumnIndex("cache_archived")) != 0,
+                lists));
+        return waypoint;
     }
 
     public static void saveChangedCache(final Geocache cache) {
@@ -4241,11 +4905,15 @@ public class DataStore {
         INSERT_LOG_COUNTS("INSERT INTO " + dbTableLogCount + " (geocode, updated, type, count) VALUES (?, ?, ?, ?)"),
         INSERT_SPOILER("INSERT INTO " + dbTableSpoilers + " (geocode, updated, url, title, description) VALUES (?, ?, ?, ?, ?)"),
         REMOVE_SPOILERS("DELETE FROM " + dbTableSpoilers + " WHERE geocode = ?"),
+        REMOVE_ATTRIBUTES("DELETE FROM " + dbTableAttributes + " WHERE geocode = ?"),
+        REMOVE_LOG_COUNTS("DELETE FROM " + dbTableLogCount + " WHERE geocode = ?"),
+        REMOVE_LOGS("DELETE FROM " + dbTableLogs + " WHERE geocode = ?"),
         OFFLINE_LOG_ID_OF_GEOCODE("SELECT _id FROM " + dbTableLogsOffline + " WHERE geocode = ?"),
         COUNT_CACHES_ON_STANDARD_LIST("SELECT COUNT(geocode) FROM " + dbTableCachesLists + " WHERE list_id = " + StoredList.STANDARD_LIST_ID),
         COUNT_ALL_CACHES("SELECT COUNT(DISTINCT(geocode)) FROM " + dbTableCachesLists + " WHERE list_id >= " + StoredList.STANDARD_LIST_ID),
         INSERT_LOG("INSERT INTO " + dbTableLogs + " (geocode, updated, service_log_id, type, author, author_guid, log, date, found, friend) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
         CLEAN_LOG("DELETE FROM " + dbTableLogs + " WHERE geocode = ? AND date = ? AND type = ? AND author = ?"),
+        UPDATE_LOG_SUMMARY(DataStore.UPDATE_LOG_SUMMARY + " WHERE geocode = ?2"),
         INSERT_ATTRIBUTE("INSERT INTO " + dbTableAttributes + " (geocode, updated, attribute) VALUES (?, ?, ?)"),
         ADD_TO_LIST("INSERT OR REPLACE INTO " + dbTableCachesLists + " (list_id, geocode) VALUES (?, ?)"),
         GEOCODE_OFFLINE("SELECT COUNT(l.list_id) FROM " + dbTableCachesLists + " l, " + dbTableCaches + " c WHERE c.geocode = ? AND c.geocode = l.geocode AND c.detailed = 1 AND l.list_id != " + StoredList.TEMPORARY_LIST.id),
@@ -4356,7 +5024,18 @@ public class DataStore {
 
     @NonNull
     public static SearchResult getBatchOfStoredCaches(final Geopoint coords, final CacheType cacheType, final int listId) {
-        final Set<String> geocodes = loadBatchOfStoredGeocodes(coords, cacheType, listId);
+        return getBatchOfStoredCaches(coords, cacheType, listId, null);
+    }
+
+    /**
+     * Return the stored caches of a list matching an SQL condition. The total count of the result is the number of
+     * all caches of the list, like for the unfiltered list.
+     *
+     * @param filterWhere additional SQL condition on the caches table (see {@link cgeo.geocaching.filter.IFilter#toSqlWhere()}), or null
+     */
+    @NonNull
+    public static SearchResult getBatchOfStoredCaches(final Geopoint coords, final CacheType cacheType, final int listId, @Nullable final String filterWhere) {
+        final Set<String> geocodes = loadBatchOfStoredGeocodes(coords, cacheType, listId, filterWhere);
         return new SearchResult(geocodes, getAllStoredCachesCount(cacheType, listId));
     }
 
@@ -4415,7 +5094,12 @@ public class DataStore {
         final SearchSuggestionCursor resultCursor = new SearchSuggestionCursor();
         try {
             final String selectionArg = getSuggestionArgument(searchTerm);
-            findCaches(resultCursor, selectionArg);
+            final String[] fullTextQueries = getFullTextQueries(searchTerm, "geocode", "name", "owner");
+            if (fullTextQueries != null) {
+                findCachesFullText(resultCursor, fullTextQueries);
+            } else {
+                findCaches(resultCursor, selectionArg);
+            }
             findTrackables(resultCursor, selectionArg);
         } catch (final Exception e) {
             Log.e("DataStore.loadBatchOfStoredGeocodes", e);
@@ -4441,11 +5125,64 @@ public class DataStore {
         cursor.close();
     }
 
+    private static void findCachesFullText(final SearchSuggestionCursor resultCursor, final String[] fullTextQueries) {
+        final Cursor cursor = database.rawQuery("SELECT geocode, name, type FROM " + dbTableCaches
+                + " WHERE geocode IS NOT NULL AND geocode != '' AND " + getFullTextWhere(fullTextQueries.length)
+                + " ORDER BY name", fullTextQueries);
+        while (cursor.moveToNext()) {
+            resultCursor.addCache(cursor.getString(0), cursor.getString(1), cursor.getString(2));
+        }
+        cursor.close();
+    }
+
     @NonNull
     private static String getSuggestionArgument(final String input) {
         return "%" + StringUtils.trim(input) + "%";
     }
 
+    /**
+     * Build one full text query per given column, each matching all words of the input as prefixes in that column
+     * (or in any indexed column for a null column).
+     *
+     * @return null if the full text index is not available or the input does not contain any word
+     */
+    @Nullable
+    private static String[] getFullTextQueries(final String input, final String... columns) {
+        if (!fullTextIndexAvailable) {
+            return null;
+        }
+        final String[] words = StringUtils.split(StringUtils.defaultString(input).replaceAll("[^\\p{L}\\p{N}]+", " "));
+        if (words.length == 0) {
+            return null;
+        }
+        final String[] queries = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            final StringBuilder query = new StringBuilder();
+            for (final String word : words) {
+                query.append(query.length() == 0 ? "" : " ");
+                if (columns[i] != null) {
+                    query.append(columns[i]).append(':');
+                }
+                query.append('"').append(word).append("*\"");
+            }
+            queries[i] = query.toString();
+        }
+        return queries;
+    }
+
+    /**
+     * @return where clause on cg_caches selecting the rows matching any of the given number of full text queries
+     */
+    @NonNull
+    private static String getFullTextWhere(final int queryCount) {
+        final StringBuilder where = new StringBuilder(dbTableCaches).append("._id IN (");
+        for (int i = 0; i < queryCount; i++) {
+            where.append(i == 0 ? "" : " UNION ").append("SELECT docid FROM ").append(dbTableCachesFullTextIndex)
+                    .append(" WHERE ").append(dbTableCachesFullTextIndex).append(" MATCH ?");
+        }
+        return where.append(')').toString();
+    }
+
     private static void findTrackables(final MatrixCursor resultCursor, final String selectionArg) {
         final Cursor cursor = database.query(
                 dbTableTrackables,
@@ -4472,6 +5209,14 @@ public class DataStore {
     @NonNull
     public static String[] getSuggestions(final String table, final String column, final String input) {
         try {
+            final String[] fullTextQueries = dbTableCaches.equals(table) && ArrayUtils.contains(FULL_TEXT_INDEX_COLUMNS, column) ? getFullTextQueries(input, column) : null;
+            if (fullTextQueries != null) {
+                final Cursor cursor = database.rawQuery("SELECT DISTINCT " + column
+                        + " FROM " + table
+                        + " WHERE " + getFullTextWhere(fullTextQueries.length)
+                        + " ORDER BY " + column + " COLLATE NOCASE ASC;", fullTextQueries);
+                return cursorToColl(cursor, new LinkedList<>(), GET_STRING_0).toArray(new String[cursor.getCount()]);
+            }
             final Cursor cursor = database.rawQuery("SELECT DISTINCT " + column
                     + " FROM " + table
                     + " WHERE " + column + " LIKE ?"
@@ -4508,6 +5253,27 @@ public class DataStore {
         return getSuggestions(dbTableCaches, "name", input);
     }
 
+    /**
+     * Search the stored caches for all words of the given keyword (as prefixes) in name, owner, geocode,
+     * location and personal note. Without full text index only the name is searched.
+     */
+    @NonNull
+    public static SearchResult searchStoredByKeyword(@NonNull final String keyword) {
+        init();
+        final Set<String> geocodes = new HashSet<>();
+        try {
+            final String[] fullTextQueries = getFullTextQueries(keyword, (String) null);
+            if (fullTextQueries != null) {
+                queryToColl(dbTableCaches, new String[] { "geocode" }, getFullTextWhere(1), fullTextQueries, null, null, geocodes, GET_STRING_0);
+            } else {
+                queryToColl(dbTableCaches, new String[] { "geocode" }, "name LIKE ?", new String[] { getSuggestionArgument(keyword) }, null, null, geocodes, GET_STRING_0);
+            }
+        } catch (final Exception e) {
+            Log.e("DataStore.searchStoredByKeyword", e);
+        }
+        return new SearchResult(geocodes);
+    }
+
     /**
      * @return list of last caches opened in the details view, ordered by most recent first
      */
@@ -4647,10 +5413,11 @@ public class DataStore {
                     cLog.add("trackables:%s", trackables.size());
 
                     database.setTransactionSuccessful();
-                    return true;
                 } finally {
                     database.endTransaction();
                 }
+                rememberType(geocode, logEntry.logType);
+                return true;
             }
         }
 
@@ -4739,7 +5506,9 @@ public class DataStore {
             init();
 
             final String[] geocodeWhereArgs = {geocode};
-            return DBLogOfflineUtils.remove(database, "geocode = ?", geocodeWhereArgs) > 0;
+            final boolean removed = DBLogOfflineUtils.remove(database, "geocode = ?", geocodeWhereArgs) > 0;
+            forgetTypes(Collections.singleton(geocode));
+            return removed;
         }
 
         public static int remove(final Collection<Geocache> caches) {
@@ -4749,8 +5518,58 @@ public class DataStore {
 
             init();
 
-            final String geocodes = whereGeocodeIn(Geocache.getGeocodes(caches)).toString();
-            return DBLogOfflineUtils.remove(database, geocodes, null);
+            final Set<String> geocodes = Geocache.getGeocodes(caches);
+            final int removed = DBLogOfflineUtils.remove(database, whereGeocodeIn(geocodes).toString(), null);
+            forgetTypes(geocodes);
+            return removed;
+        }
+
+        /**
+         * Types of the offline logs by geocode, for all offline logs in the database. Loaded with a single query on first
+         * use, and then kept up to date by all changes of offline logs. Null if not yet loaded.
+         */
+        @Nullable
+        private static volatile Map<String, LogType> offlineLogTypes = null;
+
+        @NonNull
+        private static Map<String, LogType> getTypes() {
+            Map<String, LogType> types = offlineLogTypes;
+            if (types != null) {
+                return types;
+            }
+            init();
+            // changes wait for the loading, so that none of them gets lost
+            synchronized (DBLogOfflineUtils.class) {
+                if (offlineLogTypes == null) {
+                    types = new ConcurrentHashMap<>();
+                    try (Cursor cursor = database.rawQuery("SELECT geocode, type FROM " + dbTableLogsOffline, null)) {
+                        while (cursor.moveToNext()) {
+                            types.put(cursor.getString(0), LogType.getById(cursor.getInt(1)));
+                        }
+                    }
+                    offlineLogTypes = types;
+                }
+                return offlineLogTypes;
+            }
+        }
+
+        private static synchronized void rememberType(@NonNull final String geocode, @NonNull final LogType logType) {
+            if (offlineLogTypes != null) {
+                offlineLogTypes.put(geocode, logType);
+            }
+        }
+
+        private static synchronized void forgetTypes(@NonNull final Collection<String> geocodes) {
+            if (offlineLogTypes != null) {
+                offlineLogTypes.keySet().removeAll(geocodes);
+            }
+        }
+
+        /**
+         * Reload all offline log types on next use, e.g. after bulk deletions or if the database has been replaced.
+         */
+        private static synchronized void forgetAllTypes() {
+            offlineLogTypes = null;
         }
 
         /**
@@ -4789,6 +5608,7 @@ public class DataStore {
             database.delete(dbTableLogsOffline, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
             database.delete(dbTableLogsOfflineImages, "logoffline_id NOT IN (SELECT _id FROM " + dbTableLogsOffline + ")", null);
             database.delete(dbTableLogsOfflineTrackables, "logoffline_id NOT IN (SELECT _id FROM " + dbTableLogsOffline + ")", null);
+            forgetAllTypes();
         }
     }
 
@@ -0,0 +1,179 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.enumerations.CacheType;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.models.Geocache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Uniform grid over the coordinates of the caches held by {@link CacheCache}, so that viewport lookups only
+ * visit the cells overlapping the viewport instead of all caches. Inside a cell the caches are separated by
+ * cache type.
+ *
+ * This class is not thread safe, synchronization is done by {@link CacheCache}.
+ */
+final class GeocacheGrid {
+
+    /**
+     * cell size in E6 degrees (0.1°, about 11 km in latitude)
+     */
+    private static final int CELL_SIZE_E6 = 100000;
+
+    private final Map<Long, Map<CacheType, Map<String, Geocache>>> cells = new HashMap<>();
+
+    /**
+     * cell and cache type each cache has been put with, as both might have changed in the cache meanwhile
+     */
+    private final Map<String, Position> positions = new HashMap<>();
+
+    /**
+     * caches without coordinates, they are checked on every lookup as the coordinates may be set later
+     */
+    private final Map<String, Geocache> withoutCoords = new HashMap<>();
+
+    private static final class Position {
+        private final long cell;
+        @NonNull private final CacheType type;
+
+        Position(final long cell, @NonNull final CacheType type) {
+            this.cell = cell;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Add the given cache or move it to its current cell, replacing an older cache object with the same geocode.
+     */
+    void put(@NonNull final Geocache cache) {
+        final String geocode = cache.getGeocode();
+        remove(geocode);
+
+        final Geopoint coords = cache.getCoords();
+        if (coords == null) {
+            withoutCoords.put(geocode, cache);
+            return;
+        }
+        final long cell = getCell(getCellIndex(coords.getLatitudeE6()), getCellIndex(coords.getLongitudeE6()));
+        final CacheType type = cache.getType();
+        Map<CacheType, Map<String, Geocache>> cellContent = cells.get(cell);
+        if (cellContent == null) {
+            cellContent = new EnumMap<>(CacheType.class);
+            cells.put(cell, cellContent);
+        }
+        Map<String, Geocache> typeContent = cellContent.get(type);
+        if (typeContent == null) {
+            typeContent = new HashMap<>();
+            cellContent.put(type, typeContent);
+        }
+        typeContent.put(geocode, cache);
+        positions.put(geocode, new Position(cell, type));
+    }
+
+    void remove(@NonNull final String geocode) {
+        if (withoutCoords.remove(geocode) != null) {
+            return;
+        }
+        final Position position = positions.remove(geocode);
+        if (position == null) {
+            return;
+        }
+        final Map<CacheType, Map<String, Geocache>> cellContent = cells.get(position.cell);
+        if (cellContent == null) {
+            return;
+        }
+        final Map<String, Geocache> typeContent = cellContent.get(position.type);
+        if (typeContent != null) {
+            typeContent.remove(geocode);
+            if (typeContent.isEmpty()) {
+                cellContent.remove(position.type);
+            }
+        }
+        if (cellContent.isEmpty()) {
+            cells.remove(position.cell);
+        }
+    }
+
+    void clear() {
+        cells.clear();
+        positions.clear();
+        withoutCoords.clear();
+    }
+
+    /**
+     * Add the geocodes of all caches of the given type inside the viewport to the result.
+     */
+    void addInViewport(@NonNull final Viewport viewport, @NonNull final CacheType cacheType, @NonNull final Set<String> result) {
+        final int minRow = getCellIndex(viewport.bottomLeft.getLatitudeE6());
+        final int maxRow = getCellIndex(viewport.topRight.getLatitudeE6());
+        final int minColumn = getCellIndex(viewport.bottomLeft.getLongitudeE6());
+        final int maxColumn = getCellIndex(viewport.topRight.getLongitudeE6());
+
+        // for large viewports it is cheaper to check the non-empty cells than to look up every overlapping cell
+        if ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1) <= cells.size()) {
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    addCellInViewport(cells.get(getCell(row, column)), viewport, cacheType, result);
+                }
+            }
+        } else {
+            for (final Map.Entry<Long, Map<CacheType, Map<String, Geocache>>> cell : cells.entrySet()) {
+                final int row = getRow(cell.getKey());
+                final int column = getColumn(cell.getKey());
+                if (row >= minRow && row <= maxRow && column >= minColumn && column <= maxColumn) {
+                    addCellInViewport(cell.getValue(), viewport, cacheType, result);
+                }
+            }
+        }
+
+        addCachesInViewport(withoutCoords, viewport, cacheType, result);
+    }
+
+    private static void addCellInViewport(@Nullable final Map<CacheType, Map<String, Geocache>> cellContent, @NonNull final Viewport viewport, @NonNull final CacheType cacheType, @NonNull final Set<String> result) {
+        if (cellContent == null) {
+            return;
+        }
+        if (cacheType == CacheType.ALL) {
+            for (final Map<String, Geocache> typeContent : cellContent.values()) {
+                addCachesInViewport(typeContent, viewport, cacheType, result);
+            }
+        } else {
+            addCachesInViewport(cellContent.get(cacheType), viewport, cacheType, result);
+        }
+    }
+
+    private static void addCachesInViewport(@Nullable final Map<String, Geocache> caches, @NonNull final Viewport viewport, @NonNull final CacheType cacheType, @NonNull final Set<String> result) {
+        if (caches == null) {
+            return;
+        }
+        for (final Geocache cache : caches.values()) {
+            // check again, coordinates and type of the cache object may have been changed after it was put
+            if (cache.getCoords() != null && cacheType.contains(cache) && viewport.contains(cache)) {
+                result.add(cache.getGeocode());
+            }
+        }
+    }
+
+    private static int getCellIndex(final int coordinateE6) {
+        return (int) Math.floor(coordinateE6 / (double) CELL_SIZE_E6);
+    }
+
+    private static long getCell(final int row, final int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    private static int getRow(final long cell) {
+        return (int) (cell >> 32);
+    }
+
+    private static int getColumn(final long cell) {
+        return (int) cell;
+    }
+}
@@ -0,0 +1,124 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.enumerations.CacheType;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.sorting.CacheComparator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+/**
+ * Loads the stored caches of a list page by page in the order of a {@link CacheComparator}, so that huge lists can be
+ * shown before all their caches are loaded.
+ *
+ * The database order may differ from the order of the comparator in memory in details (like the collation of names),
+ * so a paged list has to be kept in the order of the database (see {@link #getPageOrder()}). Otherwise later pages
+ * would be sorted in between the caches shown already.
+ */
+public class StoredCachesPager {
+
+    /**
+     * number of caches per page
+     */
+    public static final int PAGE_SIZE = 500;
+
+    private final CacheType cacheType;
+    private final int listId;
+    @Nullable private final String filterWhere;
+    @NonNull private final String orderExpression;
+    private final boolean descending;
+    private final int totalCount;
+    /**
+     * geocode and sort key of the last cache loaded
+     */
+    @Nullable private ImmutablePair<String, Object> last = null;
+    private boolean complete = false;
+    /**
+     * position of the loaded caches in the database order
+     */
+    private final Map<String, Integer> positions = new ConcurrentHashMap<>();
+
+    private StoredCachesPager(@NonNull final CacheType cacheType, final int listId, @Nullable final String filterWhere, @NonNull final String orderExpression, final boolean descending) {
+        this.cacheType = cacheType;
+        this.listId = listId;
+        this.filterWhere = filterWhere;
+        this.orderExpression = orderExpression;
+        this.descending = descending;
+        this.totalCount = DataStore.getStoredCachesCount(cacheType, listId, filterWhere);
+    }
+
+    /**
+     * @param filterWhere
+     *            additional SQL condition on the caches table (see {@link cgeo.geocaching.filter.IFilter#toSqlWhere()}), or null
+     * @param coords
+     *            the position to sort by distance from, may be null
+     * @return a pager, or {@code null} if the comparator can only sort in memory
+     */
+    @Nullable
+    public static StoredCachesPager create(@NonNull final CacheType cacheType, final int listId, @Nullable final String filterWhere,
+                                           @NonNull final CacheComparator comparator, final boolean inverseSort, @Nullable final Geopoint coords) {
+        final String orderExpression = comparator.getSqlOrderExpression(coords);
+        if (orderExpression == null) {
+            return null;
+        }
+        return new StoredCachesPager(cacheType, listId, filterWhere, orderExpression, inverseSort);
+    }
+
+    /**
+     * Load the geocodes of the next page.
+     *
+     * @return the geocodes in sort order, empty if all pages have been loaded
+     */
+    @NonNull
+    public synchronized Set<String> nextPage() {
+        final Set<String> geocodes = new LinkedHashSet<>();
+        if (complete) {
+            return geocodes;
+        }
+        final List<ImmutablePair<String, Object>> page = DataStore.loadStoredGeocodesPage(cacheType, listId, filterWhere, orderExpression, descending, last, PAGE_SIZE);
+        for (final ImmutablePair<String, Object> entry : page) {
+            geocodes.add(entry.left);
+            positions.put(entry.left, positions.size());
+        }
+        if (page.size() < PAGE_SIZE) {
+            complete = true;
+        } else {
+            last = page.get(page.size() - 1);
+        }
+        return geocodes;
+    }
+
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return comparator sorting the caches of the loaded pages in the order of the database, including the inversion
+     */
+    @NonNull
+    public Comparator<Geocache> getPageOrder() {
+        return (cache1, cache2) -> Integer.compare(getPosition(cache1), getPosition(cache2));
+    }
+
+    private int getPosition(@NonNull final Geocache cache) {
+        final Integer position = positions.get(cache.getGeocode());
+        return position == null ? Integer.MAX_VALUE : position;
+    }
+
+    /**
+     * @return the number of caches of all pages
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+}
@@ -3,7 +3,6 @@ package cgeo.geocaching.ui;
 import cgeo.geocaching.R;
 import cgeo.geocaching.connector.ConnectorFactory;
 import cgeo.geocaching.location.Units;
-import cgeo.geocaching.log.LogEntry;
 import cgeo.geocaching.log.LogType;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.ICoordinates;
@@ -119,12 +118,8 @@ public final class CacheDetailsCreator {
         } else if (cache.isDNF()) {
             states.add(res.getString(R.string.cache_not_status_found) + date);
         }
-        if (cache.isEventCache() && states.isEmpty()) {
-            for (final LogEntry log : cache.getLogs()) {
-                if (log.getType() == LogType.WILL_ATTEND && log.isOwn()) {
-                    states.add(LogType.WILL_ATTEND.getL10n());
-                }
-            }
+        if (cache.isEventCache() && states.isEmpty() && cache.getLogSummary().isWillAttend()) {
+            states.add(LogType.WILL_ATTEND.getL10n());
         }
         if (cache.isArchived()) {
             states.add(res.getString(R.string.cache_status_archived));
@@ -38,6 +38,7 @@ import android.widget.SectionIndexer;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 
 import java.lang.ref.WeakReference;
@@ -78,6 +79,10 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
     private final List<Geocache> list;
     private boolean eventsOnly;
     private boolean inverseSort = false;
+    /**
+     * order of the database for a list loaded page by page, used instead of the comparator
+     */
+    @Nullable private Comparator<Geocache> databaseOrder = null;
     /**
      * {@code true} if the caches in this list are a complete series and should be sorted by name instead of distance
      */
@@ -161,9 +166,20 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
      */
     public void setComparator(final CacheComparator comparator) {
         cacheComparator = comparator;
+        databaseOrder = null;
         forceSort();
     }
 
+    /**
+     * Keep the caches in the order of the database instead of sorting them by the comparator, so that the caches of
+     * pages loaded later are appended instead of being sorted in between the caches shown already.
+     *
+     * @param databaseOrder the order of the loaded pages, or null to sort by the comparator
+     */
+    public void setDatabaseOrder(@Nullable final Comparator<Geocache> databaseOrder) {
+        this.databaseOrder = databaseOrder;
+    }
+
     public void resetInverseSort() {
         inverseSort = false;
     }
@@ -225,7 +241,7 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
      * Called when a new page of caches was loaded.
      */
     public void reFilter() {
-        if (currentFilter != null) {
+        if (currentFilter != null && !isFilteredByDatabase(cacheListType, currentFilter)) {
             // Back up the list again
             originalList = new ArrayList<>(list);
 
@@ -250,7 +266,7 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
         }
 
         // Do the filtering or clear it
-        if (filter != null) {
+        if (filter != null && !isFilteredByDatabase(cacheListType, filter)) {
             filter.filter(list);
         }
         currentFilter = filter;
@@ -258,6 +274,14 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
         notifyDataSetChanged();
     }
 
+    /**
+     * Offline lists are loaded with the filter applied by the database already, if the filter can be expressed in SQL.
+     * Changing such a filter requires loading the list again.
+     */
+    public static boolean isFilteredByDatabase(final CacheListType cacheListType, @Nullable final IFilter filter) {
+        return cacheListType == CacheListType.OFFLINE && filter != null && filter.toSqlWhere() != null;
+    }
+
     public boolean isFiltered() {
         return currentFilter != null;
     }
@@ -307,7 +331,9 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
             return;
         }
 
-        if (isSortedByDistance()) {
+        if (databaseOrder != null) {
+            Collections.sort(list, databaseOrder);
+        } else if (isSortedByDistance()) {
             lastSort = 0;
             updateSortByDistance();
         } else {
@@ -336,7 +362,7 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
         if ((System.currentTimeMillis() - lastSort) <= PAUSE_BETWEEN_LIST_SORT) {
             return;
         }
-        if (!isSortedByDistance()) {
+        if (!isSortedByDistance() || databaseOrder != null) {
             return;
         }
         if (coords == null) {
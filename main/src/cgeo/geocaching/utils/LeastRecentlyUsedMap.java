@@ -58,7 +58,12 @@ public abstract class LeastRecentlyUsedMap<K, V> extends LinkedHashMap<K, V> {
 
     @Override
     protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
-        return size() > maxEntries;
+        if (size() > maxEntries) {
+            // remove it ourselves, as LinkedHashMap does not use remove() for the eldest entry on all platforms
+            // and the remove handler would not get notified
+            remove(eldest.getKey());
+        }
+        return false;
     }
 
     public int getMaxEntries() {
@@ -0,0 +1,92 @@
+package cgeo.geocaching.utils;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Douglas-Peucker simplification of polylines given in planar (e.g. projected pixel) coordinates.
+ */
+public final class LineSimplifier {
+
+    private LineSimplifier() {
+        // utility class
+    }
+
+    /**
+     * Simplify the polyline of the points {@code from} to {@code to} (both inclusive), keeping all points deviating
+     * more than the tolerance from the simplified line. The first and last point are always kept.
+     *
+     * @param xs
+     *          x coordinates of the points
+     * @param ys
+     *          y coordinates of the points
+     * @param tolerance
+     *          maximum distance of a dropped point from the simplified line, in units of the coordinates
+     * @return for every point of the range whether it is kept, indexed relative to {@code from}
+     */
+    @NonNull
+    public static boolean[] simplify(@NonNull final double[] xs, @NonNull final double[] ys, final int from, final int to, final double tolerance) {
+        final int count = to - from + 1;
+        final boolean[] keep = new boolean[Math.max(count, 0)];
+        if (count <= 0) {
+            return keep;
+        }
+        keep[0] = true;
+        keep[count - 1] = true;
+        if (count <= 2) {
+            return keep;
+        }
+
+        final double squaredTolerance = tolerance * tolerance;
+        // explicit stack of ranges instead of recursion, long tracks would overflow the stack otherwise
+        final int[] stack = new int[2 * count];
+        int stackSize = 0;
+        stack[stackSize++] = from;
+        stack[stackSize++] = to;
+        while (stackSize > 0) {
+            final int last = stack[--stackSize];
+            final int first = stack[--stackSize];
+
+            double maxSquaredDistance = squaredTolerance;
+            int farthest = -1;
+            for (int i = first + 1; i < last; i++) {
+                final double squaredDistance = squaredSegmentDistance(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+                if (squaredDistance > maxSquaredDistance) {
+                    maxSquaredDistance = squaredDistance;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0) {
+                keep[farthest - from] = true;
+                stack[stackSize++] = first;
+                stack[stackSize++] = farthest;
+                stack[stackSize++] = farthest;
+                stack[stackSize++] = last;
+            }
+        }
+        return keep;
+    }
+
+    /**
+     * squared distance of the point (x, y) from the segment (x1, y1) - (x2, y2)
+     */
+    private static double squaredSegmentDistance(final double x, final double y, final double x1, final double y1, final double x2, final double y2) {
+        final double dx = x2 - x1;
+        final double dy = y2 - y1;
+        final double squaredLength = dx * dx + dy * dy;
+        double px = x1;
+        double py = y1;
+        if (squaredLength > 0) {
+            final double t = ((x - x1) * dx + (y - y1) * dy) / squaredLength;
+            if (t >= 1) {
+                px = x2;
+                py = y2;
+            } else if (t > 0) {
+                px = x1 + t * dx;
+                py = y1 + t * dy;
+            }
+        }
+        final double ex = x - px;
+        final double ey = y - py;
+        return ex * ex + ey * ey;
+    }
+}
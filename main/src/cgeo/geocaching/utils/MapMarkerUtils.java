@@ -3,7 +3,6 @@ package cgeo.geocaching.utils;
 import cgeo.geocaching.R;
 import cgeo.geocaching.compatibility.Compatibility;
 import cgeo.geocaching.enumerations.CacheListType;
-import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.enumerations.WaypointType;
 import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.log.LogType;
@@ -20,27 +19,65 @@ import cgeo.geocaching.utils.builders.InsetsBuilder;
 import android.content.res.Resources;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
+import android.util.LongSparseArray;
 import android.util.Pair;
-import android.util.SparseArray;
+import android.util.SparseIntArray;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
-
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 public final class MapMarkerUtils {
 
-    private static final Map<Integer, Integer> list2marker = new TreeMap<>();
+    private static final SparseIntArray list2marker = new SparseIntArray();
     private static Boolean listsRead = false;
 
-    private static final SparseArray<CacheMarker> overlaysCache = new SparseArray<>();
+    /*
+     * Markers are cached by a key packing everything that influences the look of the marker into a long:
+     * bits 0-14 flags, 15-20 cache or waypoint type, 21-26 offline log type, 27-31 map marker background,
+     * 32-61 three emojis (assigned emoji and two list markers), 62 dot marker, 63 waypoint marker.
+     * Resource ids and emojis are interned to small indexes, which are only valid until the cache is cleared.
+     */
+    private static final long FLAG_UNRELIABLE = 1L;
+    private static final long FLAG_ARCHIVED = 1L << 1;
+    private static final long FLAG_DISABLED = 1L << 2;
+    private static final long FLAG_OWNER = 1L << 3;
+    private static final long FLAG_FOUND = 1L << 4;
+    private static final long FLAG_DNF = 1L << 5;
+    private static final long FLAG_WILL_ATTEND = 1L << 6;
+    private static final long FLAG_MODIFIED_COORDS = 1L << 7;
+    private static final long FLAG_PERSONAL_NOTE = 1L << 8;
+    private static final long FLAG_LOG_OFFLINE = 1L << 9;
+    private static final long FLAG_STORED = 1L << 10;
+    private static final long FLAG_BACKGROUND = 1L << 11;
+    private static final long FLAG_FLOPPY = 1L << 12;
+    private static final long FLAG_BIG_SMILEYS = 1L << 13;
+    private static final long FLAG_VISITED = 1L << 14;
+    private static final int SHIFT_TYPE = 15;
+    private static final int SHIFT_LOG_TYPE = 21;
+    private static final int SHIFT_MAP_MARKER = 27;
+    private static final int SHIFT_EMOJI = 32;
+    private static final int BITS_EMOJI = 10;
+    private static final int MAX_MAP_MARKER_INDEX = (1 << (SHIFT_EMOJI - SHIFT_MAP_MARKER)) - 1;
+    private static final int MAX_EMOJI_INDEX = (1 << BITS_EMOJI) - 1;
+    private static final long KEY_DOT = 1L << 62;
+    private static final long KEY_WAYPOINT = 1L << 63;
+
+    /**
+     * maximum number of cached marker drawables, the cache is cleared completely when exceeded
+     */
+    private static final int MAX_CACHED_MARKERS = 500;
+
+    private static final LongSparseArray<CacheMarker> overlaysCache = new LongSparseArray<>();
+    private static final SparseIntArray mapMarkerIndexes = new SparseIntArray();
+    private static final SparseIntArray emojiIndexes = new SparseIntArray();
+    /**
+     * incremented whenever the keys change their meaning, see {@link #getMarkerGeneration()}
+     */
+    private static int markerGeneration = 0;
     private static EmojiUtils.EmojiPaint cPaint = null; // cache icons
     private static EmojiUtils.EmojiPaint lPaint = null; // list markers
 
@@ -80,33 +117,17 @@ public final class MapMarkerUtils {
      */
     @NonNull
     public static CacheMarker getCacheMarker(final Resources res, final Geocache cache, @Nullable final CacheListType cacheListType) {
-        final ArrayList<Integer> assignedMarkers = getAssignedMarkers(cache);
-        final int hashcode = new HashCodeBuilder()
-            .append(cache.getAssignedEmoji())
-            .append(cache.isReliableLatLon())
-            .append(cache.getType().id)
-            .append(cache.isDisabled())
-            .append(cache.isArchived())
-            .append(cache.getMapMarkerId())
-            .append(cache.isOwner())
-            .append(cache.isFound())
-            .append(cache.isDNF())
-            .append(cache.hasWillAttendForFutureEvent())
-            .append(showUserModifiedCoords(cache))
-            .append(cache.getPersonalNote())
-            .append(cache.isLogOffline())
-            .append(!cache.getLists().isEmpty())
-            .append(cache.getOfflineLogType())
-            .append(showBackground(cacheListType))
-            .append(showFloppyOverlay(cacheListType))
-            .append(assignedMarkers)
-            .toHashCode();
-
         synchronized (overlaysCache) {
-            CacheMarker marker = overlaysCache.get(hashcode);
+            long key = getCacheMarkerKey(cache, cacheListType);
+            if (key == 0) {
+                // some index overflowed, start over with empty tables
+                clearCachedItems();
+                key = getCacheMarkerKey(cache, cacheListType);
+            }
+            CacheMarker marker = overlaysCache.get(key);
             if (marker == null) {
-                marker = new CacheMarker(hashcode, createCacheMarker(res, cache, cacheListType, assignedMarkers));
-                overlaysCache.put(hashcode, marker);
+                marker = new CacheMarker(key, createCacheMarker(res, cache, cacheListType, getAssignedMarkers(cache.getLists())));
+                putCachedMarker(marker);
             }
             return marker;
         }
@@ -125,38 +146,207 @@ public final class MapMarkerUtils {
      */
     @NonNull
     public static CacheMarker getWaypointMarker(final Resources res, final Waypoint waypoint) {
-        final WaypointType waypointType = waypoint.getWaypointType();
-        final String id = null == waypointType ? WaypointType.WAYPOINT.id : waypointType.id;
-        ArrayList<Integer> assignedMarkers = new ArrayList<>();
-        final String geocode = waypoint.getGeocode();
-        boolean cacheIsDisabled = false;
-        boolean cacheIsArchived = false;
-        if (StringUtils.isNotBlank(geocode)) {
-            final Geocache cache = DataStore.loadCache(geocode, LoadFlags.LOAD_CACHE_OR_DB);
-            if (null != cache) {
-                assignedMarkers = getAssignedMarkers(cache);
-                cacheIsDisabled = cache.isDisabled();
-                cacheIsArchived = cache.isArchived();
+        // the state of the parent cache is delivered with the waypoint, so no cache needs to be loaded
+        final Waypoint.ParentCacheState parentCacheState = waypoint.getParentCacheState();
+
+        synchronized (overlaysCache) {
+            long key = getWaypointMarkerKey(waypoint, parentCacheState);
+            if (key == 0) {
+                clearCachedItems();
+                key = getWaypointMarkerKey(waypoint, parentCacheState);
+            }
+            CacheMarker marker = overlaysCache.get(key);
+            if (marker == null) {
+                final ArrayList<Integer> assignedMarkers = parentCacheState == null ? new ArrayList<>() : getAssignedMarkers(parentCacheState.lists);
+                final boolean cacheIsDisabled = parentCacheState != null && parentCacheState.disabled;
+                final boolean cacheIsArchived = parentCacheState != null && parentCacheState.archived;
+                marker = new CacheMarker(key, createWaypointMarker(res, waypoint, assignedMarkers, cacheIsDisabled, cacheIsArchived));
+                putCachedMarker(marker);
             }
+            return marker;
         }
-        final int hashcode = new HashCodeBuilder()
-            .append(waypoint.isVisited())
-            .append(id)
-            .append(assignedMarkers)
-            .append(cacheIsDisabled)
-            .append(cacheIsArchived)
-            .toHashCode();
+    }
+
+    /**
+     * Obtain the dot drawable for a given cache, from the cache of drawables if possible.
+     */
+    @NonNull
+    public static CacheMarker getCacheDotMarker(final Resources res, final Geocache cache) {
+        return getDotMarker(res, cache.isFound() ? R.drawable.dot_found : cache.getType().dotMarkerId);
+    }
 
+    /**
+     * Obtain the dot drawable for a given waypoint, from the cache of drawables if possible.
+     */
+    @NonNull
+    public static CacheMarker getWaypointDotMarker(final Resources res, final Waypoint waypoint) {
+        return getDotMarker(res, waypoint.getWaypointType().dotMarkerId);
+    }
+
+    @NonNull
+    private static CacheMarker getDotMarker(final Resources res, final int dotMarkerId) {
+        final long key = KEY_DOT | (dotMarkerId & 0xffffffffL);
         synchronized (overlaysCache) {
-            CacheMarker marker = overlaysCache.get(hashcode);
+            CacheMarker marker = overlaysCache.get(key);
             if (marker == null) {
-                marker = new CacheMarker(hashcode, createWaypointMarker(res, waypoint, assignedMarkers, cacheIsDisabled, cacheIsArchived));
-                overlaysCache.put(hashcode, marker);
+                marker = new CacheMarker(key, new LayerDrawable(new Drawable[] { Compatibility.getDrawable(res, dotMarkerId) }));
+                putCachedMarker(marker);
             }
             return marker;
         }
     }
 
+    private static void putCachedMarker(final CacheMarker marker) {
+        if (overlaysCache.size() >= MAX_CACHED_MARKERS) {
+            overlaysCache.clear();
+        }
+        overlaysCache.put(marker.getKey(), marker);
+    }
+
+    /**
+     * Calculate the key of the marker for the given cache. Only state already present in the cache object is used,
+     * so this neither needs database access nor creates temporary objects.
+     *
+     * @return the key, or 0 if an index table is full
+     */
+    private static long getCacheMarkerKey(final Geocache cache, @Nullable final CacheListType cacheListType) {
+        long key = 0;
+        if (!cache.isReliableLatLon()) {
+            key |= FLAG_UNRELIABLE;
+        }
+        if (cache.isArchived()) {
+            key |= FLAG_ARCHIVED;
+        }
+        if (cache.isDisabled()) {
+            key |= FLAG_DISABLED;
+        }
+        if (cache.isOwner()) {
+            key |= FLAG_OWNER;
+        }
+        if (cache.isFound()) {
+            key |= FLAG_FOUND;
+        }
+        if (cache.isDNF()) {
+            key |= FLAG_DNF;
+        }
+        if (cache.hasWillAttendForFutureEvent()) {
+            key |= FLAG_WILL_ATTEND;
+        }
+        if (showUserModifiedCoords(cache)) {
+            key |= FLAG_MODIFIED_COORDS;
+        }
+        if (cache.getPersonalNote() != null) {
+            key |= FLAG_PERSONAL_NOTE;
+        }
+        if (cache.hasLogOffline()) {
+            key |= FLAG_LOG_OFFLINE;
+            final LogType offlineLogType = cache.getOfflineLogType();
+            key |= (offlineLogType == null ? 0L : offlineLogType.ordinal() + 1L) << SHIFT_LOG_TYPE;
+        }
+        if (!cache.getLists().isEmpty()) {
+            key |= FLAG_STORED;
+        }
+        if (showBackground(cacheListType)) {
+            key |= FLAG_BACKGROUND;
+        }
+        if (showFloppyOverlay(cacheListType)) {
+            key |= FLAG_FLOPPY;
+        }
+        if (showBigSmileys(cacheListType)) {
+            key |= FLAG_BIG_SMILEYS;
+        }
+        key |= (long) cache.getType().ordinal() << SHIFT_TYPE;
+
+        final int mapMarkerIndex = getIndex(mapMarkerIndexes, cache.getMapMarkerId(), MAX_MAP_MARKER_INDEX);
+        final int emojiIndex = getIndex(emojiIndexes, cache.getAssignedEmoji(), MAX_EMOJI_INDEX);
+        final long listMarkerKey = getListMarkerKey(cache.getLists());
+        if (mapMarkerIndex < 0 || emojiIndex < 0 || listMarkerKey < 0) {
+            return 0;
+        }
+        return key | ((long) mapMarkerIndex << SHIFT_MAP_MARKER) | ((long) emojiIndex << SHIFT_EMOJI) | listMarkerKey;
+    }
+
+    /**
+     * Calculate the key of the marker for the given waypoint.
+     *
+     * @return the key, or 0 if an index table is full
+     */
+    private static long getWaypointMarkerKey(final Waypoint waypoint, @Nullable final Waypoint.ParentCacheState parentCacheState) {
+        final WaypointType waypointType = waypoint.getWaypointType();
+        long key = KEY_WAYPOINT | (long) (waypointType == null ? WaypointType.WAYPOINT : waypointType).ordinal() << SHIFT_TYPE;
+        if (waypoint.isVisited()) {
+            key |= FLAG_VISITED;
+        }
+        if (parentCacheState == null) {
+            return key;
+        }
+        if (parentCacheState.disabled) {
+            key |= FLAG_DISABLED;
+        }
+        if (parentCacheState.archived) {
+            key |= FLAG_ARCHIVED;
+        }
+        final long listMarkerKey = getListMarkerKey(parentCacheState.lists);
+        return listMarkerKey < 0 ? 0 : key | listMarkerKey;
+    }
+
+    /**
+     * key bits for the first two list markers of a cache on the given lists, see {@link #addListMarkers}
+     *
+     * @return the key bits, or -1 if the index table is full
+     */
+    private static long getListMarkerKey(final Set<Integer> lists) {
+        readLists();
+
+        long key = 0;
+        int count = 0;
+        for (final int list : lists) {
+            final int markerId = list2marker.get(list, EmojiUtils.NO_EMOJI);
+            if (markerId != EmojiUtils.NO_EMOJI) {
+                final int index = getIndex(emojiIndexes, markerId, MAX_EMOJI_INDEX);
+                if (index < 0) {
+                    return -1;
+                }
+                count++;
+                key |= (long) index << (SHIFT_EMOJI + count * BITS_EMOJI);
+                if (count == 2) {
+                    break;
+                }
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Intern the given value (a resource id or an emoji) into a small index, 0 being reserved for "none".
+     *
+     * @return the index, or -1 if no more index is available
+     */
+    private static int getIndex(final SparseIntArray indexes, final int value, final int maxIndex) {
+        if (value == 0) {
+            return 0;
+        }
+        int index = indexes.get(value);
+        if (index == 0) {
+            index = indexes.size() + 1;
+            if (index > maxIndex) {
+                return -1;
+            }
+            indexes.put(value, index);
+        }
+        return index;
+    }
+
+    /**
+     * Generation of the marker keys. Caches of objects derived from markers (like converted bitmaps) have to be
+     * dropped when this changes, as keys might get reused for different markers afterwards.
+     */
+    public static int getMarkerGeneration() {
+        synchronized (overlaysCache) {
+            return markerGeneration;
+        }
+    }
+
     /**
      * Build the drawable for a given waypoint.
      *
@@ -205,28 +395,15 @@ public final class MapMarkerUtils {
         }
     }
 
-    /**
-     * Build the drawable for a given waypoint.
-     *
-     * @param res
-     *          the resources to use
-     * @param waypoint
-     *          the waypoint to build the drawable for
-     * @return
-     *          a drawable representing the current waypoint status
-     */
-    @NonNull
-    public static LayerDrawable createWaypointDotMarker(final Resources res, final Waypoint waypoint) {
-        final Drawable[] layers = { Compatibility.getDrawable(res, waypoint.getWaypointType().dotMarkerId) };
-        return new LayerDrawable(layers);
-    }
-
     /**
      * Clear the cache of drawable items.
      */
     public static void clearCachedItems() {
         synchronized (overlaysCache) {
             overlaysCache.clear();
+            mapMarkerIndexes.clear();
+            emojiIndexes.clear();
+            markerGeneration++;
         }
     }
 
@@ -348,22 +525,6 @@ public final class MapMarkerUtils {
         return Settings.isBigSmileysEnabled() && showBackground(cacheListType);
     }
 
-    /**
-     * Build the drawable for a given cache.
-     *
-     * @param res
-     *          the resources to use
-     * @param cache
-     *          the cache to build the drawable for
-     * @return
-     *          a drawable representing the current cache status
-     */
-    @NonNull
-    public static LayerDrawable createCacheDotMarker(final Resources res, final Geocache cache) {
-        final Drawable[] layers = { Compatibility.getDrawable(res, cache.isFound() ? R.drawable.dot_found : cache.getType().dotMarkerId) };
-        return new LayerDrawable(layers);
-    }
-
     /**
      * Conditional expression to choose if we need the background circle or not.
      *
@@ -416,15 +577,17 @@ public final class MapMarkerUtils {
     }
 
     private static void readLists() {
-        if (!listsRead) {
-            list2marker.clear();
-            final List<StoredList> lists = DataStore.getLists();
-            for (final StoredList temp : lists) {
-                if (temp.markerId != EmojiUtils.NO_EMOJI) {
-                    list2marker.put(temp.id, temp.markerId);
+        synchronized (list2marker) {
+            if (!listsRead) {
+                list2marker.clear();
+                final List<StoredList> lists = DataStore.getLists();
+                for (final StoredList temp : lists) {
+                    if (temp.markerId != EmojiUtils.NO_EMOJI) {
+                        list2marker.put(temp.id, temp.markerId);
+                    }
                 }
+                listsRead = true;
             }
-            listsRead = true;
         }
     }
 
@@ -432,14 +595,13 @@ public final class MapMarkerUtils {
         listsRead = false;
     }
 
-    private static ArrayList<Integer> getAssignedMarkers (final Geocache cache) {
+    private static ArrayList<Integer> getAssignedMarkers(final Set<Integer> lists) {
         readLists();
 
         final ArrayList<Integer> result = new ArrayList<>();
-        final Set<Integer> lists = cache.getLists();
         for (final Integer list : lists) {
-            final Integer markerId = list2marker.get(list);
-            if (markerId != null) {
+            final int markerId = list2marker.get(list, EmojiUtils.NO_EMOJI);
+            if (markerId != EmojiUtils.NO_EMOJI) {
                 result.add(markerId);
             }
         }
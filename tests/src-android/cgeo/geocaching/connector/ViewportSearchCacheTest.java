@@ -0,0 +1,134 @@
+package cgeo.geocaching.connector;
+
+import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.utils.functions.Func1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import junit.framework.TestCase;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class ViewportSearchCacheTest extends TestCase {
+
+    private static final Viewport HAMBURG = new Viewport(new Geopoint(53.5, 9.9), new Geopoint(53.6, 10.1));
+
+    /**
+     * fake search returning one cache per searched area and remembering the searched areas
+     */
+    private static final class RecordingSearch implements Func1<Viewport, SearchResult> {
+        private final List<Viewport> searched = new ArrayList<>();
+
+        @Override
+        public SearchResult call(final Viewport viewport) {
+            searched.add(viewport);
+            return new SearchResult(Collections.singleton("GC" + searched.size()));
+        }
+    }
+
+    private static Viewport move(final Viewport viewport, final double latitude, final double longitude) {
+        final Geopoint center = viewport.getCenter();
+        return new Viewport(new Geopoint(center.getLatitude() + latitude, center.getLongitude() + longitude), viewport.getLatitudeSpan(), viewport.getLongitudeSpan());
+    }
+
+    public static void testRepeatedSearchUsesCache() {
+        final ViewportSearchCache cache = new ViewportSearchCache();
+        final RecordingSearch search = new RecordingSearch();
+
+        final SearchResult first = cache.search("key", HAMBURG, search);
+        assertThat(search.searched).hasSize(1);
+        assertThat(search.searched.get(0).includes(HAMBURG)).isTrue();
+
+        final SearchResult second = cache.search("key", HAMBURG, search);
+        assertThat(search.searched).hasSize(1);
+        assertThat(second.getGeocodes()).isEqualTo(first.getGeocodes());
+    }
+
+    public static void testPanningSearchesOnlyUncoveredPart() {
+        final ViewportSearchCache cache = new ViewportSearchCache();
+        final RecordingSearch search = new RecordingSearch();
+
+        cache.search("key", HAMBURG, search);
+        final Viewport moved = move(HAMBURG, 0, HAMBURG.getLongitudeSpan() / 2);
+        final SearchResult result = cache.search("key", moved, search);
+
+        assertThat(search.searched).hasSize(2);
+        final Viewport remainder = search.searched.get(1);
+        assertThat(remainder.getLongitudeSpan()).isLessThan(search.searched.get(0).getLongitudeSpan());
+        assertThat(remainder.getLongitudeMax()).isGreaterThanOrEqualTo(moved.getLongitudeMax());
+        // caches of the covered part are still part of the result
+        assertThat(result.getGeocodes()).containsOnly("GC1", "GC2");
+    }
+
+    public static void testDifferentKeysAreSeparated() {
+        final ViewportSearchCache cache = new ViewportSearchCache();
+        final RecordingSearch search = new RecordingSearch();
+
+        cache.search("GC", HAMBURG, search);
+        cache.search("OC", HAMBURG, search);
+        assertThat(search.searched).hasSize(2);
+    }
+
+    public static void testExpiredAreasAreSearchedAgain() {
+        final ViewportSearchCache cache = new ViewportSearchCache(-1);
+        final RecordingSearch search = new RecordingSearch();
+
+        cache.search("key", HAMBURG, search);
+        cache.search("key", HAMBURG, search);
+        assertThat(search.searched).hasSize(2);
+    }
+
+    public static void testTruncatedResultsAreNotCached() {
+        final ViewportSearchCache cache = new ViewportSearchCache();
+        final List<String> geocodes = new ArrayList<>();
+        for (int i = 0; i < ViewportSearchCache.TRUNCATION_THRESHOLD; i++) {
+            geocodes.add("GC" + i);
+        }
+        final int[] searches = { 0 };
+        final Func1<Viewport, SearchResult> search = viewport -> {
+            searches[0]++;
+            return new SearchResult(new HashSet<>(geocodes));
+        };
+
+        cache.search("key", HAMBURG, search);
+        cache.search("key", HAMBURG, search);
+        assertThat(searches[0]).isEqualTo(2);
+    }
+
+    public static void testResultsWithTotalCount() {
+        final ViewportSearchCache cache = new ViewportSearchCache();
+        final int[] total = { 2 };
+        final int[] searches = { 0 };
+        final Func1<Viewport, SearchResult> search = viewport -> {
+            searches[0]++;
+            return new SearchResult(Arrays.asList("GC1", "GC2"), total[0]);
+        };
+
+        // more caches on the server than returned
+        total[0] = 3;
+        cache.search("truncated", HAMBURG, search);
+        cache.search("truncated", HAMBURG, search);
+        assertThat(searches[0]).isEqualTo(2);
+
+        // all caches returned
+        total[0] = 2;
+        cache.search("complete", HAMBURG, search);
+        cache.search("complete", HAMBURG, search);
+        assertThat(searches[0]).isEqualTo(3);
+    }
+
+    public static void testClear() {
+        final ViewportSearchCache cache = new ViewportSearchCache();
+        final RecordingSearch search = new RecordingSearch();
+
+        cache.search("key", HAMBURG, search);
+        cache.clear();
+        cache.search("key", HAMBURG, search);
+        assertThat(search.searched).hasSize(2);
+    }
+}
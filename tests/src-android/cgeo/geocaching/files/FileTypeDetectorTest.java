@@ -10,6 +10,12 @@ import android.net.Uri;
 import androidx.annotation.NonNull;
 import androidx.annotation.RawRes;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+
 import static org.assertj.core.api.Java6Assertions.assertThat;
 
 public class FileTypeDetectorTest extends AbstractResourceInstrumentationTestCase {
@@ -45,6 +51,24 @@ public class FileTypeDetectorTest extends AbstractResourceInstrumentationTestCas
         assertFileType(R.raw.pq7545915, FileType.ZIP);
     }
 
+    public void testGpxNamespace() throws Exception {
+        assertGpxNamespace(R.raw.gc1bkp3_gpx100, "http://www.topografix.com/GPX/1/0");
+        assertGpxNamespace(R.raw.renamed_waypoints_wpts, "http://www.topografix.com/GPX/1/0");
+        assertGpxNamespace(R.raw.lab_stary_prostejov, "http://www.topografix.com/GPX/1/1");
+        assertGpxNamespace(R.raw.gc1bkp3_loc, null);
+    }
+
+    private void assertGpxNamespace(@RawRes final int resourceId, final String namespace) throws IOException {
+        final InputStream stream = new BufferedInputStream(getResourceStream(resourceId));
+        try {
+            assertThat(FileTypeDetector.getGpxNamespace(stream)).isEqualTo(namespace);
+            // the stream can still be read from the start
+            assertThat(stream.read()).isEqualTo('<');
+        } finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
     private void assertFileType(@RawRes final int resourceId, @NonNull final FileType fileType) {
         final Uri resourceURI = getResourceURI(resourceId);
         final FileContentResolver contentResolver = new FileContentResolver(getInstrumentation().getContext());
@@ -0,0 +1,113 @@
+package cgeo.geocaching.filter;
+
+import cgeo.geocaching.enumerations.CacheAttribute;
+import cgeo.geocaching.enumerations.CacheSize;
+import cgeo.geocaching.enumerations.CacheType;
+import cgeo.geocaching.enumerations.LoadFlags;
+import cgeo.geocaching.enumerations.WaypointType;
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.models.Waypoint;
+import cgeo.geocaching.storage.DataStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Checks that the database selects the same stored caches as the filters in memory.
+ */
+public class FilterToSqlWhereTest extends TestCase {
+
+    private int listId;
+    private Geocache traditional;
+    private Geocache mystery;
+    private Geocache dnf;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        listId = DataStore.createList("FilterToSqlWhereTest");
+
+        traditional = new Geocache();
+        traditional.setGeocode("TEST_SQL_FILTER_1");
+        traditional.setType(CacheType.TRADITIONAL);
+        traditional.setSize(CacheSize.SMALL);
+        traditional.setDifficulty(1.5f);
+        traditional.setTerrain(4.0f);
+        traditional.setFound(true);
+        traditional.setPremiumMembersOnly(true);
+        traditional.setPersonalNote("note");
+        traditional.setAttributes(Collections.singletonList(CacheAttribute.DOGS.getValue(true)));
+        traditional.addOrChangeWaypoint(new Waypoint("own", WaypointType.OWN, true), false);
+
+        mystery = new Geocache();
+        mystery.setGeocode("TEST_SQL_FILTER_2");
+        mystery.setType(CacheType.MYSTERY);
+        mystery.setSize(CacheSize.REGULAR);
+        mystery.setDifficulty(5.0f);
+        mystery.setTerrain(1.0f);
+        mystery.setDisabled(true);
+        mystery.setPersonalNote(" \n");
+
+        dnf = new Geocache();
+        dnf.setGeocode("TEST_SQL_FILTER_3");
+        dnf.setType(CacheType.MULTI);
+        dnf.setSize(CacheSize.MICRO);
+        dnf.setDifficulty(3.0f);
+        dnf.setTerrain(2.5f);
+        dnf.setDNF(true);
+
+        for (final Geocache cache : Arrays.asList(traditional, mystery, dnf)) {
+            cache.setDetailed(true);
+            cache.getLists().add(listId);
+            DataStore.saveCache(cache, LoadFlags.SAVE_ALL);
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        DataStore.removeCaches(new HashSet<>(Arrays.asList(traditional.getGeocode(), mystery.getGeocode(), dnf.getGeocode())), LoadFlags.REMOVE_ALL);
+        DataStore.removeList(listId);
+        super.tearDown();
+    }
+
+    public void testFiltersMatchInMemoryFiltering() {
+        final List<IFilter> filters = new ArrayList<>();
+        filters.add(new TypeFilter(CacheType.TRADITIONAL));
+        filters.add(new SizeFilter(CacheSize.REGULAR));
+        filters.addAll(new DifficultyFilter.Factory().getFilters());
+        filters.addAll(new TerrainFilter.Factory().getFilters());
+        filters.addAll(new StateFilterFactory().getFilters());
+        filters.add(new AttributeFilter("dogs", CacheAttribute.DOGS.getValue(true)));
+        filters.add(new PersonalNoteFilter());
+        filters.add(new OfflineLogFilter());
+        filters.add(new OwnWaypointFilter());
+
+        for (final IFilter filter : filters) {
+            final String where = filter.toSqlWhere();
+            if (where == null) {
+                continue;
+            }
+            final Set<String> expected = new HashSet<>();
+            for (final Geocache cache : Arrays.asList(traditional, mystery, dnf)) {
+                if (filter.accepts(cache)) {
+                    expected.add(cache.getGeocode());
+                }
+            }
+            assertThat(DataStore.getBatchOfStoredCaches(null, CacheType.ALL, listId, where).getGeocodes()).as(filter.getName()).isEqualTo(expected);
+        }
+    }
+
+    public void testNotFoundFilterKeepsDidNotFindCaches() {
+        final IFilter notFound = new StateFilterFactory.StateNotFoundFilter();
+        assertThat(notFound.accepts(dnf)).isTrue();
+        assertThat(DataStore.getBatchOfStoredCaches(null, CacheType.ALL, listId, notFound.toSqlWhere()).getGeocodes())
+                .containsOnly(mystery.getGeocode(), dnf.getGeocode());
+    }
+}
@@ -732,4 +732,15 @@ public class GeocacheTest extends CGeoTestCase {
         assertThat(cache.isOffline()).isTrue();
     }
 
+    public static void testOfflineLogTypeWithoutLoading() {
+        final Geocache cache = new Geocache();
+        cache.setGeocode("GC_NOT_STORED");
+        cache.setOfflineLogType(LogType.NOTE);
+        assertThat(cache.hasLogOffline()).isTrue();
+        assertThat(cache.getOfflineLogType()).isEqualTo(LogType.NOTE);
+
+        cache.setHasLogOffline(false);
+        assertThat(cache.getOfflineLogType()).isNull();
+    }
+
 }
@@ -0,0 +1,174 @@
+package cgeo.geocaching.storage;
+
+import cgeo.CGeoTestCase;
+import cgeo.geocaching.enumerations.CacheType;
+import cgeo.geocaching.enumerations.LoadFlags;
+import cgeo.geocaching.enumerations.WaypointType;
+import cgeo.geocaching.list.StoredList;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.log.LogType;
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.models.Image;
+import cgeo.geocaching.models.Waypoint;
+import cgeo.geocaching.utils.Log;
+
+import android.os.SystemClock;
+import android.test.suitebuilder.annotation.Suppress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Benchmarks for bulk database operations. They create and remove lots of artificial caches
+ * and are therefore IGNORED/SUPPRESSED by default.
+ */
+public class DataStorePerformanceTest extends CGeoTestCase {
+
+    private static final boolean EXECUTE_METHODS = false;
+
+    private static final String ARTIFICIAL_GEOCACHES_PRAEFIX = "GCPERF";
+
+    /**
+     * Compares loading caches with all details in one batch (one query per child table for the whole batch)
+     * against loading the same caches with the same load flags cache by cache, which needs the queries for
+     * each cache separately.
+     */
+    @Suppress
+    public static void testLoadCachesWithDetails() {
+        //add a manual guard to be extra sure that this is not executed by default!
+        if (!EXECUTE_METHODS) {
+            return;
+        }
+
+        for (final int count : new int[] { 100, 1000, 10000 }) {
+            final Set<String> geocodes = createCaches(count);
+            try {
+                final Map<String, Geocache> bulkCaches = new HashMap<>();
+                DataStore.removeAllFromCache();
+                final long bulk = measure("load " + count + " caches (bulk)", () -> {
+                    for (final Geocache cache : DataStore.loadCaches(geocodes, LoadFlags.LOAD_ALL_DB_ONLY)) {
+                        bulkCaches.put(cache.getGeocode(), cache);
+                    }
+                });
+
+                final Map<String, Geocache> singleCaches = new HashMap<>();
+                DataStore.removeAllFromCache();
+                final long single = measure("load " + count + " caches (per cache)", () -> {
+                    for (final String geocode : geocodes) {
+                        singleCaches.put(geocode, DataStore.loadCache(geocode, LoadFlags.LOAD_ALL_DB_ONLY));
+                    }
+                });
+                Log.d("load " + count + " caches: speedup " + (bulk == 0 ? "-" : String.valueOf((float) single / bulk)));
+
+                assertThat(bulkCaches.keySet()).isEqualTo(geocodes);
+                assertThat(singleCaches.keySet()).isEqualTo(geocodes);
+                for (final String geocode : geocodes) {
+                    assertSameDetails(bulkCaches.get(geocode), singleCaches.get(geocode));
+                }
+            } finally {
+                DataStore.removeCaches(geocodes, LoadFlags.REMOVE_ALL);
+            }
+        }
+    }
+
+    /**
+     * Compares storing caches one transaction per cache against storing them in batched transactions.
+     */
+    @Suppress
+    public static void testSaveCaches() {
+        //add a manual guard to be extra sure that this is not executed by default!
+        if (!EXECUTE_METHODS) {
+            return;
+        }
+
+        for (final int count : new int[] { 100, 1000, 10000 }) {
+            final List<Geocache> caches = createDummyCaches(count);
+            final Set<String> geocodes = Geocache.getGeocodes(caches);
+            try {
+                final long single = measure("save " + count + " caches (per cache)", () -> {
+                    for (final Geocache cache : caches) {
+                        DataStore.saveCache(cache, EnumSet.of(LoadFlags.SaveFlag.DB));
+                    }
+                });
+                DataStore.removeCaches(geocodes, LoadFlags.REMOVE_ALL);
+
+                final List<Geocache> batchCaches = createDummyCaches(count);
+                final long batch = measure("save " + count + " caches (batch)", () -> DataStore.saveCaches(batchCaches, EnumSet.of(LoadFlags.SaveFlag.DB)));
+                Log.d("save " + count + " caches: " + cachesPerSecond(count, single) + " -> " + cachesPerSecond(count, batch) + " caches/s");
+            } finally {
+                DataStore.removeCaches(geocodes, LoadFlags.REMOVE_ALL);
+            }
+        }
+    }
+
+    private static void assertSameDetails(final Geocache bulk, final Geocache single) {
+        assertThat(bulk.getAttributes()).isEqualTo(single.getAttributes());
+        assertThat(bulk.getSpoilers()).isEqualTo(single.getSpoilers());
+        assertThat(bulk.getLogCounts()).isEqualTo(single.getLogCounts());
+        assertThat(bulk.getLists()).isEqualTo(single.getLists());
+        assertThat(bulk.getWaypoints()).hasSameSizeAs(single.getWaypoints());
+        for (int i = 0; i < bulk.getWaypoints().size(); i++) {
+            final Waypoint bulkWaypoint = bulk.getWaypoints().get(i);
+            final Waypoint singleWaypoint = single.getWaypoints().get(i);
+            assertThat(bulkWaypoint.getId()).isEqualTo(singleWaypoint.getId());
+            assertThat(bulkWaypoint.getName()).isEqualTo(singleWaypoint.getName());
+            assertThat(bulkWaypoint.getWaypointType()).isEqualTo(singleWaypoint.getWaypointType());
+            assertThat(bulkWaypoint.getCoords()).isEqualTo(singleWaypoint.getCoords());
+        }
+        assertThat(bulk.getInventory()).hasSameSizeAs(single.getInventory());
+        for (int i = 0; i < bulk.getInventory().size(); i++) {
+            assertThat(bulk.getInventory().get(i).getGeocode()).isEqualTo(single.getInventory().get(i).getGeocode());
+        }
+    }
+
+    private static String cachesPerSecond(final int count, final long millis) {
+        return millis == 0 ? "-" : String.valueOf(count * 1000L / millis);
+    }
+
+    private static Set<String> createCaches(final int count) {
+        final List<Geocache> caches = createDummyCaches(count);
+        DataStore.saveCaches(caches, EnumSet.of(LoadFlags.SaveFlag.DB));
+        return Geocache.getGeocodes(caches);
+    }
+
+    private static List<Geocache> createDummyCaches(final int count) {
+        final List<Geocache> caches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final Geocache cache = new Geocache();
+            cache.setGeocode(ARTIFICIAL_GEOCACHES_PRAEFIX + i);
+            cache.setName("Performance cache " + i);
+            cache.setType(CacheType.TRADITIONAL);
+            cache.setCoords(new Geopoint(48 + (i / 1000f), 11 + (i / 1000f)));
+            cache.setDetailed(true);
+            cache.getLists().add(StoredList.STANDARD_LIST_ID);
+            cache.setAttributes(Arrays.asList("dogs_yes", "night_no", "parking_yes"));
+            cache.setSpoilers(Collections.singletonList(new Image.Builder().setUrl("https://example.com/spoiler" + i + ".jpg").setTitle("Spoiler " + i).build()));
+            final List<Waypoint> waypoints = new ArrayList<>();
+            waypoints.add(new Waypoint("Parking", WaypointType.PARKING, false));
+            waypoints.add(new Waypoint("Stage 1", WaypointType.STAGE, false));
+            cache.setWaypoints(waypoints, false);
+            cache.getLogCounts().put(LogType.FOUND_IT, i);
+            caches.add(cache);
+        }
+        return caches;
+    }
+
+    @SuppressFBWarnings("DM_GC")
+    private static long measure(final String label, final Runnable runnable) {
+        System.gc();
+        final long start = SystemClock.elapsedRealtime();
+        runnable.run();
+        final long end = SystemClock.elapsedRealtime();
+        Log.d(label + ": " + (end - start) + " ms");
+        return end - start;
+    }
+}
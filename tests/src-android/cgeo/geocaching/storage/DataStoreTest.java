@@ -7,10 +7,12 @@ import cgeo.geocaching.connector.gc.Tile;
 import cgeo.geocaching.enumerations.CacheType;
 import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.enumerations.LoadFlags.SaveFlag;
+import cgeo.geocaching.enumerations.WaypointType;
 import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.log.LogEntry;
+import cgeo.geocaching.log.LogSummary;
 import cgeo.geocaching.log.LogType;
 import cgeo.geocaching.log.LogTypeTrackable;
 import cgeo.geocaching.log.OfflineLogEntry;
@@ -18,18 +20,26 @@ import cgeo.geocaching.log.ReportProblemType;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.Image;
 import cgeo.geocaching.models.Trackable;
+import cgeo.geocaching.models.Waypoint;
+import cgeo.geocaching.settings.Settings;
+import cgeo.geocaching.sorting.DistanceComparator;
+import cgeo.geocaching.sorting.NameComparator;
 import static cgeo.geocaching.enumerations.LoadFlags.REMOVE_ALL;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import static org.assertj.core.api.Java6Assertions.assertThat;
 
 public class DataStoreTest extends CGeoTestCase {
@@ -120,6 +130,142 @@ public class DataStoreTest extends CGeoTestCase {
         DataStore.loadWaypoints(viewport, true, true, false, CacheType.TRADITIONAL);
     }
 
+    public static void testLoadWaypointsWithCacheState() {
+        final Viewport viewport = new Viewport(new Geopoint(-1, -2), new Geopoint(3, 4));
+        final Geocache cache = new Geocache();
+        cache.setGeocode(ARTIFICIAL_GEOCODE);
+        cache.setDetailed(true);
+        cache.setCoords(new Geopoint(1, 1));
+        cache.setDisabled(true);
+        cache.setFound(true);
+        cache.getLists().add(StoredList.STANDARD_LIST_ID);
+        final Waypoint waypoint = new Waypoint("Parking", WaypointType.PARKING, false);
+        waypoint.setCoords(new Geopoint(1.5, 1.5));
+        cache.addOrChangeWaypoint(waypoint, false);
+
+        try {
+            DataStore.saveCache(cache, LoadFlags.SAVE_ALL);
+            Waypoint loaded = null;
+            for (final Waypoint candidate : DataStore.loadWaypoints(viewport, false, false, false, CacheType.ALL)) {
+                if (ARTIFICIAL_GEOCODE.equals(candidate.getGeocode())) {
+                    loaded = candidate;
+                }
+            }
+            assertThat(loaded).isNotNull();
+            final Waypoint.ParentCacheState parentCacheState = loaded.getParentCacheState();
+            assertThat(parentCacheState).isNotNull();
+            assertThat(parentCacheState.owner).isFalse();
+            assertThat(parentCacheState.found).isTrue();
+            assertThat(parentCacheState.disabled).isTrue();
+            assertThat(parentCacheState.archived).isFalse();
+        } finally {
+            DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        }
+    }
+
+    // Check that the spatial index follows coordinate changes and removal of caches
+    public static void testLoadStoredInViewport() {
+        final Viewport viewport = new Viewport(new Geopoint(-1, -2), new Geopoint(3, 4));
+        final Geocache cache = new Geocache();
+        cache.setGeocode(ARTIFICIAL_GEOCODE);
+        cache.setDetailed(true);
+        cache.setCoords(new Geopoint(1, 1));
+        cache.getLists().add(StoredList.STANDARD_LIST_ID);
+
+        try {
+            DataStore.saveCache(cache, LoadFlags.SAVE_ALL);
+            assertThat(DataStore.loadStoredInViewport(viewport, CacheType.ALL).getGeocodes()).contains(ARTIFICIAL_GEOCODE);
+
+            cache.setCoords(new Geopoint(40, 40));
+            DataStore.saveCache(cache, LoadFlags.SAVE_ALL);
+            assertThat(DataStore.loadStoredInViewport(viewport, CacheType.ALL).getGeocodes()).doesNotContain(ARTIFICIAL_GEOCODE);
+
+            DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+            assertThat(DataStore.loadStoredInViewport(new Viewport(new Geopoint(39, 39), new Geopoint(41, 41)), CacheType.ALL).getGeocodes()).doesNotContain(ARTIFICIAL_GEOCODE);
+        } finally {
+            DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        }
+    }
+
+    public static void testSearchStoredByKeyword() {
+        final Geocache cache = new Geocache();
+        cache.setGeocode(ARTIFICIAL_GEOCODE);
+        cache.setName("Hidden treasure at the lake");
+        cache.setOwnerDisplayName("Cache Owner");
+        cache.setDetailed(true);
+        cache.getLists().add(StoredList.STANDARD_LIST_ID);
+
+        try {
+            DataStore.saveCache(cache, LoadFlags.SAVE_ALL);
+            assertThat(DataStore.searchStoredByKeyword("treas lak").getGeocodes()).contains(ARTIFICIAL_GEOCODE);
+            assertThat(DataStore.getSuggestionsKeyword("hidden tre")).contains("Hidden treasure at the lake");
+
+            cache.setName("Renamed cache");
+            DataStore.saveCache(cache, LoadFlags.SAVE_ALL);
+            assertThat(DataStore.searchStoredByKeyword("treasure").getGeocodes()).doesNotContain(ARTIFICIAL_GEOCODE);
+            assertThat(DataStore.searchStoredByKeyword("renamed").getGeocodes()).contains(ARTIFICIAL_GEOCODE);
+
+            DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+            assertThat(DataStore.searchStoredByKeyword("renamed").getGeocodes()).doesNotContain(ARTIFICIAL_GEOCODE);
+        } finally {
+            DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        }
+    }
+
+    public static void testLoadStoredGeocodesPage() {
+        final String[] names = { "b cache", "", "A cache", "C cache" };
+        final List<Geocache> caches = new ArrayList<>();
+        final int listId = DataStore.createList("DataStore Test Pages");
+        try {
+            for (int i = 0; i < names.length; i++) {
+                final Geocache cache = new Geocache();
+                cache.setGeocode(ARTIFICIAL_GEOCODE + "PAGE" + i);
+                cache.setName(names[i]);
+                cache.setCoords(new Geopoint(10 + i, 10));
+                cache.setDetailed(true);
+                cache.getLists().add(listId);
+                DataStore.saveCache(cache, LoadFlags.SAVE_ALL);
+                caches.add(cache);
+            }
+            assertThat(DataStore.getStoredCachesCount(CacheType.ALL, listId, null)).isEqualTo(names.length);
+
+            // blank names are sorted last
+            final String byName = new NameComparator().getSqlOrderExpression(null);
+            assertThat(loadAllPages(listId, byName, false)).containsExactly(ARTIFICIAL_GEOCODE + "PAGE2", ARTIFICIAL_GEOCODE + "PAGE0", ARTIFICIAL_GEOCODE + "PAGE3", ARTIFICIAL_GEOCODE + "PAGE1");
+
+            final String byDistance = new DistanceComparator().getSqlOrderExpression(new Geopoint(12.2, 10));
+            assertThat(loadAllPages(listId, byDistance, false)).containsExactly(ARTIFICIAL_GEOCODE + "PAGE2", ARTIFICIAL_GEOCODE + "PAGE3", ARTIFICIAL_GEOCODE + "PAGE1", ARTIFICIAL_GEOCODE + "PAGE0");
+            assertThat(loadAllPages(listId, byDistance, true)).containsExactly(ARTIFICIAL_GEOCODE + "PAGE0", ARTIFICIAL_GEOCODE + "PAGE1", ARTIFICIAL_GEOCODE + "PAGE3", ARTIFICIAL_GEOCODE + "PAGE2");
+
+            // pages must neither skip nor repeat caches with the same sort key
+            final String byTiedDistance = new DistanceComparator().getSqlOrderExpression(new Geopoint(11.5, 10));
+            assertThat(loadAllPages(listId, byTiedDistance, false)).containsExactly(ARTIFICIAL_GEOCODE + "PAGE1", ARTIFICIAL_GEOCODE + "PAGE2", ARTIFICIAL_GEOCODE + "PAGE0", ARTIFICIAL_GEOCODE + "PAGE3");
+        } finally {
+            final Set<String> geocodes = new HashSet<>();
+            for (final Geocache cache : caches) {
+                geocodes.add(cache.getGeocode());
+            }
+            DataStore.removeCaches(geocodes, REMOVE_ALL);
+            DataStore.removeList(listId);
+        }
+    }
+
+    /**
+     * load the list with pages of a single cache, to continue after every cache
+     */
+    private static List<String> loadAllPages(final int listId, final String orderExpression, final boolean descending) {
+        final List<String> geocodes = new ArrayList<>();
+        ImmutablePair<String, Object> last = null;
+        while (true) {
+            final List<ImmutablePair<String, Object>> page = DataStore.loadStoredGeocodesPage(CacheType.ALL, listId, null, orderExpression, descending, last, 1);
+            if (page.isEmpty()) {
+                return geocodes;
+            }
+            last = page.get(0);
+            geocodes.add(last.left);
+        }
+    }
+
     // Check that saving a cache and trackable without logs works (see #2199)
     public static void testSaveWithoutLogs() {
 
@@ -145,6 +291,38 @@ public class DataStoreTest extends CGeoTestCase {
         }
     }
 
+    // Check that a cache failing to be stored does not lose the new waypoints of the other caches of its batch
+    public static void testSaveCachesRetriesFailedBatch() {
+        final String healthyGeocode = ARTIFICIAL_GEOCODE + "1";
+        final String brokenGeocode = ARTIFICIAL_GEOCODE + "2";
+        final Set<String> geocodes = new HashSet<>(Arrays.asList(healthyGeocode, brokenGeocode));
+        DataStore.removeCaches(geocodes, REMOVE_ALL);
+
+        final Geocache healthy = new Geocache();
+        healthy.setGeocode(healthyGeocode);
+        healthy.setDetailed(true);
+        final Waypoint waypoint = new Waypoint("Parking", WaypointType.PARKING, false);
+        healthy.addOrChangeWaypoint(waypoint, false);
+        final Geocache broken = new Geocache();
+        broken.setGeocode(brokenGeocode);
+        broken.setDetailed(true);
+        // a log without author cannot be stored, which fails the whole batch
+        final Map<String, List<LogEntry>> logs = new HashMap<>();
+        logs.put(brokenGeocode, Collections.singletonList(new LogEntry.Builder().setAuthor(null).setLogType(LogType.NOTE).build()));
+
+        try {
+            DataStore.saveCaches(Arrays.asList(healthy, broken), logs, true, EnumSet.of(SaveFlag.DB));
+
+            final Geocache loadedCache = DataStore.loadCache(healthyGeocode, LoadFlags.LOAD_ALL_DB_ONLY);
+            assertThat(loadedCache).isNotNull();
+            assertThat(loadedCache.getWaypoints()).hasSize(1);
+            assertThat(waypoint.getId()).isEqualTo(loadedCache.getWaypoints().get(0).getId());
+            assertThat(DataStore.loadCache(brokenGeocode, LoadFlags.LOAD_CACHE_ONLY)).isNull();
+        } finally {
+            DataStore.removeCaches(geocodes, REMOVE_ALL);
+        }
+    }
+
     // Check that loading a cache by case insensitive geo code works correctly (see #3139)
     public static void testGeocodeCaseInsensitive() {
 
@@ -196,6 +374,82 @@ public class DataStoreTest extends CGeoTestCase {
         assertThat(logsLoadeded).containsExactlyInAnyOrderElementsOf(logs);
     }
 
+    public static void testLogHeaders() {
+        DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        try {
+            final long now = new Date().getTime();
+            final List<LogEntry> logs = new ArrayList<>();
+            logs.add(new LogEntry.Builder().setDate(now - MILLISECONDS_PER_DAY * 3).setLog("oldest").setLogType(LogType.NOTE).build());
+            logs.add(new LogEntry.Builder().setDate(now - MILLISECONDS_PER_DAY * 2).setLog("friend").setLogType(LogType.FOUND_IT).setFriend(true).build());
+            logs.add(new LogEntry.Builder().setDate(now - MILLISECONDS_PER_DAY).setLog("newest").setLogType(LogType.DIDNT_FIND_IT)
+                    .addLogImage(new Image.Builder().setUrl("https://www.cgeo.org/log.jpg").setTitle("log image").build()).build());
+            DataStore.saveLogs(ARTIFICIAL_GEOCODE, logs, true);
+
+            final List<LogEntry> headers = DataStore.loadLogHeaders(ARTIFICIAL_GEOCODE, false, false, 0, 10);
+            assertThat(headers).hasSize(3);
+            assertThat(headers.get(0).getType()).isEqualTo(LogType.DIDNT_FIND_IT);
+            assertThat(headers.get(0).log).isEmpty();
+            assertThat(headers.get(0).hasLogImages()).isFalse();
+            assertThat(DataStore.loadLogText(headers.get(0).id)).isEqualTo("newest");
+
+            assertThat(DataStore.loadLogHeaders(ARTIFICIAL_GEOCODE, false, true, 0, 1).get(0).getLogImages()).hasSize(1);
+
+            final List<LogEntry> page = DataStore.loadLogHeaders(ARTIFICIAL_GEOCODE, false, false, 1, 1);
+            assertThat(page).hasSize(1);
+            assertThat(page.get(0).getType()).isEqualTo(LogType.FOUND_IT);
+
+            final List<LogEntry> friendLogs = DataStore.loadLogHeaders(ARTIFICIAL_GEOCODE, true, false, 0, 10);
+            assertThat(friendLogs).hasSize(1);
+            assertThat(friendLogs.get(0).friend).isTrue();
+        } finally {
+            DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        }
+    }
+
+    public static void testLogSummary() {
+        DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        try {
+            final long now = new Date().getTime();
+            final List<LogEntry> logs = new ArrayList<>();
+            logs.add(new LogEntry.Builder().setDate(now - MILLISECONDS_PER_DAY * 3).setAuthor(Settings.getUserName()).setLogType(LogType.WILL_ATTEND).build());
+            logs.add(new LogEntry.Builder().setDate(now - MILLISECONDS_PER_DAY * 2).setAuthor("friend").setLogType(LogType.NOTE).setFriend(true).build());
+            logs.add(new LogEntry.Builder().setDate(now - MILLISECONDS_PER_DAY).setAuthor("other").setLogType(LogType.WILL_ATTEND).build());
+            // logs stored before the cache
+            DataStore.saveLogs(ARTIFICIAL_GEOCODE, logs, true);
+
+            final Geocache cache = new Geocache();
+            cache.setGeocode(ARTIFICIAL_GEOCODE);
+            cache.setType(CacheType.EVENT);
+            cache.setDetailed(true);
+            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+
+            final LogSummary summary = DataStore.loadCache(ARTIFICIAL_GEOCODE, LoadFlags.LOAD_ALL_DB_ONLY).getLogSummary();
+            assertThat(summary.getOwnLogType()).isEqualTo(LogType.WILL_ATTEND);
+            assertThat(summary.getOwnLogDate()).isEqualTo(now - MILLISECONDS_PER_DAY * 3);
+            assertThat(summary.getFriendLogsCount()).isEqualTo(1);
+            assertThat(summary.isWillAttend()).isTrue();
+            assertThat(summary.getLastLogDate()).isEqualTo(now - MILLISECONDS_PER_DAY);
+            assertThat(summary.getOwnFoundDate()).isEqualTo(0);
+            assertThat(summary.getLastFoundDate()).isEqualTo(0);
+
+            // an "attended" log of someone else doesn't change the own "will attend" state
+            DataStore.saveLogs(ARTIFICIAL_GEOCODE, Collections.singletonList(new LogEntry.Builder().setDate(now - MILLISECONDS_PER_DAY / 2).setAuthor("other").setLogType(LogType.ATTENDED).build()), false);
+            assertThat(DataStore.loadLogSummary(ARTIFICIAL_GEOCODE).isWillAttend()).isTrue();
+
+            DataStore.saveLogs(ARTIFICIAL_GEOCODE, Collections.singletonList(new LogEntry.Builder().setDate(now).setAuthor(Settings.getUserName()).setLogType(LogType.ATTENDED).build()), false);
+            final LogSummary attended = DataStore.loadLogSummary(ARTIFICIAL_GEOCODE);
+            assertThat(attended.getOwnLogType()).isEqualTo(LogType.ATTENDED);
+            assertThat(attended.isWillAttend()).isTrue();
+            assertThat(attended.getLastLogDate()).isEqualTo(now);
+            assertThat(attended.getOwnFoundDate()).isEqualTo(now);
+            assertThat(attended.getLastFoundDate()).isEqualTo(now);
+            // the cache in the CacheCache doesn't keep the old summary
+            assertThat(DataStore.loadCache(ARTIFICIAL_GEOCODE, LoadFlags.LOAD_CACHE_OR_DB).getLogSummary().getOwnFoundDate()).isEqualTo(now);
+        } finally {
+            DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        }
+    }
+
     public static void testLoadCacheHistory() {
         int sumCaches = 0;
         int allCaches = 0;
@@ -262,6 +516,7 @@ public class DataStoreTest extends CGeoTestCase {
         final OfflineLogEntry logEntry = DataStore.loadLogOffline(geocode);
         assertThat(logEntry).isNull();
         assertThat(DataStore.clearLogOffline(geocode)).isEqualTo(false);
+        assertThat(DataStore.hasLogOffline(geocode)).isFalse();
 
         try {
             final OfflineLogEntry.Builder<?> builder = new OfflineLogEntry.Builder<>()
@@ -287,6 +542,7 @@ public class DataStoreTest extends CGeoTestCase {
             OfflineLogEntry loadedLogEntry = DataStore.loadLogOffline(geocode);
             assertEqualToBuilder(loadedLogEntry, builder);
             final int logId = loadedLogEntry.id;
+            assertThat(DataStore.getOfflineLogType(geocode)).isEqualTo(LogType.ARCHIVE);
 
             builder.setDate(logDate.getTime())
                     .setLogType(LogType.DIDNT_FIND_IT)
@@ -312,9 +568,12 @@ public class DataStoreTest extends CGeoTestCase {
             loadedLogEntry = DataStore.loadLogOffline(geocode);
             assertThat(loadedLogEntry.id).isEqualTo(logId);
             assertEqualToBuilder(loadedLogEntry, builder);
+            assertThat(DataStore.getOfflineLogType(geocode)).isEqualTo(LogType.DIDNT_FIND_IT);
 
             //remove
             assertThat(DataStore.clearLogOffline(geocode)).isEqualTo(true);
+            assertThat(DataStore.hasLogOffline(geocode)).isFalse();
+            assertThat(DataStore.getOfflineLogType(geocode)).isNull();
 
         } finally {
             DataStore.clearLogOffline(geocode);
@@ -0,0 +1,56 @@
+package cgeo.geocaching.utils;
+
+import cgeo.CGeoTestCase;
+import cgeo.geocaching.CgeoApplication;
+import cgeo.geocaching.enumerations.CacheType;
+import cgeo.geocaching.log.LogType;
+import cgeo.geocaching.maps.CacheMarker;
+import cgeo.geocaching.models.Geocache;
+
+import android.content.res.Resources;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MapMarkerUtilsTest extends CGeoTestCase {
+
+    private static Geocache createCache() {
+        final Geocache cache = new Geocache();
+        cache.setGeocode("GC1234");
+        cache.setType(CacheType.TRADITIONAL);
+        return cache;
+    }
+
+    private static CacheMarker getMarker(final Geocache cache) {
+        final Resources res = CgeoApplication.getInstance().getResources();
+        return MapMarkerUtils.getCacheMarker(res, cache);
+    }
+
+    public static void testSameStateSharesMarker() {
+        final CacheMarker marker = getMarker(createCache());
+        assertThat(marker.getKey()).isNotEqualTo(0);
+        assertThat(getMarker(createCache())).isSameAs(marker);
+    }
+
+    public static void testDifferentStateDifferentKey() {
+        final Geocache found = createCache();
+        found.setFound(true);
+        final Geocache mystery = createCache();
+        mystery.setType(CacheType.MYSTERY);
+        final Geocache loggedOffline = createCache();
+        loggedOffline.setOfflineLogType(LogType.FOUND_IT);
+        final Geocache noteOffline = createCache();
+        noteOffline.setOfflineLogType(LogType.NOTE);
+
+        final long plainKey = getMarker(createCache()).getKey();
+        assertThat(getMarker(found).getKey()).isNotEqualTo(plainKey);
+        assertThat(getMarker(mystery).getKey()).isNotEqualTo(plainKey);
+        assertThat(getMarker(loggedOffline).getKey()).isNotEqualTo(plainKey);
+        assertThat(getMarker(loggedOffline).getKey()).isNotEqualTo(getMarker(noteOffline).getKey());
+    }
+
+    public static void testClearChangesGeneration() {
+        final int generation = MapMarkerUtils.getMarkerGeneration();
+        MapMarkerUtils.clearCachedItems();
+        assertThat(MapMarkerUtils.getMarkerGeneration()).isNotEqualTo(generation);
+    }
+}
@@ -104,6 +104,28 @@ public class ViewportTest {
         assertThat(vpRef.includes(vpRef.resize(2.0))).isFalse();
     }
 
+    @Test
+    public void testSubtract() {
+        assertThat(vpRef.subtract(vpRef)).isEmpty();
+        assertThat(vpRef.subtract(vpRef.resize(2.0))).isEmpty();
+        final Viewport distant = new Viewport(new Geopoint(10.0, 10.0), new Geopoint(11.0, 11.0));
+        assertThat(vpRef.subtract(distant)).containsExactly(vpRef);
+
+        // moved to the north east
+        final Viewport moved = new Viewport(new Geopoint(0.0, 0.0), new Geopoint(4.0, 6.0));
+        assertThat(moved.subtract(vpRef)).containsExactly(
+                new Viewport(new Geopoint(3.0, 0.0), new Geopoint(4.0, 6.0)),
+                new Viewport(new Geopoint(0.0, 4.0), new Geopoint(3.0, 6.0)));
+
+        // hole in the middle
+        final Viewport hole = vpRef.resize(0.5);
+        assertThat(vpRef.subtract(hole)).containsExactly(
+                new Viewport(new Geopoint(2.0, -2.0), new Geopoint(3.0, 4.0)),
+                new Viewport(new Geopoint(-1.0, -2.0), new Geopoint(0.0, 4.0)),
+                new Viewport(new Geopoint(0.0, -2.0), new Geopoint(2.0, -0.5)),
+                new Viewport(new Geopoint(0.0, 2.5), new Geopoint(2.0, 4.0)));
+    }
+
     @Test
     public void testContaining() {
         assertThat(containing(singleton((ICoordinates) null))).isNull();
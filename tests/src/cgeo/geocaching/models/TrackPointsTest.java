@@ -0,0 +1,62 @@
+package cgeo.geocaching.models;
+
+import cgeo.geocaching.location.Geopoint;
+
+import org.junit.Test;
+import static org.assertj.core.api.Assertions.offset;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class TrackPointsTest {
+
+    @Test
+    public void testEmpty() {
+        final TrackPoints points = new TrackPoints();
+        assertThat(points.isEmpty()).isTrue();
+        assertThat(points.size()).isEqualTo(0);
+        assertThat(points.getLast()).isNull();
+        assertThat(points.getDistance()).isEqualTo(0.0f);
+    }
+
+    @Test
+    public void testAddBeyondInitialCapacity() {
+        final TrackPoints points = new TrackPoints();
+        for (int i = 0; i < 100; i++) {
+            points.add(48.0 + i * 0.001, 11.0 - i * 0.001);
+        }
+        points.trimToSize();
+        assertThat(points.size()).isEqualTo(100);
+        assertThat(points.getLatitude(0)).isEqualTo(48.0, offset(1e-6));
+        assertThat(points.getLongitude(99)).isEqualTo(10.901, offset(1e-6));
+        assertThat(points.get(50)).isEqualTo(new Geopoint(48.05, 10.95));
+        assertThat(points.getLast()).isEqualTo(new Geopoint(48.099, 10.901));
+    }
+
+    @Test
+    public void testDistance() {
+        final Geopoint first = new Geopoint(48.0, 11.0);
+        final Geopoint second = new Geopoint(48.1, 11.0);
+        final Geopoint third = new Geopoint(48.1, 11.2);
+
+        final TrackPoints points = new TrackPoints();
+        points.add(first);
+        assertThat(points.getDistance()).isEqualTo(0.0f);
+        points.add(second);
+        points.add(third);
+        assertThat(points.getDistance()).isEqualTo(first.distanceTo(second) + second.distanceTo(third), offset(1e-3f));
+    }
+
+    @Test
+    public void testAddAll() {
+        final TrackPoints points = new TrackPoints();
+        points.add(48.0, 11.0);
+        final TrackPoints other = new TrackPoints();
+        other.add(48.1, 11.0);
+        other.add(48.1, 11.2);
+
+        points.addAll(other);
+        assertThat(points.size()).isEqualTo(3);
+        assertThat(points.get(1)).isEqualTo(new Geopoint(48.1, 11.0));
+        // the distance includes the connection between both tracks
+        assertThat(points.getDistance()).isGreaterThan(other.getDistance());
+    }
+}
@@ -0,0 +1,72 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.enumerations.CacheType;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.models.Geocache;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class GeocacheGridTest {
+
+    private static Geocache createCache(final String geocode, final CacheType type, final Geopoint coords) {
+        final Geocache cache = new Geocache();
+        cache.setGeocode(geocode);
+        cache.setType(type);
+        cache.setCoords(coords);
+        return cache;
+    }
+
+    private static Set<String> inViewport(final GeocacheGrid grid, final Viewport viewport, final CacheType cacheType) {
+        final Set<String> result = new HashSet<>();
+        grid.addInViewport(viewport, cacheType, result);
+        return result;
+    }
+
+    @Test
+    public void testInViewport() {
+        final GeocacheGrid grid = new GeocacheGrid();
+        grid.put(createCache("GC1", CacheType.TRADITIONAL, new Geopoint(48.1, 11.5)));
+        grid.put(createCache("GC2", CacheType.MULTI, new Geopoint(48.15, 11.55)));
+        grid.put(createCache("GC3", CacheType.TRADITIONAL, new Geopoint(-33.9, -70.6)));
+
+        final Viewport munich = new Viewport(new Geopoint(48.0, 11.4), new Geopoint(48.2, 11.6));
+        assertThat(inViewport(grid, munich, CacheType.ALL)).containsOnly("GC1", "GC2");
+        assertThat(inViewport(grid, munich, CacheType.MULTI)).containsOnly("GC2");
+        assertThat(inViewport(grid, new Viewport(new Geopoint(-34, -71), new Geopoint(-33, -70)), CacheType.ALL)).containsOnly("GC3");
+
+        // large viewport covering more cells than there are non-empty ones
+        assertThat(inViewport(grid, new Viewport(new Geopoint(-80, -170), new Geopoint(80, 170)), CacheType.TRADITIONAL)).containsOnly("GC1", "GC3");
+    }
+
+    @Test
+    public void testMoveAndRemove() {
+        final GeocacheGrid grid = new GeocacheGrid();
+        final Viewport viewport = new Viewport(new Geopoint(48.0, 11.4), new Geopoint(48.2, 11.6));
+        grid.put(createCache("GC1", CacheType.TRADITIONAL, new Geopoint(48.1, 11.5)));
+        assertThat(inViewport(grid, viewport, CacheType.ALL)).containsOnly("GC1");
+
+        grid.put(createCache("GC1", CacheType.TRADITIONAL, new Geopoint(52.5, 13.4)));
+        assertThat(inViewport(grid, viewport, CacheType.ALL)).isEmpty();
+
+        grid.put(createCache("GC1", CacheType.TRADITIONAL, new Geopoint(48.1, 11.5)));
+        grid.remove("GC1");
+        assertThat(inViewport(grid, viewport, CacheType.ALL)).isEmpty();
+    }
+
+    @Test
+    public void testWithoutCoords() {
+        final GeocacheGrid grid = new GeocacheGrid();
+        final Geocache cache = createCache("GC1", CacheType.TRADITIONAL, null);
+        grid.put(cache);
+        final Viewport viewport = new Viewport(new Geopoint(48.0, 11.4), new Geopoint(48.2, 11.6));
+        assertThat(inViewport(grid, viewport, CacheType.ALL)).isEmpty();
+
+        cache.setCoords(new Geopoint(48.1, 11.5));
+        assertThat(inViewport(grid, viewport, CacheType.ALL)).containsOnly("GC1");
+    }
+}
@@ -2,6 +2,8 @@ package cgeo.geocaching.utils;
 
 import cgeo.geocaching.models.Geocache;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
@@ -88,4 +90,18 @@ public class LeastRecentlyUsedMapTest {
         assertThat(cache).containsKey("11");
     }
 
+    @Test
+    public void testRemoveHandlerOnEviction() {
+        final LeastRecentlyUsedMap<String, String> map = new LeastRecentlyUsedMap.LruCache<>(2);
+        final List<String> removed = new ArrayList<>();
+        map.setRemoveHandler(removed::add);
+        map.put("one", "1");
+        map.put("two", "2");
+        map.put("three", "3");
+        map.remove("two");
+
+        assertThat(map.keySet()).containsExactly("three");
+        assertThat(removed).containsExactly("1", "2");
+    }
+
 }
@@ -0,0 +1,45 @@
+package cgeo.geocaching.utils;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class LineSimplifierTest {
+
+    @Test
+    public void testShortLines() {
+        assertThat(LineSimplifier.simplify(new double[0], new double[0], 0, -1, 1.0)).isEmpty();
+        assertThat(LineSimplifier.simplify(new double[] { 1 }, new double[] { 1 }, 0, 0, 1.0)).containsExactly(true);
+        assertThat(LineSimplifier.simplify(new double[] { 1, 2 }, new double[] { 1, 2 }, 0, 1, 1.0)).containsExactly(true, true);
+    }
+
+    @Test
+    public void testStraightLine() {
+        final double[] xs = { 0, 1, 2, 3, 4 };
+        final double[] ys = { 0, 0.1, -0.1, 0, 0 };
+        assertThat(LineSimplifier.simplify(xs, ys, 0, 4, 0.5)).containsExactly(true, false, false, false, true);
+    }
+
+    @Test
+    public void testCorner() {
+        final double[] xs = { 0, 1, 2, 2, 2 };
+        final double[] ys = { 0, 0, 0, 1, 2 };
+        assertThat(LineSimplifier.simplify(xs, ys, 0, 4, 0.5)).containsExactly(true, false, true, false, true);
+        // a corner within the tolerance is dropped as well
+        assertThat(LineSimplifier.simplify(xs, ys, 0, 4, 2.0)).containsExactly(true, false, false, false, true);
+    }
+
+    @Test
+    public void testRange() {
+        final double[] xs = { 10, 0, 1, 2, 2, 2, 10 };
+        final double[] ys = { 10, 0, 0, 0, 1, 2, 10 };
+        assertThat(LineSimplifier.simplify(xs, ys, 1, 5, 0.5)).containsExactly(true, false, true, false, true);
+    }
+
+    @Test
+    public void testClosedLoop() {
+        // start and end at the same point, distances are measured to that point
+        final double[] xs = { 0, 2, 2, 0, 0 };
+        final double[] ys = { 0, 0, 2, 2, 0 };
+        assertThat(LineSimplifier.simplify(xs, ys, 0, 4, 0.5)).containsExactly(true, true, true, true, true);
+    }
+}